@@ -4,9 +4,31 @@ import java.lang.annotation.*;
 
 /**
  * 启动类注解，标识这是一个Evelan Boot应用
+ * <p>
+ * 默认只扫描启动类所在的包及其子包，可以通过 scanBasePackages / scanBasePackageClasses 指定扫描范围，
+ * 并通过 exclude / excludePackages 排除不需要交给容器管理的类。
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface EApplication {
+    /**
+     * 需要扫描的包，为空时使用启动类所在的包
+     */
+    String[] scanBasePackages() default {};
+
+    /**
+     * 以这些类所在的包作为扫描的包，类型安全的 scanBasePackages 写法
+     */
+    Class<?>[] scanBasePackageClasses() default {};
+
+    /**
+     * 排除的 Bean 类
+     */
+    Class<?>[] exclude() default {};
+
+    /**
+     * 排除的包（包括子包）
+     */
+    String[] excludePackages() default {};
 }
@@ -0,0 +1,24 @@
+package net.evelan.frp.bootstrap.annotation.aop;
+
+import net.evelan.frp.bootstrap.core.aop.MethodInterceptor;
+
+import java.lang.annotation.*;
+
+/**
+ * 环绕通知，为 Bean 的方法指定拦截器
+ * <p>
+ * 标记在类上时拦截该类所有能被代理的方法，标记在方法上时只拦截该方法；类上的拦截器排在方法上的拦截器前面，同一注解内按声明顺序执行。
+ * 拦截器本身是容器中的 Bean（实现 MethodInterceptor），按类型获取。
+ * 被标记的 Bean 对外暴露的是生成的子类代理，代理把调用委托给原始 Bean，因此 Bean 内部的 this 调用不会被拦截。
+ * private、static 方法不能被代理；含有非 private final 方法、或者没有非 private 无参构造方法的类不能被标记，创建代理时会报错。
+ * 代理实例创建时会执行一次无参构造方法，构造方法中不要有依赖注入结果的副作用。
+ * 拦截器不能为返回基本类型的方法返回 null。
+ * destroy 方法在原始 Bean 上调用，不会被拦截。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EAround {
+
+    Class<? extends MethodInterceptor>[] value();
+}
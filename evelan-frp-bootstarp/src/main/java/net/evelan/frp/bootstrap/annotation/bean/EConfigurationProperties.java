@@ -0,0 +1,26 @@
+package net.evelan.frp.bootstrap.annotation.bean;
+
+import java.lang.annotation.*;
+
+/**
+ * 仿 SpringBoot 中 @ConfigurationProperties 注解，把 prefix 下的所有配置一次性绑定到 Bean 上
+ * <p>
+ * 普通类通过无参构造方法创建后按字段名绑定，record 通过规范构造方法绑定（record 只有被此注解标记时才会被当作 Bean）。
+ * 字段名同时匹配原样和短横线形式，如 maxFrameLength 匹配 prefix.maxFrameLength 和 prefix.max-frame-length。
+ * 支持 List / Set / Map / 数组、嵌套对象、枚举、DataSize（64KB）和 Duration（30s）。
+ */
+@EComponent
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+@Documented
+public @interface EConfigurationProperties {
+    /**
+     * Bean 名称
+     */
+    String value() default "";
+
+    /**
+     * 配置前缀，如 frp.server
+     */
+    String prefix();
+}
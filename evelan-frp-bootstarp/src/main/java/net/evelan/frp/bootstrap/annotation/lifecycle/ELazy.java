@@ -0,0 +1,17 @@
+package net.evelan.frp.bootstrap.annotation.lifecycle;
+
+import java.lang.annotation.*;
+
+/**
+ * 仿 Spring 的 @Lazy 注解，延迟初始化 Bean
+ * <p>
+ * 标记在 Bean 类或 @EBean 方法上时，容器刷新时只登记 BeanDefinition，直到第一次 getBean 或被注入时才创建、注入、初始化。
+ * 标记在 @EImport 注入点（字段、setter、构造参数）上时，注入的是一个接口代理，第一次调用方法时才去容器中获取目标 Bean。
+ * 开启容器级的延迟初始化（evelan.context.lazy-init=true）后，可以用 @ELazy(false) 让某个 Bean 保持立即初始化。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ELazy {
+    boolean value() default true;
+}
@@ -0,0 +1,36 @@
+package net.evelan.frp.bootstrap.annotation.lifecycle;
+
+import java.lang.annotation.*;
+
+/**
+ * 仿 Spring 的 @Scope 注解，指定 Bean 的作用域
+ * <p>
+ * <ul>
+ *     <li>singleton：默认，容器内只有一个实例</li>
+ *     <li>prototype：每次 getBean 或被注入时都创建、注入、初始化一个新实例，容器不负责销毁</li>
+ *     <li>thread：每个线程一个实例，同一线程内重复获取得到同一个实例</li>
+ *     <li>pooled：从有界对象池借出已经注入、初始化好的实例，用完通过 releaseBean 归还，归还时调用 resetMethod 重置后复用</li>
+ * </ul>
+ * 非 singleton 的 Bean 被注入到 singleton 中时只在注入那一刻获取一次；需要每次按作用域重新获取时，
+ * 注入 ObjectProvider 或使用 @ELazy 注入点（代理的每次方法调用都会按作用域获取目标）；
+ * pooled 实例需要显式借出、归还，应通过 ObjectProvider 或 getBean 获取。
+ * 配置类和 BeanPostProcessor 只能是 singleton。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EScope {
+
+    String SINGLETON = "singleton";
+    String PROTOTYPE = "prototype";
+    String THREAD = "thread";
+    String POOLED = "pooled";
+
+    String value() default SINGLETON;
+
+    // pooled：池中最多保留的空闲实例数，池满时归还的实例会被销毁
+    int poolSize() default 16;
+
+    // pooled：归还实例时调用的无参方法，用于清理上一次使用留下的状态
+    String resetMethod() default "";
+}
@@ -2,6 +2,8 @@ package net.evelan.frp.bootstrap.core;
 
 import net.evelan.frp.bootstrap.annotation.EApplication;
 import net.evelan.frp.bootstrap.core.context.EvelanConfigApplicationContext;
+import net.evelan.frp.bootstrap.core.context.GeneratedContext;
+import net.evelan.frp.bootstrap.core.context.ScanMode;
 import net.evelan.frp.bootstrap.core.solver.PropertyResolver;
 
 import java.util.Properties;
@@ -10,6 +12,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class EvelanApplication {
 
+    // 存在编译期生成的装配代码时是否使用，默认使用
+    public static final String GENERATED_CONTEXT_PROPERTY = "evelan.context.generated";
+
     private static final Set<Class<?>> startedApplications = ConcurrentHashMap.newKeySet();
 
     /**
@@ -19,6 +24,17 @@ public class EvelanApplication {
      * @return 应用上下文
      */
     public static EvelanConfigApplicationContext run(Class<?> primarySource, String... args) {
+        return run(primarySource, ScanMode.SERIAL, args);
+    }
+
+    /**
+     * 启动应用
+     * @param primarySource 主类
+     * @param scanMode 类路径扫描模式，大型类路径可以使用 {@link ScanMode#PARALLEL}
+     * @param args 启动参数
+     * @return 应用上下文
+     */
+    public static EvelanConfigApplicationContext run(Class<?> primarySource, ScanMode scanMode, String... args) {
         // 检查是否有 @EvelanBootApplication 注解
         if (!primarySource.isAnnotationPresent(EApplication.class)) {
             throw new RuntimeException("Startup failed: The primary source " + primarySource.getName() +
@@ -34,22 +50,59 @@ public class EvelanApplication {
         // 记录该应用已启动
         startedApplications.add(primarySource);
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         System.out.println("Starting Evelan Application using Java " + System.getProperty("java.version"));
 
+        PropertyResolver propertyResolver = null;
         try {
-            // 创建并刷新应用上下文
-            // 这里会自动推断 primarySource 所在的包作为扫描的基础包
-            EvelanConfigApplicationContext context = new EvelanConfigApplicationContext(null, new PropertyResolver(new Properties()));
+            // 命令行参数 > 系统属性 > 环境变量 > 配置文件
+            propertyResolver = new PropertyResolver(args, new Properties());
+            // 加载 application.yaml 和激活的 profile 配置文件，文件在文件系统中时监听变化
+            propertyResolver.loadApplicationConfig();
+            GeneratedContext generated = findGeneratedContext(primarySource, propertyResolver);
+            EvelanConfigApplicationContext context;
+            if (generated != null) {
+                // 使用编译期生成的装配代码，不扫描类路径
+                context = new EvelanConfigApplicationContext(primarySource, propertyResolver, generated);
+            } else {
+                // 创建并刷新应用上下文
+                // 这里会自动推断 primarySource 所在的包作为扫描的基础包
+                context = new EvelanConfigApplicationContext(primarySource, propertyResolver, scanMode);
+            }
 
-            long endTime = System.currentTimeMillis();
-            System.out.println("Evelan Application started in " + (endTime - startTime) / 1000.0 + " seconds");
+            long endTime = System.nanoTime();
+            System.out.printf("Evelan Application started in %.3f seconds%n", (endTime - startTime) / 1_000_000_000.0);
 
             return context;
         } catch (Exception e) {
+            // 加载配置时可能已经启动了配置文件监听线程，上下文没有创建成功就不会再有人关闭它
+            if (propertyResolver != null) {
+                propertyResolver.close();
+            }
             // 如果启动失败，从已启动集合中移除，允许重试（可选）
             startedApplications.remove(primarySource);
             throw e;
         }
     }
+
+    /**
+     * 查找 ContextGeneratorProcessor 为启动类生成的装配代码
+     * @return 生成的装配代码，未生成或通过 evelan.context.generated=false 关闭时返回 null
+     */
+    private static GeneratedContext findGeneratedContext(Class<?> primarySource, PropertyResolver propertyResolver) {
+        if (!propertyResolver.getProperty(GENERATED_CONTEXT_PROPERTY, boolean.class, true)) {
+            return null;
+        }
+        Class<?> generatedClass;
+        try {
+            generatedClass = Class.forName(primarySource.getName() + GeneratedContext.CLASS_SUFFIX, true, primarySource.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            return (GeneratedContext) generatedClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to create generated context: " + generatedClass.getName(), e);
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+/**
+ * ProxyFactory 生成的代理类都实现该接口
+ */
+public interface AopProxy {
+
+    /**
+     * 被代理的原始 Bean
+     */
+    Object getProxyTarget();
+}
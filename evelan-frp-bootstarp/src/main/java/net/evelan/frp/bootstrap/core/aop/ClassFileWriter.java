@@ -0,0 +1,438 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 最小的 class 文件写入器
+ * <p>
+ * 只支持生成代理需要的部分：常量池、字段、方法和 Code 属性，以及分支目标处与方法入口局部变量相同、操作数栈为空的 StackMapTable 帧。
+ * 操作数栈深度在写入指令时按每条指令的栈变化计算。
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+    static final int ACC_SYNTHETIC = 0x1000;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ARRAYLENGTH = 0xbe;
+    static final int AALOAD = 0x32;
+    static final int AASTORE = 0x53;
+    static final int ISUB = 0x64;
+    static final int DUP = 0x59;
+    static final int POP = 0x57;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int NEW = 0xbb;
+    static final int ANEWARRAY = 0xbd;
+    static final int CHECKCAST = 0xc0;
+    static final int IFNE = 0x9a;
+
+    // Java 8 class 文件，要求分支目标有 StackMapTable 帧
+    private static final int VERSION = 52;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolEntries = new HashMap<>();
+    private int poolCount = 1;
+
+    private final int access;
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<Code> methods = new ArrayList<>();
+
+    /**
+     * @param access 类的访问标志
+     * @param name 内部名称，如 a/b/C
+     * @param superName 父类内部名称
+     * @param interfaceNames 实现的接口内部名称
+     */
+    ClassFileWriter(int access, String name, String superName, String... interfaceNames) {
+        this.access = access;
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            this.interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    void field(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.fields.add(bytes.toByteArray());
+    }
+
+    /**
+     * 添加方法，返回的 Code 用于写入方法体
+     */
+    Code method(int access, String name, String descriptor) {
+        Code code = new Code(access, utf8(name), utf8(descriptor), argumentSlots(descriptor) + ((access & 0x0008) == 0 ? 1 : 0));
+        this.methods.add(code);
+        return code;
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            // 方法名、属性名都要先登记到常量池
+            int codeName = utf8("Code");
+            int frameName = utf8("StackMapTable");
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(this.poolCount);
+            this.poolOut.flush();
+            out.write(this.pool.toByteArray());
+            out.writeShort(this.access);
+            out.writeShort(this.thisClass);
+            out.writeShort(this.superClass);
+            out.writeShort(this.interfaces.length);
+            for (int i : this.interfaces) {
+                out.writeShort(i);
+            }
+            out.writeShort(this.fields.size());
+            for (byte[] field : this.fields) {
+                out.write(field);
+            }
+            out.writeShort(this.methods.size());
+            for (Code code : this.methods) {
+                code.writeTo(out, codeName, frameName);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // --- 常量池 ---
+
+    private int utf8(String value) {
+        return entry("U" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    private int classRef(String internalName) {
+        int name = utf8(internalName);
+        return entry("C" + internalName, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        });
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = entry("N" + name + " " + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return entry(tag + owner + "." + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int entry(String key, PoolWriter writer) {
+        Integer index = this.poolEntries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            writer.write(this.poolOut);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        index = this.poolCount++;
+        this.poolEntries.put(key, index);
+        return index;
+    }
+
+    @FunctionalInterface
+    private interface PoolWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // --- 描述符 ---
+
+    static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    static String descriptor(Class<?> type) {
+        if (type.isPrimitive()) {
+            return switch (type.getName()) {
+                case "boolean" -> "Z";
+                case "byte" -> "B";
+                case "char" -> "C";
+                case "short" -> "S";
+                case "int" -> "I";
+                case "long" -> "J";
+                case "float" -> "F";
+                case "double" -> "D";
+                default -> "V";
+            };
+        }
+        return type.isArray() ? internalName(type) : "L" + internalName(type) + ";";
+    }
+
+    static String methodDescriptor(Class<?> returnType, Class<?>... parameterTypes) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> parameterType : parameterTypes) {
+            sb.append(descriptor(parameterType));
+        }
+        return sb.append(')').append(descriptor(returnType)).toString();
+    }
+
+    /**
+     * checkcast / anewarray / new 使用的类名：数组用描述符，其他用内部名称
+     */
+    static String typeName(Class<?> type) {
+        return type.isArray() ? descriptor(type) : internalName(type);
+    }
+
+    static int size(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : type == void.class ? 0 : 1;
+    }
+
+    private static int argumentSlots(String descriptor) {
+        int slots = 0;
+        for (int i = 1; descriptor.charAt(i) != ')'; i++) {
+            char c = descriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+                continue;
+            }
+            slots++;
+            while (c == '[') {
+                c = descriptor.charAt(++i);
+            }
+            if (c == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+        }
+        return slots;
+    }
+
+    private static int returnSlots(String descriptor) {
+        char c = descriptor.charAt(descriptor.indexOf(')') + 1);
+        return c == 'V' ? 0 : c == 'J' || c == 'D' ? 2 : 1;
+    }
+
+    /**
+     * 方法体
+     */
+    final class Code {
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final List<Integer> frames = new ArrayList<>();
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private Code(int access, int name, int descriptor, int locals) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxLocals = locals;
+        }
+
+        /**
+         * 无操作数的指令
+         * @param delta 操作数栈变化
+         */
+        Code insn(int opcode, int delta) {
+            this.code.write(opcode);
+            return adjust(delta);
+        }
+
+        Code push(int value) {
+            if (value >= -1 && value <= 5) {
+                return insn(0x03 + value, 1);
+            }
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                this.code.write(0x10);
+                this.code.write(value);
+            } else {
+                this.code.write(0x11);
+                writeShort(value);
+            }
+            return adjust(1);
+        }
+
+        /**
+         * 按类型读取局部变量
+         */
+        Code load(Class<?> type, int slot) {
+            int opcode = !type.isPrimitive() ? 0x19 : type == long.class ? 0x16 : type == float.class ? 0x17 : type == double.class ? 0x18 : 0x15;
+            if (slot > 255) {
+                this.code.write(0xc4);
+                this.code.write(opcode);
+                writeShort(slot);
+            } else {
+                this.code.write(opcode);
+                this.code.write(slot);
+            }
+            this.maxLocals = Math.max(this.maxLocals, slot + size(type));
+            return adjust(size(type));
+        }
+
+        /**
+         * 按类型返回，void 使用 return
+         */
+        Code returnValue(Class<?> type) {
+            int opcode = type == void.class ? RETURN : !type.isPrimitive() ? ARETURN
+                    : type == long.class ? 0xad : type == float.class ? 0xae : type == double.class ? 0xaf : 0xac;
+            return insn(opcode, -size(type));
+        }
+
+        /**
+         * new / checkcast / anewarray
+         */
+        Code type(int opcode, String typeName) {
+            this.code.write(opcode);
+            writeShort(classRef(typeName));
+            return adjust(opcode == NEW ? 1 : 0);
+        }
+
+        Code field(int opcode, String owner, String name, String descriptor) {
+            this.code.write(opcode);
+            writeShort(memberRef(9, owner, name, descriptor));
+            int size = descriptor.charAt(0) == 'J' || descriptor.charAt(0) == 'D' ? 2 : 1;
+            return adjust(opcode == GETFIELD ? size - 1 : -size - 1);
+        }
+
+        Code invoke(int opcode, String owner, String name, String descriptor) {
+            this.code.write(opcode);
+            writeShort(memberRef(opcode == INVOKEINTERFACE ? 11 : 10, owner, name, descriptor));
+            if (opcode == INVOKEINTERFACE) {
+                this.code.write(argumentSlots(descriptor) + 1);
+                this.code.write(0);
+            }
+            return adjust(returnSlots(descriptor) - argumentSlots(descriptor) - (opcode == INVOKESTATIC ? 0 : 1));
+        }
+
+        /**
+         * 写入条件跳转，返回跳转指令的位置，稍后用 {@link #bind(int)} 指定目标
+         */
+        int jump(int opcode) {
+            int position = this.code.size();
+            this.code.write(opcode);
+            writeShort(0);
+            adjust(-1);
+            return position;
+        }
+
+        /**
+         * 把跳转目标绑定到当前位置，并在此处记录一个与方法入口相同的栈帧
+         */
+        Code bind(int jump) {
+            if (this.stack != 0) {
+                throw new IllegalStateException("Operand stack must be empty at branch target");
+            }
+            int target = this.code.size();
+            this.frames.add(target);
+            byte[] bytes = this.code.toByteArray();
+            int offset = target - jump;
+            bytes[jump + 1] = (byte) (offset >> 8);
+            bytes[jump + 2] = (byte) offset;
+            this.code.reset();
+            this.code.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        private Code adjust(int delta) {
+            this.stack += delta;
+            this.maxStack = Math.max(this.maxStack, this.stack);
+            return this;
+        }
+
+        private void writeShort(int value) {
+            this.code.write(value >> 8);
+            this.code.write(value);
+        }
+
+        private void writeTo(DataOutputStream out, int codeName, int frameName) throws IOException {
+            byte[] bytes = this.code.toByteArray();
+            byte[] frameBytes = stackMapTable();
+            out.writeShort(this.access);
+            out.writeShort(this.name);
+            out.writeShort(this.descriptor);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + bytes.length + (frameBytes == null ? 0 : 6 + frameBytes.length));
+            out.writeShort(this.maxStack);
+            out.writeShort(this.maxLocals);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeShort(0);
+            if (frameBytes == null) {
+                out.writeShort(0);
+            } else {
+                out.writeShort(1);
+                out.writeShort(frameName);
+                out.writeInt(frameBytes.length);
+                out.write(frameBytes);
+            }
+        }
+
+        /**
+         * 每个跳转目标一个 same_frame / same_frame_extended
+         */
+        private byte[] stackMapTable() throws IOException {
+            if (this.frames.isEmpty()) {
+                return null;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(this.frames.size());
+            int previous = -1;
+            for (int offset : this.frames) {
+                int delta = offset - previous - 1;
+                if (delta <= 63) {
+                    out.writeByte(delta);
+                } else {
+                    out.writeByte(251);
+                    out.writeShort(delta);
+                }
+                previous = offset;
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+/**
+ * 方法拦截器（环绕通知）
+ * <p>
+ * 调用 {@link MethodInvocation#proceed()} 继续执行拦截器链中的下一个拦截器，最后一个拦截器之后调用目标方法；
+ * 不调用 proceed 时目标方法不会执行。返回值作为被拦截方法的返回值，基本类型方法需要返回对应的包装类型。
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
@@ -0,0 +1,78 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * 一次被拦截的方法调用
+ * <p>
+ * 每个被代理的方法都有一个生成的子类：参数按原始类型保存在字段中，目标方法通过普通的 invokevirtual 调用，
+ * 整个调用路径上没有 Method.invoke，基本类型参数也不会装箱。只有拦截器调用 {@link #getArguments()} 时才会装箱生成参数数组。
+ */
+public abstract class MethodInvocation {
+
+    private static final MethodInterceptor[] NO_INTERCEPTORS = new MethodInterceptor[0];
+
+    private final Object target;
+    private final Method method;
+    private final MethodInterceptor[] interceptors;
+    private int index;
+
+    /**
+     * @param interceptors 拦截器链；为 null 表示唯一的拦截器已经由代理直接调用，proceed 直接调用目标方法。
+     *                     这时 JIT 能确定 proceed 不会再进入拦截器，Invocation 对象可以被标量替换，不在堆上分配
+     */
+    protected MethodInvocation(Object target, Method method, MethodInterceptor[] interceptors) {
+        this.target = target;
+        this.method = method;
+        this.interceptors = interceptors != null ? interceptors : NO_INTERCEPTORS;
+    }
+
+    /**
+     * 执行拦截器链中的下一个拦截器，全部执行完后调用目标方法
+     * @return 目标方法的返回值，基本类型为包装类型，void 方法为 null
+     */
+    public final Object proceed() throws Throwable {
+        if (this.index < this.interceptors.length) {
+            return this.interceptors[this.index++].invoke(this);
+        }
+        return invokeTarget();
+    }
+
+    /**
+     * 被拦截的方法
+     */
+    public final Method getMethod() {
+        return this.method;
+    }
+
+    /**
+     * 被代理的原始 Bean
+     */
+    public final Object getThis() {
+        return this.target;
+    }
+
+    /**
+     * 调用参数，每次调用都会生成新的数组（基本类型在这里装箱），修改数组不会影响目标方法收到的参数
+     */
+    public abstract Object[] getArguments();
+
+    /**
+     * 使用保存的参数调用目标方法
+     */
+    protected abstract Object invokeTarget() throws Throwable;
+
+    /**
+     * 代理方法的返回类型是基本类型时，生成的代理类在拆箱前调用该方法检查拦截器的返回值
+     * <p>
+     * 拦截器返回 null 时直接拆箱只会得到没有任何信息的 NullPointerException，这里改为报告具体的方法和 Bean 类型。
+     * 代理类定义在被代理类所在的包中，只能调用 public 方法，拦截器不需要使用它
+     */
+    public static Object checkPrimitiveResult(Object result, Method method, Object target) {
+        if (result == null) {
+            throw new RuntimeException(String.format("Interceptor returned null for method '%s' of bean %s, but the method returns primitive type %s",
+                    method.getName(), target.getClass().getName(), method.getReturnType().getName()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,333 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.evelan.frp.bootstrap.core.aop.ClassFileWriter.*;
+
+/**
+ * 为一个类生成的子类代理
+ * <p>
+ * 代理类 X$$EvelanProxy 继承 X，覆盖 X 中所有能被覆盖、并且能从 X 所在的包调用的实例方法：
+ * <pre>
+ * public int test(int a) {
+ *     if ($chains[k].length == 0) return $target.test(a);
+ *     if ($chains[k].length == 1) return ((Integer) $chains[k][0].invoke(new X$$EvelanProxy$$Invocation{k}($target, $methods[k], null, a))).intValue();
+ *     return ((Integer) new X$$EvelanProxy$$Invocation{k}($target, $methods[k], $chains[k], a).proceed()).intValue();
+ * }
+ * </pre>
+ * 每个方法对应的 Invocation 类把参数保存在同类型的字段里，invokeTarget 直接调用 $target.test(a)。
+ * 基本类型返回值在拆箱前检查拦截器是否返回了 null，见 {@link MethodInvocation#checkPrimitiveResult}。
+ * 代理类只有一个无参构造方法，调用 X 的无参构造方法，所以 X 必须有非 private 的无参构造方法；
+ * 代理实例自身的字段不会被注入、初始化，所有调用都委托给已经完成注入、初始化的原始 Bean。
+ * 没有被覆盖的方法（其他包中的 protected / 包访问方法）直接在代理实例上执行，不会被拦截，也看不到原始 Bean 的状态。
+ * final 方法同样无法覆盖，调用方却能直接调用它，得到的是代理实例上未注入字段的结果，所以含有非 private final 方法的类不能被代理。
+ */
+final class ProxyClass {
+
+    static final String SUFFIX = "$$EvelanProxy";
+
+    private static final String INVOCATION = internalName(MethodInvocation.class);
+    private static final String INTERCEPTOR_ARRAY = "[" + descriptor(MethodInterceptor.class);
+    private static final String METHOD_ARRAY = "[" + descriptor(Method.class);
+    private static final String INVOCATION_CONSTRUCTOR = "(" + descriptor(Object.class) + descriptor(Method.class) + INTERCEPTOR_ARRAY + ")V";
+
+    private final Class<?> proxyClass;
+    private final Method[] methods;
+    private final MethodHandle constructor;
+    private final MethodHandle targetSetter;
+    private final MethodHandle methodsSetter;
+    private final MethodHandle chainsSetter;
+
+    private ProxyClass(Class<?> proxyClass, Method[] methods) throws ReflectiveOperationException {
+        this.proxyClass = proxyClass;
+        this.methods = methods;
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(proxyClass, MethodHandles.lookup());
+        // 生成的无参构造方法只调用 X 的无参构造方法，字段在创建后一次性写入
+        this.constructor = lookup.findConstructor(proxyClass, MethodType.methodType(void.class));
+        this.targetSetter = lookup.findSetter(proxyClass, "$target", proxyClass.getSuperclass());
+        this.methodsSetter = lookup.findSetter(proxyClass, "$methods", Method[].class);
+        this.chainsSetter = lookup.findSetter(proxyClass, "$chains", MethodInterceptor[][].class);
+    }
+
+    /**
+     * 被代理的方法，下标与拦截器链数组一致
+     */
+    Method[] getMethods() {
+        return this.methods;
+    }
+
+    Object newInstance(Object target, MethodInterceptor[][] chains) {
+        try {
+            Object proxy = this.constructor.invoke();
+            this.targetSetter.invoke(proxy, target);
+            this.methodsSetter.invoke(proxy, this.methods);
+            this.chainsSetter.invoke(proxy, chains);
+            return proxy;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create proxy instance of class: " + this.proxyClass.getName(), e);
+        }
+    }
+
+    /**
+     * 生成并定义代理类，代理类和 Invocation 类定义在被代理类所在的包和类加载器中
+     */
+    static ProxyClass generate(Class<?> type) {
+        if (Modifier.isFinal(type.getModifiers()) || type.isInterface() || type.isArray() || type.isPrimitive()) {
+            throw new RuntimeException("Cannot create subclass proxy for final class or interface: " + type.getName());
+        }
+        requireNoArgConstructor(type);
+        Method[] methods = proxiedMethods(type);
+        String proxyName = internalName(type) + SUFFIX;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            for (int k = 0; k < methods.length; k++) {
+                lookup.defineClass(invocationClass(type, proxyName, methods[k], k));
+            }
+            Class<?> proxyClass = lookup.defineClass(proxyClass(type, proxyName, methods));
+            return new ProxyClass(proxyClass, methods);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new RuntimeException("Failed to generate subclass proxy for class: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 代理类的构造方法必须调用 X 的某个构造方法，只支持代理类能够访问的无参构造方法（代理类与 X 在同一个包中，private 以外都可以）
+     */
+    private static void requireNoArgConstructor(Class<?> type) {
+        try {
+            if (!Modifier.isPrivate(type.getDeclaredConstructor().getModifiers())) {
+                return;
+            }
+        } catch (NoSuchMethodException ignored) {
+        }
+        throw new RuntimeException(String.format("Cannot create subclass proxy for class %s: a non-private no-arg constructor is required", type.getName()));
+    }
+
+    /**
+     * 按签名收集需要覆盖的方法，子类的声明优先
+     */
+    private static Method[] proxiedMethods(Class<?> type) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            boolean samePackage = c.getPackageName().equals(type.getPackageName()) && c.getClassLoader() == type.getClassLoader();
+            for (Method m : c.getDeclaredMethods()) {
+                int mod = m.getModifiers();
+                String signature = m.getName() + methodDescriptor(m.getReturnType(), m.getParameterTypes());
+                if (Modifier.isStatic(mod) || Modifier.isPrivate(mod) || m.isBridge() || m.isSynthetic() || methods.containsKey(signature)) {
+                    continue;
+                }
+                // final 方法会在代理实例未初始化的字段上执行，结果是错的且没有任何报错，直接拒绝代理
+                if (Modifier.isFinal(mod)) {
+                    throw new RuntimeException(String.format("Cannot create subclass proxy for class %s: method '%s' declared in %s is final",
+                            type.getName(), m.getName(), c.getName()));
+                }
+                // 其他包中的 protected / 包访问方法不能从代理类所在的包调用，先占位再排除，父类的同名方法也不再代理
+                boolean overridable = Modifier.isPublic(mod) || samePackage;
+                methods.put(signature, overridable ? m : null);
+            }
+        }
+        List<Method> result = new ArrayList<>();
+        for (Method m : methods.values()) {
+            if (m != null) {
+                result.add(m);
+            }
+        }
+        return result.toArray(new Method[0]);
+    }
+
+    private static byte[] proxyClass(Class<?> type, String proxyName, Method[] methods) {
+        String owner = internalName(type);
+        String targetDescriptor = descriptor(type);
+        ClassFileWriter cw = new ClassFileWriter(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, proxyName, owner,
+                internalName(AopProxy.class));
+        cw.field(ACC_PRIVATE, "$target", targetDescriptor);
+        cw.field(ACC_PRIVATE, "$methods", METHOD_ARRAY);
+        cw.field(ACC_PRIVATE, "$chains", "[" + INTERCEPTOR_ARRAY);
+
+        cw.method(ACC_PUBLIC, "getProxyTarget", "()" + descriptor(Object.class))
+                .load(Object.class, 0)
+                .field(GETFIELD, proxyName, "$target", targetDescriptor)
+                .returnValue(Object.class);
+
+        cw.method(ACC_PUBLIC, "<init>", "()V")
+                .load(Object.class, 0)
+                .invoke(INVOKESPECIAL, owner, "<init>", "()V")
+                .returnValue(void.class);
+
+        for (int k = 0; k < methods.length; k++) {
+            Method m = methods[k];
+            Class<?>[] parameterTypes = m.getParameterTypes();
+            String methodDescriptor = methodDescriptor(m.getReturnType(), parameterTypes);
+            int access = m.getModifiers() & (ACC_PUBLIC | ACC_PROTECTED);
+            ClassFileWriter.Code code = cw.method(access, m.getName(), methodDescriptor);
+
+            // 没有拦截器时直接委托
+            code.load(Object.class, 0)
+                    .field(GETFIELD, proxyName, "$chains", "[" + INTERCEPTOR_ARRAY)
+                    .push(k)
+                    .insn(AALOAD, -1)
+                    .insn(ARRAYLENGTH, 0);
+            int intercepted = code.jump(IFNE);
+            code.load(Object.class, 0).field(GETFIELD, proxyName, "$target", targetDescriptor);
+            loadArguments(code, parameterTypes, 1);
+            code.invoke(INVOKEVIRTUAL, owner, m.getName(), methodDescriptor)
+                    .returnValue(m.getReturnType());
+
+            // 只有一个拦截器时直接调用，Invocation 不再持有拦截器链
+            String invocationName = proxyName + "$$Invocation" + k;
+            code.bind(intercepted)
+                    .load(Object.class, 0)
+                    .field(GETFIELD, proxyName, "$chains", "[" + INTERCEPTOR_ARRAY)
+                    .push(k)
+                    .insn(AALOAD, -1)
+                    .insn(ARRAYLENGTH, 0)
+                    .push(1)
+                    .insn(ISUB, -1);
+            int chained = code.jump(IFNE);
+            code.load(Object.class, 0).field(GETFIELD, proxyName, "$chains", "[" + INTERCEPTOR_ARRAY).push(k).insn(AALOAD, -1)
+                    .push(0).insn(AALOAD, -1)
+                    .type(NEW, invocationName)
+                    .insn(DUP, 1)
+                    .load(Object.class, 0).field(GETFIELD, proxyName, "$target", targetDescriptor)
+                    .load(Object.class, 0).field(GETFIELD, proxyName, "$methods", METHOD_ARRAY).push(k).insn(AALOAD, -1)
+                    .insn(ACONST_NULL, 1);
+            loadArguments(code, parameterTypes, 1);
+            code.invoke(INVOKESPECIAL, invocationName, "<init>", invocationConstructor(type, parameterTypes))
+                    .invoke(INVOKEINTERFACE, internalName(MethodInterceptor.class), "invoke",
+                            methodDescriptor(Object.class, MethodInvocation.class));
+            unboxAndReturn(code, m.getReturnType(), proxyName, targetDescriptor, k);
+
+            // 多个拦截器时创建 Invocation 执行拦截器链
+            code.bind(chained)
+                    .type(NEW, invocationName)
+                    .insn(DUP, 1)
+                    .load(Object.class, 0).field(GETFIELD, proxyName, "$target", targetDescriptor)
+                    .load(Object.class, 0).field(GETFIELD, proxyName, "$methods", METHOD_ARRAY).push(k).insn(AALOAD, -1)
+                    .load(Object.class, 0).field(GETFIELD, proxyName, "$chains", "[" + INTERCEPTOR_ARRAY).push(k).insn(AALOAD, -1);
+            loadArguments(code, parameterTypes, 1);
+            code.invoke(INVOKESPECIAL, invocationName, "<init>", invocationConstructor(type, parameterTypes))
+                    .invoke(INVOKEVIRTUAL, INVOCATION, "proceed", "()" + descriptor(Object.class));
+            unboxAndReturn(code, m.getReturnType(), proxyName, targetDescriptor, k);
+        }
+        return cw.toByteArray();
+    }
+
+    private static byte[] invocationClass(Class<?> type, String proxyName, Method m, int k) {
+        String name = proxyName + "$$Invocation" + k;
+        String targetDescriptor = descriptor(type);
+        Class<?>[] parameterTypes = m.getParameterTypes();
+        ClassFileWriter cw = new ClassFileWriter(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, name, INVOCATION);
+        cw.field(ACC_PRIVATE | ACC_FINAL, "target", targetDescriptor);
+        for (int i = 0; i < parameterTypes.length; i++) {
+            cw.field(ACC_PRIVATE | ACC_FINAL, "a" + i, descriptor(parameterTypes[i]));
+        }
+
+        // (X target, Method method, MethodInterceptor[] interceptors, 参数...)
+        ClassFileWriter.Code constructor = cw.method(ACC_PUBLIC, "<init>", invocationConstructor(type, parameterTypes))
+                .load(Object.class, 0).load(Object.class, 1).load(Object.class, 2).load(Object.class, 3)
+                .invoke(INVOKESPECIAL, INVOCATION, "<init>", INVOCATION_CONSTRUCTOR)
+                .load(Object.class, 0).load(Object.class, 1)
+                .field(PUTFIELD, name, "target", targetDescriptor);
+        int slot = 4;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            constructor.load(Object.class, 0).load(parameterTypes[i], slot)
+                    .field(PUTFIELD, name, "a" + i, descriptor(parameterTypes[i]));
+            slot += size(parameterTypes[i]);
+        }
+        constructor.returnValue(void.class);
+
+        ClassFileWriter.Code invokeTarget = cw.method(ACC_PROTECTED, "invokeTarget", "()" + descriptor(Object.class))
+                .load(Object.class, 0).field(GETFIELD, name, "target", targetDescriptor);
+        for (int i = 0; i < parameterTypes.length; i++) {
+            invokeTarget.load(Object.class, 0).field(GETFIELD, name, "a" + i, descriptor(parameterTypes[i]));
+        }
+        invokeTarget.invoke(INVOKEVIRTUAL, internalName(type), m.getName(), methodDescriptor(m.getReturnType(), parameterTypes));
+        if (m.getReturnType() == void.class) {
+            invokeTarget.insn(ACONST_NULL, 1);
+        } else {
+            box(invokeTarget, m.getReturnType());
+        }
+        invokeTarget.returnValue(Object.class);
+
+        ClassFileWriter.Code getArguments = cw.method(ACC_PUBLIC, "getArguments", "()[" + descriptor(Object.class))
+                .push(parameterTypes.length)
+                .type(ANEWARRAY, internalName(Object.class));
+        for (int i = 0; i < parameterTypes.length; i++) {
+            getArguments.insn(DUP, 1).push(i)
+                    .load(Object.class, 0).field(GETFIELD, name, "a" + i, descriptor(parameterTypes[i]));
+            box(getArguments, parameterTypes[i]);
+            getArguments.insn(AASTORE, -3);
+        }
+        getArguments.returnValue(Object.class);
+        return cw.toByteArray();
+    }
+
+    private static String invocationConstructor(Class<?> type, Class<?>[] parameterTypes) {
+        Class<?>[] all = new Class<?>[parameterTypes.length + 3];
+        all[0] = type;
+        all[1] = Method.class;
+        all[2] = MethodInterceptor[].class;
+        System.arraycopy(parameterTypes, 0, all, 3, parameterTypes.length);
+        return methodDescriptor(void.class, all);
+    }
+
+    private static void loadArguments(ClassFileWriter.Code code, Class<?>[] parameterTypes, int slot) {
+        for (Class<?> parameterType : parameterTypes) {
+            code.load(parameterType, slot);
+            slot += size(parameterType);
+        }
+    }
+
+    /**
+     * 栈顶的基本类型装箱，引用类型不变
+     */
+    private static void box(ClassFileWriter.Code code, Class<?> type) {
+        if (type.isPrimitive()) {
+            Class<?> wrapper = wrapper(type);
+            code.invoke(INVOKESTATIC, internalName(wrapper), "valueOf", methodDescriptor(wrapper, type));
+        }
+    }
+
+    /**
+     * 把 proceed 的返回值转换成方法的返回类型并返回，基本类型拆箱前先检查返回值不为 null
+     */
+    private static void unboxAndReturn(ClassFileWriter.Code code, Class<?> type, String proxyName, String targetDescriptor, int k) {
+        if (type == void.class) {
+            code.insn(POP, -1).returnValue(void.class);
+            return;
+        }
+        if (type.isPrimitive()) {
+            Class<?> wrapper = wrapper(type);
+            code.load(Object.class, 0).field(GETFIELD, proxyName, "$methods", METHOD_ARRAY).push(k).insn(AALOAD, -1)
+                    .load(Object.class, 0).field(GETFIELD, proxyName, "$target", targetDescriptor)
+                    .invoke(INVOKESTATIC, INVOCATION, "checkPrimitiveResult",
+                            methodDescriptor(Object.class, Object.class, Method.class, Object.class))
+                    .type(CHECKCAST, internalName(wrapper))
+                    .invoke(INVOKEVIRTUAL, internalName(wrapper), type.getName() + "Value", methodDescriptor(type));
+        } else if (type != Object.class) {
+            code.type(CHECKCAST, typeName(type));
+        }
+        code.returnValue(type);
+    }
+
+    private static Class<?> wrapper(Class<?> type) {
+        return switch (type.getName()) {
+            case "boolean" -> Boolean.class;
+            case "byte" -> Byte.class;
+            case "char" -> Character.class;
+            case "short" -> Short.class;
+            case "int" -> Integer.class;
+            case "long" -> Long.class;
+            case "float" -> Float.class;
+            default -> Double.class;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * 子类代理工厂
+ * <p>
+ * 第一次代理某个类时生成并定义它的代理类（按 Class 缓存在 ClassValue 中），之后每个代理实例只是一次对象分配和三次字段写入。
+ * 代理的每个方法先检查自己的拦截器链：为空时直接调用原始 Bean，否则按顺序执行拦截器，最后调用原始 Bean 的方法。
+ * 与 JDK 动态代理不同，代理是被代理类的子类，不要求实现接口，调用路径上没有反射，基本类型参数不装箱。
+ */
+public final class ProxyFactory {
+
+    private static final ClassValue<ProxyClass> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> type) {
+            return ProxyClass.generate(type);
+        }
+    };
+
+    private ProxyFactory() {
+    }
+
+    /**
+     * 为原始 Bean 创建子类代理
+     * @param target 原始 Bean，调用都会委托给它
+     * @param advisor 为每个被代理的方法返回拦截器链，不需要拦截时返回空数组
+     * @return 代理实例，是 target 实际类型的子类
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T createProxy(T target, Function<Method, MethodInterceptor[]> advisor) {
+        ProxyClass proxyClass = PROXY_CLASSES.get(target.getClass());
+        Method[] methods = proxyClass.getMethods();
+        MethodInterceptor[][] chains = new MethodInterceptor[methods.length][];
+        for (int i = 0; i < methods.length; i++) {
+            MethodInterceptor[] chain = advisor.apply(methods[i]);
+            chains[i] = chain == null ? new MethodInterceptor[0] : chain.clone();
+        }
+        return (T) proxyClass.newInstance(target, chains);
+    }
+
+    /**
+     * 获取代理的原始 Bean，不是代理时原样返回
+     */
+    public static Object getTarget(Object bean) {
+        return bean instanceof AopProxy proxy ? proxy.getProxyTarget() : bean;
+    }
+}
@@ -0,0 +1,117 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 基于字节码的注解预过滤器
+ * <p>
+ * 扫描阶段只读取 class 文件字节，判断类上的注解（含元注解）是否可能解析为目标注解，
+ * 只有通过过滤的类才会交给 ClassLoader 加载，避免为大量非 Bean 类执行静态初始化、占用元空间。
+ * 元注解的判断同样基于注解类型自身的 class 文件字节，并缓存解析结果。
+ */
+public class AnnotationClassFilter {
+
+    private static final String CONFIGURATION_PROPERTIES_ANNOTATION = EConfigurationProperties.class.getName();
+
+    private final ClassLoader classLoader;
+    // 目标注解全类名，如 net.evelan.frp.bootstrap.annotation.bean.EComponent
+    private final Set<String> targetAnnotations;
+    // 注解类型 -> class 文件元数据，找不到的注解（如不在类路径上）记为 empty
+    private final Map<String, Optional<ClassMetadata>> annotationMetadataCache = new ConcurrentHashMap<>();
+    // 注解类型 -> 是否直接或间接被目标注解标记
+    private final Map<String, Boolean> resolvedCache = new ConcurrentHashMap<>();
+
+    public AnnotationClassFilter(ClassLoader classLoader, Collection<Class<? extends Annotation>> targetAnnotations) {
+        this.classLoader = classLoader;
+        this.targetAnnotations = targetAnnotations.stream().map(Class::getName).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 判断 class 文件是否是候选 Bean 类
+     * @param classBytes class 文件字节
+     * @return 是否需要加载该类
+     */
+    public boolean matches(byte[] classBytes) {
+        ClassMetadata metadata;
+        try {
+            metadata = ClassMetadata.read(classBytes);
+        } catch (RuntimeException e) {
+            // 无法解析的 class 文件（如更高版本的格式），交给 ClassLoader 按原逻辑处理
+            return true;
+        }
+        return matches(metadata);
+    }
+
+    public boolean matches(ClassMetadata metadata) {
+        if (metadata.isAnnotation() || metadata.isInterface() || metadata.isEnum()) {
+            return false;
+        }
+        // record 只有被 @EConfigurationProperties 标记时才是 Bean
+        if (metadata.isRecord()) {
+            return metadata.annotationNames().contains(CONFIGURATION_PROPERTIES_ANNOTATION);
+        }
+        for (String annotationName : metadata.annotationNames()) {
+            if (isTargetAnnotation(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTargetAnnotation(String annotationName) {
+        Boolean resolved = resolvedCache.get(annotationName);
+        if (resolved == null) {
+            // 只缓存顶层结果：递归途中因循环引用被剪枝的中间结果并不可靠
+            resolved = isTargetAnnotation(annotationName, new HashSet<>());
+            resolvedCache.put(annotationName, resolved);
+        }
+        return resolved;
+    }
+
+    private boolean isTargetAnnotation(String annotationName, Set<String> visited) {
+        if (targetAnnotations.contains(annotationName)) {
+            return true;
+        }
+        // JDK 自带的注解不可能被目标注解标记
+        if (annotationName.startsWith("java.") || !visited.add(annotationName)) {
+            return false;
+        }
+        Boolean resolved = resolvedCache.get(annotationName);
+        if (resolved != null) {
+            return resolved;
+        }
+        Optional<ClassMetadata> metadata = annotationMetadataCache.computeIfAbsent(annotationName, this::readAnnotationMetadata);
+        if (metadata.isEmpty()) {
+            return false;
+        }
+        for (String metaAnnotation : metadata.get().annotationNames()) {
+            if (isTargetAnnotation(metaAnnotation, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Optional<ClassMetadata> readAnnotationMetadata(String annotationName) {
+        String path = annotationName.replace('.', '/') + ".class";
+        try (InputStream input = classLoader.getResourceAsStream(path)) {
+            if (input == null) {
+                return Optional.empty();
+            }
+            return Optional.of(ClassMetadata.read(input.readAllBytes()));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.aop.EAround;
+import net.evelan.frp.bootstrap.core.aop.MethodInterceptor;
+import net.evelan.frp.bootstrap.core.aop.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @EAround 的处理
+ * <p>
+ * 类是否需要代理按 Class 缓存；需要代理时按类上、方法上的 @EAround 为每个方法组装拦截器链，
+ * 拦截器从容器中按类型获取，同一个代理中相同类型的拦截器只获取一次。
+ */
+final class AroundAdvice {
+
+    private static final ClassValue<Boolean> ADVISED = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isAdvised(type);
+        }
+    };
+
+    private AroundAdvice() {
+    }
+
+    /**
+     * 类或其任意方法（包括父类）是否标记了 @EAround
+     */
+    static boolean isAdvised(Object bean) {
+        return !(bean instanceof MethodInterceptor) && ADVISED.get(bean.getClass());
+    }
+
+    private static boolean isAdvised(Class<?> type) {
+        boolean advised = type.isAnnotationPresent(EAround.class);
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (!m.isAnnotationPresent(EAround.class)) {
+                    continue;
+                }
+                int mod = m.getModifiers();
+                if (Modifier.isFinal(mod) || Modifier.isPrivate(mod) || Modifier.isStatic(mod)) {
+                    throw new RuntimeException(String.format("@EAround method %s.%s must not be final, private or static.", c.getName(), m.getName()));
+                }
+                advised = true;
+            }
+        }
+        return advised;
+    }
+
+    /**
+     * 创建代理
+     * @param context 获取拦截器 Bean 的容器
+     * @param bean 原始 Bean
+     */
+    static Object createProxy(EvelanConfigApplicationContext context, Object bean) {
+        EAround classAdvice = bean.getClass().getAnnotation(EAround.class);
+        Map<Class<? extends MethodInterceptor>, MethodInterceptor> interceptors = new HashMap<>();
+        return ProxyFactory.createProxy(bean, method -> {
+            EAround methodAdvice = method.getAnnotation(EAround.class);
+            if (classAdvice == null && methodAdvice == null) {
+                return null;
+            }
+            List<MethodInterceptor> chain = new ArrayList<>();
+            for (EAround advice : new EAround[]{classAdvice, methodAdvice}) {
+                if (advice == null) {
+                    continue;
+                }
+                for (Class<? extends MethodInterceptor> type : advice.value()) {
+                    chain.add(interceptors.computeIfAbsent(type, context::getBean));
+                }
+            }
+            return chain.toArray(new MethodInterceptor[0]);
+        });
+    }
+}
@@ -1,9 +1,14 @@
 package net.evelan.frp.bootstrap.core.context;
 
+import net.evelan.frp.bootstrap.annotation.lifecycle.EScope;
+import net.evelan.frp.bootstrap.utils.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Bean定义
@@ -16,6 +21,12 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     Class<?> beanClass;
     // 实例！
     Object instance = null;
+    // 初始化时 postProcessBefore/AfterInitialization 返回的实例，处理器没有替换实例时为 null
+    private volatile Object initializedInstance;
+    // 对外暴露的实例（经过 BeanPostProcessor 处理链之后），容器刷新完成后由容器计算并缓存
+    volatile Object exposedInstance = null;
+    // @EAround 生成的代理，只用于 singleton，避免刷新过程中每次获取都生成新的代理
+    private volatile Object advisedInstance;
     // 构造方法
     Constructor<?> constructor;
     // 工厂方法名称
@@ -26,6 +37,14 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     int order;
     // 是否被@Primary标记
     boolean primary;
+    // 是否延迟初始化（@ELazy 或容器级 lazy-init），延迟的 Bean 在第一次被获取时才创建
+    volatile boolean lazy;
+    // 作用域（@EScope），非 singleton 的 Bean 不持有 instance，实例由 scopeHandler 管理
+    String scope = EScope.SINGLETON;
+    // pooled 作用域的池大小和重置方法名称
+    int poolSize;
+    String resetMethodName;
+    BeanScope scopeHandler;
 
     // init/destroy方法名称
     String initMethodName;
@@ -35,6 +54,14 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     Method initMethod;
     Method destroyMethod;
 
+    private static final Consumer<Object> NO_OP = bean -> {
+    };
+
+    // 缓存的调用器，第一次使用时生成，之后创建、init/destroy 都不再走反射调用（注入点的调用器见 InjectionMetadata）
+    private volatile MethodHandle creator;
+    private volatile Consumer<Object> initInvoker;
+    private volatile Consumer<Object> destroyInvoker;
+
     public BeanDefinition(
             String name,
             Class<?> beanClass,
@@ -82,6 +109,25 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
 
 
 
+    /**
+     * 由编译期生成的装配代码创建好的 Bean，没有构造方法 / 工厂方法，也不会再初始化
+     */
+    BeanDefinition(String name, Class<?> beanClass, Object instance, int order, boolean primary, GeneratedContext.Destroyer destroyer) {
+        this.name = name;
+        this.beanClass = beanClass;
+        this.order = order;
+        this.primary = primary;
+        setInstance(instance);
+        this.initInvoker = NO_OP;
+        this.destroyInvoker = destroyer == null ? NO_OP : bean -> {
+            try {
+                destroyer.destroy();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
     private void setInitAndDestroyMethod(
             String initMethodName,
             String destroyMethodName,
@@ -127,17 +173,139 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
             );
         }
         this.instance = instance;
+        // 实例变化后，之前计算的初始化结果和对外暴露实例失效
+        this.initializedInstance = null;
+        this.exposedInstance = null;
+    }
+
+    /**
+     * 初始化完成后的实例：处理器替换过实例时返回替换后的实例，否则返回原始实例
+     */
+    Object getInitializedInstance() {
+        Object initialized = this.initializedInstance;
+        return initialized != null ? initialized : this.instance;
+    }
+
+    void setInitializedInstance(Object initializedInstance) {
+        this.initializedInstance = initializedInstance == this.instance ? null : initializedInstance;
+    }
+
+    Object getExposedInstance() {
+        return this.exposedInstance;
+    }
+
+    void setExposedInstance(Object exposedInstance) {
+        this.exposedInstance = exposedInstance;
+    }
+
+    Object getAdvisedInstance() {
+        return this.advisedInstance;
+    }
+
+    void setAdvisedInstance(Object advisedInstance) {
+        this.advisedInstance = advisedInstance;
+    }
+
+    /**
+     * 通过缓存的构造方法 / 工厂方法调用器创建实例
+     * @param factoryBean 工厂方法所属的配置类实例，构造方法创建时忽略
+     * @param args 已解析的参数
+     * @return 新实例
+     */
+    Object newInstance(Object factoryBean, Object[] args) throws Throwable {
+        MethodHandle handle = this.creator;
+        if (this.factoryMethod == null) {
+            if (handle == null) {
+                this.creator = handle = Invokers.creator(this.constructor);
+            }
+            return (Object) handle.invokeExact(args);
+        }
+        if (handle == null) {
+            this.creator = handle = Invokers.factory(this.factoryMethod);
+        }
+        return (Object) handle.invokeExact(factoryBean, args);
+    }
+
+    /**
+     * 调用 init 方法（@EPostConstruct 或 @EBean(initMethod)），没有时什么都不做
+     */
+    void invokeInitMethod(Object bean) {
+        Consumer<Object> invoker = this.initInvoker;
+        if (invoker == null) {
+            this.initInvoker = invoker = lifecycleInvoker(bean, this.initMethod, this.initMethodName);
+        }
+        invoker.accept(bean);
+    }
+
+    /**
+     * 调用 destroy 方法（@EPreDestroy 或 @EBean(destroyMethod)），没有时什么都不做
+     */
+    void invokeDestroyMethod(Object bean) {
+        Consumer<Object> invoker = this.destroyInvoker;
+        if (invoker == null) {
+            this.destroyInvoker = invoker = lifecycleInvoker(bean, this.destroyMethod, this.destroyMethodName);
+        }
+        invoker.accept(bean);
+    }
+
+    private static Consumer<Object> lifecycleInvoker(Object bean, Method method, String namedMethod) {
+        if (method != null) {
+            return Invokers.lifecycle(method);
+        }
+        if (namedMethod != null) {
+            // 按名称指定的方法只能在实例创建后按实际类型查找
+            return Invokers.lifecycle(ClassUtils.getNamedMethod(bean.getClass(), namedMethod));
+        }
+        return NO_OP;
     }
 
     public boolean isPrimary() {
         return this.primary;
     }
 
+    public String getScope() {
+        return this.scope;
+    }
+
+    public boolean isSingleton() {
+        return EScope.SINGLETON.equals(this.scope);
+    }
+
+    int getPoolSize() {
+        return this.poolSize;
+    }
+
+    String getResetMethodName() {
+        return this.resetMethodName;
+    }
+
+    void setScope(String scope, int poolSize, String resetMethodName) {
+        this.scope = scope;
+        this.poolSize = poolSize;
+        this.resetMethodName = resetMethodName;
+    }
+
+    BeanScope getScopeHandler() {
+        return this.scopeHandler;
+    }
+
+    void setScopeHandler(BeanScope scopeHandler) {
+        this.scopeHandler = scopeHandler;
+    }
+
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
     @Override
     public String toString() {
         return "BeanDefinition [name=" + name + ", beanClass=" + beanClass.getName() + ", factory=" + getCreateDetail() + ", init-method="
                 + (initMethod == null ? "null" : initMethod.getName()) + ", destroy-method=" + (destroyMethod == null ? "null" : destroyMethod.getName())
-                + ", primary=" + primary + ", instance=" + instance + "]";
+                + ", primary=" + primary + ", scope=" + scope + ", instance=" + instance + "]";
     }
 
     String getCreateDetail() {
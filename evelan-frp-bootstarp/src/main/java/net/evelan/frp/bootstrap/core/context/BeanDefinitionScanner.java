@@ -1,24 +1,35 @@
 package net.evelan.frp.bootstrap.core.context;
 
+import net.evelan.frp.bootstrap.annotation.EApplication;
 import net.evelan.frp.bootstrap.annotation.bean.EBean;
 import net.evelan.frp.bootstrap.annotation.bean.EComponent;
 import net.evelan.frp.bootstrap.annotation.bean.EConfiguration;
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
 import net.evelan.frp.bootstrap.annotation.bean.EController;
 import net.evelan.frp.bootstrap.annotation.bean.EService;
+import net.evelan.frp.bootstrap.annotation.lifecycle.ELazy;
 import net.evelan.frp.bootstrap.annotation.lifecycle.EPostConstruct;
 import net.evelan.frp.bootstrap.annotation.lifecycle.EPreDestroy;
 import net.evelan.frp.bootstrap.annotation.lifecycle.EPrimary;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EScope;
 import net.evelan.frp.bootstrap.core.deprecated.AssembleApplicationContext;
 import net.evelan.frp.bootstrap.utils.ClassUtils;
 import net.evelan.frp.bootstrap.utils.ReflectionUtil;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 
 /**
  * Bean 定义扫描器
@@ -41,19 +52,125 @@ public class BeanDefinitionScanner {
      * @return BeanDefinition 映射表 { beanName : BeanDefinition }
      */
     public Map<String, BeanDefinition> scan() {
-        Set<Class<?>> beanClasses = collectBeanClasses();
-        return createBeanDefinitions(beanClasses);
+        List<String> basePackages = resolveBasePackages();
+        String snapshot = context.getSnapshotLocation();
+        if (snapshot == null) {
+            return createBeanDefinitions(collectBeanClasses(basePackages));
+        }
+
+        // 配置了快照时，类路径指纹一致则直接还原，否则重新扫描并覆盖快照
+        Path file = Path.of(snapshot);
+        byte[] fingerprint = ContextSnapshot.fingerprint(context.getConfigClass(), basePackages, context.isLazyInitByDefault());
+        Map<String, BeanDefinition> defs = ContextSnapshot.read(file, fingerprint, Thread.currentThread().getContextClassLoader());
+        if (defs != null) {
+            return defs;
+        }
+        defs = createBeanDefinitions(collectBeanClasses(basePackages));
+        try {
+            ContextSnapshot.write(file, fingerprint, defs.values());
+        } catch (IOException e) {
+            // 快照只是启动加速，写入失败不影响本次启动
+            System.out.println("Failed to write context snapshot " + file + ": " + e.getMessage());
+        }
+        return defs;
     }
 
-    private Set<Class<?>> collectBeanClasses() {
-        // TODO: 这里扫描包的逻辑可以优化，目前硬编码了获取包名的方式
-        String[] currentUtilClassAllClassnames = AssembleApplicationContext.class.getPackageName().split("\\.");
-        // 获取所有被 @EService @Component @EController @EConfiguration 注解标记的类
-        return ReflectionUtil.findAnnotatedClasses(
-                currentUtilClassAllClassnames[0], // 从最顶部的包开始往下扫
-                List.of(EController.class, EComponent.class, EService.class, EConfiguration.class),
-                true
-        );
+    private Set<Class<?>> collectBeanClasses(List<String> basePackages) {
+        // 优先使用编译期生成的 Bean 索引，索引条目先按类名过滤包和排除项，只有命中的类才会被加载
+        Predicate<String> excluded = excludeFilter();
+        BeanIndex index = BeanIndex.load(className -> isInPackages(packageOf(className), basePackages) && !excluded.test(className));
+        Set<Class<?>> beanClasses = new LinkedHashSet<>();
+        if (index != null) {
+            beanClasses.addAll(index.getClasses());
+        }
+        // 没有索引的目录 / jar 仍然扫描类路径，全部带索引时不会扫描任何类
+        Predicate<String> rootFilter = index == null ? root -> true : root -> !index.isIndexed(root);
+        Set<Class<?>> scanned = new LinkedHashSet<>();
+        for (String basePackage : basePackages) {
+            // 获取所有被 @EService @Component @EController @EConfiguration 注解标记的类
+            scanned.addAll(ReflectionUtil.findAnnotatedClasses(
+                    basePackage,
+                    List.of(EController.class, EComponent.class, EService.class, EConfiguration.class),
+                    true,
+                    context.getScanMode(),
+                    rootFilter
+            ));
+        }
+        scanned.removeIf(clazz -> excluded.test(clazz.getName()));
+        beanClasses.addAll(scanned);
+        return beanClasses;
+    }
+
+    /**
+     * 解析需要扫描的包
+     * <p>
+     * 优先使用 @EApplication 中声明的 scanBasePackages / scanBasePackageClasses，未声明时使用启动类所在的包。
+     * 被其他包包含的子包会被去掉，避免重复扫描。
+     * @return 扫描的包
+     */
+    private List<String> resolveBasePackages() {
+        Class<?> configClass = context.getConfigClass();
+        if (configClass == null) {
+            // 没有启动类时保持原有行为，从最顶部的包开始往下扫
+            return List.of(AssembleApplicationContext.class.getPackageName().split("\\.")[0]);
+        }
+        Set<String> packages = new TreeSet<>();
+        EApplication application = configClass.getAnnotation(EApplication.class);
+        if (application != null) {
+            for (String basePackage : application.scanBasePackages()) {
+                if (!basePackage.isBlank()) {
+                    packages.add(basePackage.trim());
+                }
+            }
+            for (Class<?> basePackageClass : application.scanBasePackageClasses()) {
+                packages.add(basePackageClass.getPackageName());
+            }
+        }
+        if (packages.isEmpty()) {
+            packages.add(configClass.getPackageName());
+        }
+        // TreeSet 有序，父包一定排在子包前面
+        List<String> result = new ArrayList<>();
+        for (String basePackage : packages) {
+            if (!isInPackages(basePackage, result)) {
+                result.add(basePackage);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 根据 @EApplication 的 exclude / excludePackages 创建按全类名判断是否排除的过滤条件
+     */
+    private Predicate<String> excludeFilter() {
+        Class<?> configClass = context.getConfigClass();
+        EApplication application = configClass == null ? null : configClass.getAnnotation(EApplication.class);
+        if (application == null) {
+            return className -> false;
+        }
+        Set<String> excludeClasses = new HashSet<>();
+        for (Class<?> exclude : application.exclude()) {
+            excludeClasses.add(exclude.getName());
+        }
+        List<String> excludePackages = List.of(application.excludePackages());
+        return className -> excludeClasses.contains(className) || isInPackages(packageOf(className), excludePackages);
+    }
+
+    private static String packageOf(String className) {
+        int dot = className.lastIndexOf('.');
+        return dot < 0 ? "" : className.substring(0, dot);
+    }
+
+    /**
+     * 判断包是否等于某个包或是其子包
+     */
+    private boolean isInPackages(String packageName, List<String> packages) {
+        for (String p : packages) {
+            if (p.isEmpty() || packageName.equals(p) || packageName.startsWith(p + ".")) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private Map<String, BeanDefinition> createBeanDefinitions(Set<Class<?>> beanClasses) {
@@ -76,7 +193,9 @@ public class BeanDefinitionScanner {
     }
 
     private boolean isInvalidBeanClass(Class<?> clazz) {
-        return clazz.isAnnotation() || clazz.isEnum() || clazz.isInterface() || clazz.isRecord();
+        // record 只有被 @EConfigurationProperties 标记时才是 Bean（由配置绑定创建）
+        return clazz.isAnnotation() || clazz.isEnum() || clazz.isInterface()
+                || (clazz.isRecord() && !clazz.isAnnotationPresent(EConfigurationProperties.class));
     }
 
     private void createClassBeanDefinition(Class<?> clazz, Map<String, BeanDefinition> defs) {
@@ -95,9 +214,42 @@ public class BeanDefinitionScanner {
                 ClassUtils.findAnnotationMethod(clazz, EPreDestroy.class)
         );
         
+        // 配置类和 BeanPostProcessor 必须是立即初始化的单例
+        boolean infrastructure = ClassUtils.findAnnotation(clazz, EConfiguration.class) != null || BeanPostProcessor.class.isAssignableFrom(clazz);
+        setScope(beanDefinition, clazz.getAnnotation(EScope.class), infrastructure);
+        if (!infrastructure && beanDefinition.isSingleton()) {
+            beanDefinition.setLazy(isLazy(clazz.getAnnotation(ELazy.class)));
+        }
         addBeanDefinition(defs, beanDefinition);
     }
 
+    /**
+     * 没有 @ELazy 时使用容器级的 lazy-init 配置
+     */
+    private boolean isLazy(ELazy lazy) {
+        return lazy != null ? lazy.value() : context.isLazyInitByDefault();
+    }
+
+    /**
+     * 读取 @EScope，校验作用域名称和池大小
+     */
+    private void setScope(BeanDefinition def, EScope scope, boolean singletonOnly) {
+        if (scope == null || EScope.SINGLETON.equals(scope.value())) {
+            return;
+        }
+        String value = scope.value();
+        if (!EScope.PROTOTYPE.equals(value) && !EScope.THREAD.equals(value) && !EScope.POOLED.equals(value)) {
+            throw new RuntimeException(String.format("Unknown scope '%s' of bean '%s'.", value, def.getName()));
+        }
+        if (singletonOnly) {
+            throw new RuntimeException(String.format("@EConfiguration and BeanPostProcessor bean '%s' must be singleton.", def.getName()));
+        }
+        if (EScope.POOLED.equals(value) && scope.poolSize() <= 0) {
+            throw new RuntimeException(String.format("Pool size of bean '%s' must be positive: %d", def.getName(), scope.poolSize()));
+        }
+        def.setScope(value, scope.poolSize(), scope.resetMethod().isEmpty() ? null : scope.resetMethod());
+    }
+
     private void scanFactoryMethods(String factoryBeanName, Class<?> clazz, Map<String, BeanDefinition> defs) {
         for (Method method : clazz.getDeclaredMethods()) {
             EBean bean = method.getAnnotation(EBean.class);
@@ -117,6 +269,11 @@ public class BeanDefinitionScanner {
                         null,
                         null
                 );
+                boolean infrastructure = BeanPostProcessor.class.isAssignableFrom(beanClass);
+                setScope(def, method.getAnnotation(EScope.class), infrastructure);
+                if (!infrastructure && def.isSingleton()) {
+                    def.setLazy(isLazy(method.getAnnotation(ELazy.class)));
+                }
                 addBeanDefinition(defs, def);
             }
         }
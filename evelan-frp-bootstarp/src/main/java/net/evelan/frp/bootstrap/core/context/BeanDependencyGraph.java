@@ -0,0 +1,182 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.lifecycle.EImport;
+import net.evelan.frp.bootstrap.annotation.lifecycle.ELazy;
+import net.evelan.frp.bootstrap.utils.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Executable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bean 依赖图
+ * <p>
+ * 根据 BeanDefinition 静态分析出 Bean 之间的依赖关系，不会创建任何实例：
+ * <ul>
+ *     <li>创建依赖：构造方法 / 工厂方法上 @EImport 参数指向的 Bean，以及 @EBean 工厂方法所属的配置类</li>
+ *     <li>注入依赖：字段和 setter 方法上 @EImport 指向的 Bean，注入点取自 InjectionMetadata</li>
+ * </ul>
+ * ObjectProvider 和 @ELazy 注入点在使用时才获取目标 Bean，不构成依赖；非 singleton 作用域的 Bean 按它自己的依赖展开。
+ * 创建依赖必须无环（与串行创建时的循环依赖检测一致），注入依赖允许成环（通过早期单例解决）。
+ */
+class BeanDependencyGraph {
+
+    private final EvelanConfigApplicationContext context;
+    private final Map<BeanDefinition, Set<BeanDefinition>> createDependencies = new HashMap<>();
+    private final Map<BeanDefinition, Set<BeanDefinition>> injectDependencies = new HashMap<>();
+
+    BeanDependencyGraph(EvelanConfigApplicationContext context, Collection<BeanDefinition> defs) {
+        this.context = context;
+        for (BeanDefinition def : defs) {
+            createDependencies.put(def, expandScoped(def, resolveCreateDependencies(def)));
+            injectDependencies.put(def, expandScoped(def, resolveInjectDependencies(def)));
+        }
+    }
+
+    /**
+     * 非 singleton 作用域的 Bean 不参与调度，被依赖时现场完整创建，
+     * 因此把它替换成它（递归地）依赖的 singleton Bean，保证这些 Bean 先于依赖方就绪
+     */
+    private Set<BeanDefinition> expandScoped(BeanDefinition def, Set<BeanDefinition> deps) {
+        if (deps.stream().allMatch(BeanDefinition::isSingleton)) {
+            return deps;
+        }
+        Set<BeanDefinition> expanded = new LinkedHashSet<>();
+        Set<BeanDefinition> visited = new HashSet<>();
+        Deque<BeanDefinition> queue = new ArrayDeque<>(deps);
+        while (!queue.isEmpty()) {
+            BeanDefinition dep = queue.poll();
+            if (dep.isSingleton()) {
+                expanded.add(dep);
+            } else if (visited.add(dep)) {
+                queue.addAll(resolveCreateDependencies(dep));
+                queue.addAll(resolveInjectDependencies(dep));
+            }
+        }
+        expanded.remove(def);
+        return expanded;
+    }
+
+    /**
+     * 创建该 Bean 之前必须先创建的 Bean
+     */
+    Set<BeanDefinition> getCreateDependencies(BeanDefinition def) {
+        return createDependencies.getOrDefault(def, Set.of());
+    }
+
+    /**
+     * 初始化该 Bean 之前应当先初始化的 Bean（创建依赖 + 注入依赖）
+     */
+    Set<BeanDefinition> getAllDependencies(BeanDefinition def) {
+        Set<BeanDefinition> all = new LinkedHashSet<>(getCreateDependencies(def));
+        all.addAll(injectDependencies.getOrDefault(def, Set.of()));
+        return all;
+    }
+
+    private Set<BeanDefinition> resolveCreateDependencies(BeanDefinition def) {
+        Set<BeanDefinition> deps = new LinkedHashSet<>();
+        Executable createFn;
+        if (def.getFactoryName() == null) {
+            createFn = def.getConstructor();
+        } else {
+            createFn = def.getFactoryMethod();
+            addIfPresent(deps, context.findBeanDefinition(def.getFactoryName()));
+        }
+        Class<?>[] types = createFn.getParameterTypes();
+        Annotation[][] annos = createFn.getParameterAnnotations();
+        for (int i = 0; i < types.length; i++) {
+            EImport eImport = ClassUtils.getAnnotation(annos[i], EImport.class);
+            if (eImport != null && !LazyResolution.isDeferred(types[i], ClassUtils.getAnnotation(annos[i], ELazy.class))) {
+                addIfPresent(deps, resolve(eImport, types[i]));
+            }
+        }
+        deps.remove(def);
+        return deps;
+    }
+
+    private Set<BeanDefinition> resolveInjectDependencies(BeanDefinition def) {
+        // 使用注入时同一份注入点，依赖图与实际注入不会不一致
+        Set<BeanDefinition> deps = new LinkedHashSet<>();
+        for (InjectionMetadata.InjectionPoint point : InjectionMetadata.forClass(def.getBeanClass()).getInjectionPoints()) {
+            if (point.eImport() != null && !point.deferred()) {
+                addIfPresent(deps, resolve(point.eImport(), point.type()));
+            }
+        }
+        deps.remove(def);
+        return deps;
+    }
+
+    private BeanDefinition resolve(EImport eImport, Class<?> type) {
+        // 与 BeanInstantiator / DependencyInjector 的查找规则一致；找不到时交给真正创建、注入时报错
+        return eImport.value().isEmpty() ? context.findBeanDefinition(type) : context.findBeanDefinition(eImport.value(), type);
+    }
+
+    private static void addIfPresent(Set<BeanDefinition> deps, BeanDefinition def) {
+        if (def != null) {
+            deps.add(def);
+        }
+    }
+
+    /**
+     * 计算强连通分量（Tarjan），分量之间构成有向无环图。
+     * 按全部依赖计算时，同一分量内的 Bean 互相依赖（字段注入成环），只能按顺序依次初始化；
+     * 按创建依赖计算时，大于一个 Bean 的分量就是构造器注入的循环依赖。
+     * @param defs 参与计算的 Bean，已排序
+     * @param dependencies 依赖关系，如 getCreateDependencies / getAllDependencies
+     * @return 强连通分量，每个分量内部按 BeanDefinition 排序
+     */
+    List<List<BeanDefinition>> stronglyConnectedComponents(List<BeanDefinition> defs, Function<BeanDefinition, Set<BeanDefinition>> dependencies) {
+        Set<BeanDefinition> scope = new LinkedHashSet<>(defs);
+        Map<BeanDefinition, Integer> index = new HashMap<>();
+        Map<BeanDefinition, Integer> lowLink = new HashMap<>();
+        List<BeanDefinition> stack = new ArrayList<>();
+        Set<BeanDefinition> onStack = new LinkedHashSet<>();
+        List<List<BeanDefinition>> result = new ArrayList<>();
+        for (BeanDefinition def : defs) {
+            if (!index.containsKey(def)) {
+                strongConnect(def, dependencies, scope, index, lowLink, stack, onStack, result);
+            }
+        }
+        return result;
+    }
+
+    private void strongConnect(BeanDefinition def, Function<BeanDefinition, Set<BeanDefinition>> dependencies, Set<BeanDefinition> scope, Map<BeanDefinition, Integer> index, Map<BeanDefinition, Integer> lowLink,
+                               List<BeanDefinition> stack, Set<BeanDefinition> onStack, List<List<BeanDefinition>> result) {
+        index.put(def, index.size());
+        lowLink.put(def, index.get(def));
+        stack.add(def);
+        onStack.add(def);
+        for (BeanDefinition dep : dependencies.apply(def)) {
+            if (!scope.contains(dep)) {
+                continue;
+            }
+            if (!index.containsKey(dep)) {
+                strongConnect(dep, dependencies, scope, index, lowLink, stack, onStack, result);
+                lowLink.put(def, Math.min(lowLink.get(def), lowLink.get(dep)));
+            } else if (onStack.contains(dep)) {
+                lowLink.put(def, Math.min(lowLink.get(def), index.get(dep)));
+            }
+        }
+        if (lowLink.get(def).equals(index.get(def))) {
+            List<BeanDefinition> component = new ArrayList<>();
+            BeanDefinition member;
+            do {
+                member = stack.remove(stack.size() - 1);
+                onStack.remove(member);
+                component.add(member);
+            } while (member != def);
+            component.sort(null);
+            result.add(component);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 编译期生成的 Bean 索引
+ * <p>
+ * 索引由 BeanIndexProcessor 在编译时写入 {@value #INDEX_LOCATION}，每行一个 Bean 类的全类名，# 开头为注释。
+ * 类路径上可能存在多个索引文件（多个模块 / jar），这里会全部读取并合并。
+ * 索引只覆盖它所在的类路径根，没有索引的目录 / jar 仍需扫描。
+ */
+public class BeanIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/evelan/beans.idx";
+
+    private final Set<Class<?>> classes = new LinkedHashSet<>();
+    // 存在索引文件的类路径根
+    private final Set<String> roots = new HashSet<>();
+
+    private BeanIndex() {
+    }
+
+    /**
+     * 读取类路径上所有的 Bean 索引
+     * <p>
+     * 先按全类名过滤索引条目，只加载通过过滤的类，不在扫描范围内的类不会被加载。
+     * @param filter 全类名过滤条件
+     * @return 合并后的索引，不存在任何索引文件时返回 null（调用方应回退到类路径扫描）
+     */
+    public static BeanIndex load(Predicate<String> filter) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        BeanIndex index = null;
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(INDEX_LOCATION);
+            while (indexes.hasMoreElements()) {
+                if (index == null) {
+                    index = new BeanIndex();
+                }
+                URL url = indexes.nextElement();
+                index.roots.add(ClassPathScanner.classPathRoot(url, INDEX_LOCATION));
+                readIndex(classLoader, url, filter, index.classes);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read bean index: " + INDEX_LOCATION, e);
+        }
+        return index;
+    }
+
+    /**
+     * @return 索引中通过过滤的 Bean 类
+     */
+    public Set<Class<?>> getClasses() {
+        return classes;
+    }
+
+    /**
+     * 判断类路径根是否带有索引
+     * @param root 类路径根，见 {@link ClassPathScanner#classPathRoot(URL, String)}
+     */
+    public boolean isIndexed(String root) {
+        return roots.contains(root);
+    }
+
+    private static void readIndex(ClassLoader classLoader, URL url, Predicate<String> filter, Set<Class<?>> classes) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || !filter.test(line)) {
+                    continue;
+                }
+                try {
+                    classes.add(classLoader.loadClass(line));
+                } catch (ClassNotFoundException e) {
+                    // 索引过期（类已被删除），忽略该条目
+                    System.out.println("Class in bean index not found: " + line);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package net.evelan.frp.bootstrap.core.context;
 
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
 import net.evelan.frp.bootstrap.annotation.lifecycle.EImport;
+import net.evelan.frp.bootstrap.annotation.lifecycle.ELazy;
 import net.evelan.frp.bootstrap.annotation.lifecycle.EValue;
 import net.evelan.frp.bootstrap.core.solver.PropertyResolver;
 import net.evelan.frp.bootstrap.utils.ClassUtils;
@@ -32,6 +34,18 @@ public class BeanInstantiator {
      * @return Bean 实例
      */
     public Object createBean(BeanDefinition def) {
+        return context.getStartupProfile().time(StartupProfile.CREATE, def.getName(), () -> doCreateBean(def));
+    }
+
+    private Object doCreateBean(BeanDefinition def) {
+        // @EConfigurationProperties 标记的类（包括 record）直接由配置绑定创建
+        EConfigurationProperties properties = def.getFactoryName() == null
+                ? def.getBeanClass().getAnnotation(EConfigurationProperties.class) : null;
+        if (properties != null) {
+            context.getStartupProfile().countReflectiveCall();
+            return this.propertyResolver.bind(properties.prefix(), def.getBeanClass());
+        }
+
         // 创建方式：构造方法或者工厂方法
         Executable createFn;
         if (def.getFactoryName() == null) {
@@ -48,15 +62,16 @@ public class BeanInstantiator {
         // 创建实例
         Object instance;
         try {
+            context.getStartupProfile().countReflectiveCall();
             if (def.getFactoryName() == null) {
                 // 通过构造方法实例化
-                instance = def.getConstructor().newInstance(args);
+                instance = def.newInstance(null, args);
             } else {
                 // 通过工厂方法实例化
                 Object configInstance = context.getBean(def.getFactoryName());
-                instance = def.getFactoryMethod().invoke(configInstance, args);
+                instance = def.newInstance(configInstance, args);
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             throw new RuntimeException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
         }
 
@@ -85,9 +100,14 @@ public class BeanInstantiator {
             validateParameterAnnotations(def, isConfiguration, eValue, eImport);
 
             final Class<?> type = param.getType();
-            if (eValue != null) {
+            final ELazy eLazy = ClassUtils.getAnnotation(paramAnnos, ELazy.class);
+            if (eImport != null && LazyResolution.isDeferred(type, eLazy)) {
+                // ObjectProvider 或 @ELazy 参数，注入延迟获取的提供者 / 代理，不创建依赖的 Bean
+                args[i] = LazyResolution.resolve(context, type, param.getParameterizedType(), eImport.value(), eImport.isRequired(),
+                        String.format("parameter %s of bean '%s'", param.getName(), def.getName()));
+            } else if (eValue != null) {
                 // 参数是 @EValue 类型，从 PropertyResolver 获取配置值
-                args[i] = this.propertyResolver.getRequiredProperty(eValue.value(), type);
+                args[i] = this.propertyResolver.getRequiredProperty(eValue.value(), param.getParameterizedType());
             } else {
                 // 参数是 @EImport 类型，从容器获取依赖 Bean
                 String name = eImport.value();
@@ -101,9 +121,14 @@ public class BeanInstantiator {
                             def.getName(), def.getBeanClass().getName()));
                 }
                 
-                if (dependsOnDef != null) {
-                    // 获取依赖的 Bean 实例
-                    Object dependsOnBeanInstance = dependsOnDef.getInstance();
+                if (dependsOnDef != null && !dependsOnDef.isSingleton()) {
+                    // 非 singleton 作用域的依赖，按作用域获取（prototype 每次新建）
+                    args[i] = context.getScopedBean(dependsOnDef);
+                } else if (dependsOnDef != null) {
+                    // 获取依赖的 Bean 实例；延迟的 Bean 需要完整地创建、注入、初始化，始终经过 initLazyBean，不会拿到其他线程初始化到一半的实例
+                    Object dependsOnBeanInstance = dependsOnDef.isLazy() && !isConfiguration
+                            ? context.initLazyBean(dependsOnDef)
+                            : dependsOnDef.getInstance();
                     if (dependsOnBeanInstance == null && !isConfiguration) {
                         // 如果依赖的 Bean 尚未初始化，递归调用初始化
                         dependsOnBeanInstance = context.createBeanAsEarlySingleton(dependsOnDef);
@@ -1,6 +1,14 @@
 package net.evelan.frp.bootstrap.core.context;
 
 public interface BeanPostProcessor {
+    /**
+     * Whether this processor handles beans of the given declared type.
+     * The container asks once per type and caches the answer; beans no processor supports skip the chain entirely.
+     */
+    default boolean supportsBeanType(Class<?> beanClass) {
+        return true;
+    }
+
     /**
      * Invoked after new Bean().
      */
@@ -10,6 +18,8 @@ public interface BeanPostProcessor {
 
     /**
      * Invoked after bean.init() called.
+     * The returned instance is stored in the bean definition and is what getBean returns from then on;
+     * references injected before this bean was initialized keep the raw instance, use postProcessOnSetProperty for those.
      */
     default Object postProcessAfterInitialization(Object bean, String beanName) {
         return bean;
@@ -0,0 +1,240 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.lifecycle.EScope;
+import net.evelan.frp.bootstrap.core.aop.ProxyFactory;
+import net.evelan.frp.bootstrap.utils.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 非 singleton 作用域 Bean 的实例管理
+ * <p>
+ * 每个作用域 Bean 对应一个实例，由容器在扫描完成后创建并挂在 BeanDefinition 上。
+ * factory 负责完整地创建一个新实例（创建、注入、初始化、BeanPostProcessor），destroyer 负责调用 destroy 方法。
+ */
+abstract class BeanScope {
+
+    protected final BeanDefinition def;
+    protected final Supplier<Object> factory;
+    protected final Consumer<Object> destroyer;
+
+    private BeanScope(BeanDefinition def, Supplier<Object> factory, Consumer<Object> destroyer) {
+        this.def = def;
+        this.factory = factory;
+        this.destroyer = destroyer;
+    }
+
+    static BeanScope create(BeanDefinition def, Supplier<Object> factory, Consumer<Object> destroyer) {
+        return switch (def.getScope()) {
+            case EScope.PROTOTYPE -> new Prototype(def, factory, destroyer);
+            case EScope.THREAD -> new ThreadBound(def, factory, destroyer);
+            case EScope.POOLED -> new Pooled(def, factory, destroyer);
+            default -> throw new RuntimeException(String.format("Unknown scope '%s' of bean '%s'.", def.getScope(), def.getName()));
+        };
+    }
+
+    /**
+     * 获取当前作用域下的实例
+     */
+    abstract Object get();
+
+    /**
+     * 使用方不再使用该实例
+     */
+    abstract void release(Object bean);
+
+    /**
+     * 容器刷新完成后调用，pooled 作用域在这里预先填满对象池
+     */
+    void prefill() {
+    }
+
+    /**
+     * 容器关闭时销毁作用域持有的实例
+     */
+    void close() {
+    }
+
+    /**
+     * 对象池统计，只有 pooled 作用域有
+     */
+    PoolStatistics statistics() {
+        return null;
+    }
+
+    /**
+     * 每次获取都是新实例，归还时直接销毁
+     */
+    private static final class Prototype extends BeanScope {
+
+        Prototype(BeanDefinition def, Supplier<Object> factory, Consumer<Object> destroyer) {
+            super(def, factory, destroyer);
+        }
+
+        @Override
+        Object get() {
+            return this.factory.get();
+        }
+
+        @Override
+        void release(Object bean) {
+            this.destroyer.accept(bean);
+        }
+    }
+
+    /**
+     * 每个线程一个实例；归还时解除当前线程的绑定并销毁，之后再获取会重新创建
+     * 创建的实例同时记录在一个按引用比较的集合中，容器关闭时销毁所有还没有归还的实例（包括已经结束的线程留下的实例）
+     */
+    private static final class ThreadBound extends BeanScope {
+
+        private final ThreadLocal<Object> instances = new ThreadLocal<>();
+        private final Set<Object> created = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        ThreadBound(BeanDefinition def, Supplier<Object> factory, Consumer<Object> destroyer) {
+            super(def, factory, destroyer);
+        }
+
+        @Override
+        Object get() {
+            Object bean = this.instances.get();
+            if (bean == null) {
+                bean = this.factory.get();
+                this.instances.set(bean);
+                this.created.add(bean);
+            }
+            return bean;
+        }
+
+        @Override
+        void release(Object bean) {
+            if (this.instances.get() == bean) {
+                this.instances.remove();
+            }
+            if (this.created.remove(bean)) {
+                this.destroyer.accept(bean);
+            }
+        }
+
+        @Override
+        void close() {
+            List<Object> remaining;
+            synchronized (this.created) {
+                remaining = new ArrayList<>(this.created);
+                this.created.clear();
+            }
+            remaining.forEach(this.destroyer);
+        }
+    }
+
+    /**
+     * 有界对象池：刷新完成后预先创建 poolSize 个实例；借出时优先取空闲实例，没有时新建；归还时调用 reset 方法后放回，池满则销毁
+     * 借出的实例记录在按引用比较的集合中，归还不是从池中借出的实例或者重复归还时抛出异常，避免同一个实例进入池中两次、被两个使用方共享
+     */
+    private static final class Pooled extends BeanScope {
+
+        private final ArrayBlockingQueue<Object> idle;
+        private final Set<Object> borrowed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        private volatile boolean closed;
+        private volatile Consumer<Object> resetInvoker;
+
+        private final LongAdder borrows = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder releases = new LongAdder();
+        private final LongAdder discarded = new LongAdder();
+        private final LongAdder totalBorrowNanos = new LongAdder();
+        private final LongAccumulator maxBorrowNanos = new LongAccumulator(Math::max, 0);
+
+        Pooled(BeanDefinition def, Supplier<Object> factory, Consumer<Object> destroyer) {
+            super(def, factory, destroyer);
+            this.idle = new ArrayBlockingQueue<>(def.getPoolSize());
+        }
+
+        @Override
+        Object get() {
+            long start = System.nanoTime();
+            Object bean = this.idle.poll();
+            if (bean != null) {
+                this.hits.increment();
+            } else {
+                this.misses.increment();
+                bean = this.factory.get();
+            }
+            this.borrowed.add(bean);
+            long elapsed = System.nanoTime() - start;
+            this.borrows.increment();
+            this.totalBorrowNanos.add(elapsed);
+            this.maxBorrowNanos.accumulate(elapsed);
+            return bean;
+        }
+
+        @Override
+        void prefill() {
+            while (this.idle.remainingCapacity() > 0 && this.idle.offer(this.factory.get())) {
+                // 预先创建的实例不计入借出统计
+            }
+        }
+
+        @Override
+        void release(Object bean) {
+            if (!this.borrowed.remove(bean)) {
+                throw new RuntimeException(String.format("Instance of bean '%s' was not borrowed from its pool or has already been released.", this.def.getName()));
+            }
+            this.releases.increment();
+            if (this.closed) {
+                // 容器已经关闭，不再放回池中
+                this.destroyer.accept(bean);
+                return;
+            }
+            reset(bean);
+            if (!this.idle.offer(bean)) {
+                this.discarded.increment();
+                this.destroyer.accept(bean);
+            }
+        }
+
+        private void reset(Object bean) {
+            String resetMethod = this.def.getResetMethodName();
+            if (resetMethod == null) {
+                return;
+            }
+            // 池中保存的可能是 @EAround 代理，reset 方法在原始实例上调用
+            Object target = ProxyFactory.getTarget(bean);
+            Consumer<Object> invoker = this.resetInvoker;
+            if (invoker == null) {
+                // 与按名称指定的 init / destroy 方法一样，按实例的实际类型查找
+                this.resetInvoker = invoker = Invokers.lifecycle(ClassUtils.getNamedMethod(target.getClass(), resetMethod));
+            }
+            try {
+                invoker.accept(target);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to invoke reset method of bean: " + this.def.getName(), e);
+            }
+        }
+
+        @Override
+        void close() {
+            this.closed = true;
+            Object bean;
+            while ((bean = this.idle.poll()) != null) {
+                this.destroyer.accept(bean);
+            }
+        }
+
+        @Override
+        PoolStatistics statistics() {
+            return new PoolStatistics(this.borrows.sum(), this.hits.sum(), this.misses.sum(), this.releases.sum(), this.discarded.sum(),
+                    this.idle.size(), this.totalBorrowNanos.sum(), this.maxBorrowNanos.get());
+        }
+    }
+}
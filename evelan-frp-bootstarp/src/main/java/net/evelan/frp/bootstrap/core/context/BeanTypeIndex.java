@@ -0,0 +1,79 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按类型索引的 BeanDefinition 注册表
+ * <p>
+ * 注册时为每个 Bean 计算声明类型的完整父类 / 接口闭包，并把 Bean 挂到闭包中每个类型的桶里，
+ * 这样按类型查找就是一次哈希查找，不再需要遍历所有 Bean 做 isAssignableFrom。
+ * 桶在第一次被查询时才排序并冻结为不可变列表，注册时没人查询的类型不会产生排序开销。
+ */
+class BeanTypeIndex {
+
+    // 注册阶段的桶 { 类型 : 可赋值给该类型的 Bean }，未排序
+    private final Map<Class<?>, List<BeanDefinition>> buckets = new HashMap<>();
+    // 查询阶段的结果 { 类型 : 已排序的不可变列表 }
+    private final Map<Class<?>, List<BeanDefinition>> sorted = new ConcurrentHashMap<>();
+
+    BeanTypeIndex(Collection<BeanDefinition> defs) {
+        for (BeanDefinition def : defs) {
+            for (Class<?> type : typeClosure(def.getBeanClass())) {
+                buckets.computeIfAbsent(type, k -> new ArrayList<>()).add(def);
+            }
+        }
+    }
+
+    /**
+     * 查找所有可以赋值给指定类型的 BeanDefinition
+     * @param type 类型
+     * @return 按 order、name 排序后的不可变列表
+     */
+    List<BeanDefinition> get(Class<?> type) {
+        List<BeanDefinition> defs = sorted.get(type);
+        if (defs == null) {
+            defs = sorted.computeIfAbsent(type, this::freeze);
+        }
+        return defs;
+    }
+
+    private List<BeanDefinition> freeze(Class<?> type) {
+        List<BeanDefinition> bucket = buckets.get(type);
+        if (bucket == null) {
+            return List.of();
+        }
+        BeanDefinition[] defs = bucket.toArray(new BeanDefinition[0]);
+        Arrays.sort(defs);
+        return List.of(defs);
+    }
+
+    /**
+     * 计算类型的父类、接口闭包（包含自身和 Object）
+     */
+    private static List<Class<?>> typeClosure(Class<?> clazz) {
+        List<Class<?>> types = new ArrayList<>();
+        collect(clazz, types);
+        if (!clazz.isPrimitive() && !types.contains(Object.class)) {
+            // 接口类型的 Bean（如 @EBean 返回接口）同样可以按 Object 查找
+            types.add(Object.class);
+        }
+        return types;
+    }
+
+    private static void collect(Class<?> clazz, List<Class<?>> types) {
+        if (clazz == null || types.contains(clazz)) {
+            return;
+        }
+        types.add(clazz);
+        collect(clazz.getSuperclass(), types);
+        for (Class<?> i : clazz.getInterfaces()) {
+            collect(i, types);
+        }
+    }
+}
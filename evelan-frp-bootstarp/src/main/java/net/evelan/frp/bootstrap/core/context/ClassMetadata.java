@@ -0,0 +1,170 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 直接从 class 文件字节中读取的类元数据
+ * <p>
+ * 只解析常量池、访问标志、父类以及类级别的 RuntimeVisibleAnnotations 属性，
+ * 不会加载类，也不会触发静态初始化，用于扫描阶段的预过滤。
+ *
+ * @param className 全类名（以 . 分隔）
+ * @param accessFlags 类的访问标志
+ * @param superClassName 父类全类名，java.lang.Object 的父类为 null
+ * @param annotationNames 类上直接标记的运行时可见注解的全类名
+ */
+public record ClassMetadata(String className, int accessFlags, String superClassName, List<String> annotationNames) {
+
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    public boolean isInterface() {
+        return (accessFlags & Modifier.INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isEnum() {
+        return (accessFlags & ACC_ENUM) != 0;
+    }
+
+    public boolean isRecord() {
+        return "java.lang.Record".equals(superClassName);
+    }
+
+    /**
+     * 解析 class 文件
+     * @param b class 文件的完整字节
+     * @return 类元数据
+     */
+    public static ClassMetadata read(byte[] b) {
+        if (b.length < 10 || u4(b, 0) != 0xCAFEBABE) {
+            throw new IllegalArgumentException("Not a class file.");
+        }
+        // 常量池：只记录每一项的起始偏移，Utf8 等到需要时再解码
+        int cpCount = u2(b, 8);
+        int[] offsets = new int[cpCount];
+        int pos = 10;
+        for (int i = 1; i < cpCount; i++) {
+            offsets[i] = pos;
+            int tag = b[pos] & 0xFF;
+            switch (tag) {
+                case 1 -> pos += 3 + u2(b, pos + 1);               // Utf8
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> pos += 5;      // Integer Float Fieldref Methodref InterfaceMethodref NameAndType Dynamic InvokeDynamic
+                case 5, 6 -> {                                     // Long Double 占两个槽位
+                    pos += 9;
+                    i++;
+                }
+                case 7, 8, 16, 19, 20 -> pos += 3;                 // Class String MethodType Module Package
+                case 15 -> pos += 4;                               // MethodHandle
+                default -> throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at offset " + pos);
+            }
+        }
+
+        int accessFlags = u2(b, pos);
+        String className = classRef(b, offsets, u2(b, pos + 2));
+        int superIndex = u2(b, pos + 4);
+        String superClassName = superIndex == 0 ? null : classRef(b, offsets, superIndex);
+        pos += 6;
+        // interfaces
+        pos += 2 + 2 * u2(b, pos);
+        // fields / methods
+        pos = skipMembers(b, pos);
+        pos = skipMembers(b, pos);
+
+        List<String> annotationNames = List.of();
+        int attrCount = u2(b, pos);
+        pos += 2;
+        for (int i = 0; i < attrCount; i++) {
+            String attrName = utf8(b, offsets, u2(b, pos));
+            int attrLength = u4(b, pos + 2);
+            pos += 6;
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attrName)) {
+                annotationNames = readAnnotationNames(b, offsets, pos);
+            }
+            pos += attrLength;
+        }
+        return new ClassMetadata(className, accessFlags, superClassName, annotationNames);
+    }
+
+    private static List<String> readAnnotationNames(byte[] b, int[] offsets, int pos) {
+        int count = u2(b, pos);
+        pos += 2;
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // 类型描述符形如 Lnet/evelan/Foo;
+            String desc = utf8(b, offsets, u2(b, pos));
+            names.add(desc.substring(1, desc.length() - 1).replace('/', '.'));
+            pos = skipAnnotationBody(b, pos + 2);
+        }
+        return names;
+    }
+
+    private static int skipAnnotationBody(byte[] b, int pos) {
+        int pairs = u2(b, pos);
+        pos += 2;
+        for (int i = 0; i < pairs; i++) {
+            pos = skipElementValue(b, pos + 2);
+        }
+        return pos;
+    }
+
+    private static int skipElementValue(byte[] b, int pos) {
+        char tag = (char) (b[pos] & 0xFF);
+        pos++;
+        return switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> pos + 2;
+            case 'e' -> pos + 4;
+            case '@' -> skipAnnotationBody(b, pos + 2);
+            case '[' -> {
+                int n = u2(b, pos);
+                pos += 2;
+                for (int i = 0; i < n; i++) {
+                    pos = skipElementValue(b, pos);
+                }
+                yield pos;
+            }
+            default -> throw new IllegalArgumentException("Unknown element value tag '" + tag + "'");
+        };
+    }
+
+    private static int skipMembers(byte[] b, int pos) {
+        int count = u2(b, pos);
+        pos += 2;
+        for (int i = 0; i < count; i++) {
+            // access_flags, name_index, descriptor_index
+            pos += 6;
+            int attrCount = u2(b, pos);
+            pos += 2;
+            for (int j = 0; j < attrCount; j++) {
+                pos += 6 + u4(b, pos + 2);
+            }
+        }
+        return pos;
+    }
+
+    private static String classRef(byte[] b, int[] offsets, int index) {
+        return utf8(b, offsets, u2(b, offsets[index] + 1)).replace('/', '.');
+    }
+
+    private static String utf8(byte[] b, int[] offsets, int index) {
+        int off = offsets[index];
+        // 类名、属性名都是 ASCII，modified UTF-8 与标准 UTF-8 一致
+        return new String(b, off + 3, u2(b, off + 1), StandardCharsets.UTF_8);
+    }
+
+    private static int u2(byte[] b, int pos) {
+        return ((b[pos] & 0xFF) << 8) | (b[pos + 1] & 0xFF);
+    }
+
+    private static int u4(byte[] b, int pos) {
+        return ((b[pos] & 0xFF) << 24) | ((b[pos + 1] & 0xFF) << 16) | ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+    }
+}
@@ -5,9 +5,19 @@ import java.io.IOException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Enumeration;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
 
 /**
  * 类路径扫描工具
@@ -16,39 +26,200 @@ import java.util.Set;
 public class ClassPathScanner {
 
     public static Set<Class<?>> getPackageAllClasses(String packageName, boolean recursive) throws IOException, ClassNotFoundException {
-        Set<Class<?>> classes = new LinkedHashSet<>();
+        return getPackageAllClasses(packageName, recursive, null);
+    }
+
+    /**
+     * 扫描包下的类
+     * @param packageName 包名
+     * @param recursive 是否递归
+     * @param filter 字节码预过滤器，为 null 时加载所有类；否则只加载通过过滤的类
+     * @return 扫描到的类
+     */
+    public static Set<Class<?>> getPackageAllClasses(String packageName, boolean recursive, AnnotationClassFilter filter) throws IOException, ClassNotFoundException {
+        return getPackageAllClasses(packageName, recursive, filter, ScanMode.SERIAL);
+    }
+
+    /**
+     * 扫描包下的类
+     * @param packageName 包名
+     * @param recursive 是否递归
+     * @param filter 字节码预过滤器，为 null 时加载所有类；否则只加载通过过滤的类
+     * @param mode 扫描模式
+     * @return 扫描到的类
+     */
+    public static Set<Class<?>> getPackageAllClasses(String packageName, boolean recursive, AnnotationClassFilter filter, ScanMode mode) throws IOException, ClassNotFoundException {
+        return getPackageAllClasses(packageName, recursive, filter, mode, root -> true);
+    }
+
+    /**
+     * 扫描包下的类
+     * @param packageName 包名
+     * @param recursive 是否递归
+     * @param filter 字节码预过滤器，为 null 时加载所有类；否则只加载通过过滤的类
+     * @param mode 扫描模式
+     * @param rootFilter 类路径根过滤条件，只扫描通过过滤的目录 / jar，根的格式见 {@link #classPathRoot(URL, String)}
+     * @return 扫描到的类
+     */
+    public static Set<Class<?>> getPackageAllClasses(String packageName, boolean recursive, AnnotationClassFilter filter, ScanMode mode,
+                                                     Predicate<String> rootFilter) throws IOException, ClassNotFoundException {
         String packageDirName = packageName.replace('.', '/');
 
         // 获取当前 thread 的类加载器
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         // 通过 classloader 获取包对应的资源路径
-        Enumeration<URL> dirs = classLoader.getResources(packageDirName);
+        List<URL> dirs = new ArrayList<>();
+        for (URL url : Collections.list(classLoader.getResources(packageDirName))) {
+            if (rootFilter.test(classPathRoot(url, packageDirName))) {
+                dirs.add(url);
+            }
+        }
+
+        if (mode == ScanMode.PARALLEL) {
+            return doScanPackageClassesParallel(dirs, classLoader, packageName, recursive, filter);
+        }
 
-        while (dirs.hasMoreElements()) {
-            URL url = dirs.nextElement();
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (URL url : dirs) {
             String protocol = url.getProtocol();
 
             if ("file".equals(protocol)) {
                 // 是文件
                 String filePath = URLDecoder.decode(url.getFile(), StandardCharsets.UTF_8);
-                doScanPackageClassesByFile(classes, packageName, filePath, recursive);
+                doScanPackageClassesByFile(classes, packageName, filePath, recursive, filter);
             } else if ("jar".equals(protocol)) {
-                // jar 包也扫描
-
+                // jar 包也扫描，包括 fat jar 中的嵌套 jar
+                doScanPackageClassesByJar(classes, classLoader, url, recursive, filter);
             }
         }
         return classes;
     }
 
+    /**
+     * 根据资源的 URL 和资源名推算所在的类路径根
+     * <p>
+     * 如 file:/app/classes/net/evelan 和 file:/app/classes/META-INF/evelan/beans.idx 的根都是 file:/app/classes/，
+     * jar 中的资源对应 jar:file:/app.jar!/，同一个类加载器返回的 URL 编码一致，可以直接按字符串比较。
+     * @param url 资源 URL
+     * @param resourceName 资源名（包路径或文件路径）
+     * @return 类路径根
+     */
+    static String classPathRoot(URL url, String resourceName) {
+        String path = url.toString();
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (!resourceName.isEmpty() && path.endsWith(resourceName)) {
+            path = path.substring(0, path.length() - resourceName.length());
+        }
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    /**
+     * 并行扫描：每个类路径根是一个任务，目录任务再按子目录继续拆分。
+     * 每个任务只写自己的结果列表，join 时按固定顺序拼接，无需加锁，输出顺序与线程调度无关。
+     */
+    private static Set<Class<?>> doScanPackageClassesParallel(List<URL> roots, ClassLoader classLoader, String packageName,
+                                                             boolean recursive, AnnotationClassFilter filter) {
+        List<RecursiveTask<List<Class<?>>>> tasks = new ArrayList<>(roots.size());
+        for (URL url : roots) {
+            String protocol = url.getProtocol();
+            if ("file".equals(protocol)) {
+                File dir = new File(URLDecoder.decode(url.getFile(), StandardCharsets.UTF_8));
+                tasks.add(new DirectoryScanTask(dir, packageName, classLoader, recursive, filter));
+            } else if ("jar".equals(protocol)) {
+                tasks.add(new RecursiveTask<>() {
+                    @Override
+                    protected List<Class<?>> compute() {
+                        List<Class<?>> classes = new ArrayList<>();
+                        try {
+                            doScanPackageClassesByJar(classes, classLoader, url, recursive, filter);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Failed to scan jar: " + url, e);
+                        }
+                        return classes;
+                    }
+                });
+            }
+        }
+        return ForkJoinPool.commonPool().invoke(new RecursiveTask<>() {
+            @Override
+            protected Set<Class<?>> compute() {
+                ForkJoinTask.invokeAll(tasks);
+                Set<Class<?>> classes = new LinkedHashSet<>();
+                for (RecursiveTask<List<Class<?>>> task : tasks) {
+                    classes.addAll(task.join());
+                }
+                return classes;
+            }
+        });
+    }
+
+    /**
+     * 并行扫描单个目录：子目录 fork 为新任务，当前目录下的类文件在本任务内处理。
+     * 目录内容按名称排序，保证结果顺序稳定。
+     */
+    private static class DirectoryScanTask extends RecursiveTask<List<Class<?>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final File dir;
+        private final String packageName;
+        private final ClassLoader classLoader;
+        private final boolean recursive;
+        private final AnnotationClassFilter filter;
+
+        DirectoryScanTask(File dir, String packageName, ClassLoader classLoader, boolean recursive, AnnotationClassFilter filter) {
+            this.dir = dir;
+            this.packageName = packageName;
+            this.classLoader = classLoader;
+            this.recursive = recursive;
+            this.filter = filter;
+        }
+
+        @Override
+        protected List<Class<?>> compute() {
+            File[] files = dir.listFiles(file -> {
+                if (file.isDirectory()) return recursive;
+                return file.getName().endsWith(".class");
+            });
+            if (files == null) return List.of();
+            Arrays.sort(files, Comparator.comparing(File::getName));
+
+            List<DirectoryScanTask> subTasks = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    DirectoryScanTask task = new DirectoryScanTask(file, packageName + "." + file.getName(), classLoader, recursive, filter);
+                    task.fork();
+                    subTasks.add(task);
+                }
+            }
+
+            List<Class<?>> classes = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) continue;
+                if (filter != null && !isCandidate(file, filter)) continue;
+                String className = file.getName().substring(0, file.getName().length() - 6);
+                Class<?> clazz = loadClass(classLoader, packageName + "." + className);
+                if (clazz != null)
+                    classes.add(clazz);
+            }
+            for (DirectoryScanTask task : subTasks) {
+                classes.addAll(task.join());
+            }
+            return classes;
+        }
+    }
+
     /**
      * 递归扫描包下的所有类
      * @param classes 存放被扫描的类
      * @param packageName 包名
      * @param packagePath 包路径
      * @param recursive 是否递归
+     * @param filter 字节码预过滤器，可为 null
      * @throws ClassNotFoundException 找不到类
      */
-    private static void doScanPackageClassesByFile(Set<Class<?>> classes, String packageName, String packagePath, boolean recursive) throws ClassNotFoundException{
+    private static void doScanPackageClassesByFile(Set<Class<?>> classes, String packageName, String packagePath, boolean recursive, AnnotationClassFilter filter) throws ClassNotFoundException{
         File dir = new File(packagePath);
         if (!dir.exists() || !dir.isDirectory()) return;
 
@@ -59,34 +230,108 @@ public class ClassPathScanner {
         });
 
         if (files == null) return;
+        // 和并行扫描一样按名称排序，先处理当前目录下的类再处理子目录，两种模式注册 Bean 的顺序一致
+        Arrays.sort(files, Comparator.comparing(File::getName));
 
+        for (File file : files) {
+            if (file.isDirectory()) continue;
+            String className = file.getName().substring(0, file.getName().length() - 6);
+            if (filter != null && !isCandidate(file, filter)) continue;
+            Class<?> clazz = loadClass(Thread.currentThread().getContextClassLoader(), packageName + "." + className);
+            if (clazz != null)
+                classes.add(clazz);
+        }
         for (File file : files) {
             if (file.isDirectory()) {
                 doScanPackageClassesByFile(
                         classes,
                         packageName + "." + file.getName(),
                         file.getAbsolutePath(),
-                        recursive
+                        recursive,
+                        filter
                 );
-            } else {
-                String className = file.getName().substring(0, file.getName().length() - 6);
-                Class<?> clazz = loadClass(packageName + "." + className);
+            }
+        }
+    }
+
+    /**
+     * 扫描 jar 包中指定包下的类
+     * <p>
+     * url 形如 jar:file:/app.jar!/net/evelan，嵌套时形如 jar:file:/app.jar!/BOOT-INF/lib/dep.jar!/net/evelan，
+     * 中间段如果不是 .jar 则视为归档内的目录前缀（如 BOOT-INF/classes）。
+     * @param classes 存放被扫描的类
+     * @param classLoader 类加载器
+     * @param url jar 资源路径
+     * @param recursive 是否递归
+     * @param filter 字节码预过滤器，可为 null
+     * @throws IOException 读取 jar 失败
+     */
+    private static void doScanPackageClassesByJar(Collection<Class<?>> classes, ClassLoader classLoader, URL url, boolean recursive, AnnotationClassFilter filter) throws IOException {
+        String[] segments = url.getPath().split("!/");
+        File jarFile = new File(URLDecoder.decode(new URL(segments[0]).getPath(), StandardCharsets.UTF_8));
+        if (!jarFile.isFile()) return;
+
+        try (JarArchive root = JarArchive.open(jarFile)) {
+            JarArchive archive = root;
+            // 当前归档内的目录前缀，类名需要去掉这一段
+            String rootPrefix = "";
+            for (int i = 1; i < segments.length - 1; i++) {
+                String segment = rootPrefix + URLDecoder.decode(segments[i], StandardCharsets.UTF_8);
+                if (segment.endsWith(".jar")) {
+                    JarArchive.Entry nested = archive.getEntry(segment);
+                    if (nested == null) return;
+                    archive = archive.openNested(nested);
+                    rootPrefix = "";
+                } else {
+                    rootPrefix = segment.endsWith("/") ? segment : segment + "/";
+                }
+            }
+            String packagePath = segments.length > 1 ? URLDecoder.decode(segments[segments.length - 1], StandardCharsets.UTF_8) : "";
+            String prefix = rootPrefix + (packagePath.isEmpty() || packagePath.endsWith("/") ? packagePath : packagePath + "/");
+
+            for (JarArchive.Entry entry : archive.entriesWithPrefix(prefix)) {
+                String name = entry.name();
+                if (entry.isDirectory() || !name.endsWith(".class")) continue;
+                // 非递归时只处理当前包下的类
+                if (!recursive && name.indexOf('/', prefix.length()) >= 0) continue;
+                if (name.contains("$")) continue;
+                if (filter != null && !filter.matches(archive.read(entry))) continue;
+
+                String className = name.substring(rootPrefix.length(), name.length() - 6).replace('/', '.');
+                Class<?> clazz = loadClass(classLoader, className);
                 if (clazz != null)
                     classes.add(clazz);
             }
         }
     }
 
+    /**
+     * 读取 class 文件字节并交给预过滤器判断，内部类直接跳过，不读取文件
+     * @param file class 文件
+     * @param filter 字节码预过滤器
+     * @return 是否需要加载
+     */
+    private static boolean isCandidate(File file, AnnotationClassFilter filter) {
+        if (file.getName().contains("$")) return false;
+        try {
+            return filter.matches(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            System.out.println("Failed to read class file: " + file.getAbsolutePath());
+            return false;
+        }
+    }
+
     /**
      * 加载类 - 忽略内部类
+     * @param classLoader 类加载器（并行扫描时工作线程的上下文类加载器不可靠，需要显式传入）
      * @param fullClassName 全类名
      * @return 类对象
      */
-    private static Class<?> loadClass(String fullClassName) {
+    private static Class<?> loadClass(ClassLoader classLoader, String fullClassName) {
         try {
             // 忽略内部类
             if (fullClassName.contains("$")) return null;
-            return Thread.currentThread().getContextClassLoader().loadClass(fullClassName);
+            return classLoader.loadClass(fullClassName);
         } catch (ClassNotFoundException e) {
             System.out.println("Class not found: " + fullClassName);
             return null;
@@ -0,0 +1,284 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 冻结的容器快照
+ * <p>
+ * 把扫描得到的 BeanDefinition（构造方法 / 工厂方法、init / destroy 方法、顺序、@EPrimary、@ELazy、@EScope）按创建顺序写成紧凑的二进制文件，
+ * 下次启动时直接按类名、方法签名还原，跳过类路径扫描、class 文件解析、注解查找和构造方法选择。
+ * <p>
+ * 快照头部保存类路径指纹：jar 的路径、大小、修改时间，目录中扫描包下所有文件的相对路径、大小、修改时间，
+ * 以及启动类和影响 BeanDefinition 的配置（evelan.context.lazy-init）。指纹不一致或还原失败时返回 null，由调用方重新扫描并覆盖快照。
+ * <pre>
+ * magic(int) version(short) fingerprint(32 bytes) count(int)
+ * { kind(byte) name beanClass [factoryName] [factoryClass methodName] paramTypes order primary
+ *   initMethodName destroyMethodName initMethod destroyMethod lazy scope poolSize resetMethodName } * count
+ * </pre>
+ */
+final class ContextSnapshot {
+
+    private static final int MAGIC = 0x45565346; // "EVSF"
+    private static final short VERSION = 1;
+
+    private static final byte KIND_CONSTRUCTOR = 0;
+    private static final byte KIND_FACTORY = 1;
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "boolean", boolean.class, "byte", byte.class, "short", short.class, "char", char.class,
+            "int", int.class, "long", long.class, "float", float.class, "double", double.class);
+
+    private ContextSnapshot() {
+    }
+
+    /**
+     * 计算类路径指纹
+     * @param configClass 启动类
+     * @param basePackages 扫描的包，目录类路径只统计这些包下的文件
+     * @param lazyInitByDefault 容器级 lazy-init 配置
+     * @return SHA-256 指纹
+     */
+    static byte[] fingerprint(Class<?> configClass, List<String> basePackages, boolean lazyInitByDefault) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        update(digest, configClass == null ? "" : configClass.getName());
+        update(digest, String.valueOf(lazyInitByDefault));
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            Path path = Path.of(entry);
+            update(digest, entry);
+            if (Files.isRegularFile(path)) {
+                updateFile(digest, path, entry);
+            } else if (Files.isDirectory(path)) {
+                updateFile(digest, path.resolve(BeanIndex.INDEX_LOCATION), BeanIndex.INDEX_LOCATION);
+                for (String basePackage : basePackages) {
+                    Path dir = basePackage.isEmpty() ? path : path.resolve(basePackage.replace('.', '/'));
+                    if (!Files.isDirectory(dir)) {
+                        continue;
+                    }
+                    try (Stream<Path> files = Files.walk(dir)) {
+                        files.filter(Files::isRegularFile)
+                                .map(file -> path.relativize(file).toString().replace(File.separatorChar, '/'))
+                                .sorted()
+                                .forEach(relative -> updateFile(digest, path.resolve(relative), relative));
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to fingerprint class path directory: " + dir, e);
+                    }
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void updateFile(MessageDigest digest, Path file, String name) {
+        try {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+            update(digest, name);
+            update(digest, Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to fingerprint file: " + file, e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * 读取快照
+     * @param file 快照文件
+     * @param fingerprint 当前类路径指纹
+     * @param classLoader 加载 Bean 类的类加载器
+     * @return 按创建顺序排列的 BeanDefinition，快照不存在、已过期或无法还原时返回 null
+     */
+    static Map<String, BeanDefinition> read(Path file, byte[] fingerprint, ClassLoader classLoader) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream input = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(input))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[fingerprint.length];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, fingerprint)) {
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, BeanDefinition> defs = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                BeanDefinition def = readDefinition(in, classLoader);
+                defs.put(def.getName(), def);
+            }
+            return defs;
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            // 类被删除、方法签名变化等，指纹没有覆盖到的情况也按过期处理
+            return null;
+        }
+    }
+
+    private static BeanDefinition readDefinition(DataInputStream in, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+        byte kind = in.readByte();
+        String name = in.readUTF();
+        Class<?> beanClass = loadClass(in.readUTF(), classLoader);
+        BeanDefinition def;
+        if (kind == KIND_CONSTRUCTOR) {
+            Constructor<?> constructor = beanClass.getDeclaredConstructor(readTypes(in, classLoader));
+            int order = in.readInt();
+            boolean primary = in.readBoolean();
+            def = new BeanDefinition(name, beanClass, constructor, order, primary, readNullable(in), readNullable(in),
+                    readMethod(in, classLoader), readMethod(in, classLoader));
+        } else if (kind == KIND_FACTORY) {
+            String factoryName = in.readUTF();
+            Class<?> factoryClass = loadClass(in.readUTF(), classLoader);
+            String methodName = in.readUTF();
+            Method factoryMethod = factoryClass.getDeclaredMethod(methodName, readTypes(in, classLoader));
+            int order = in.readInt();
+            boolean primary = in.readBoolean();
+            def = new BeanDefinition(name, beanClass, factoryName, factoryMethod, order, primary, readNullable(in), readNullable(in),
+                    readMethod(in, classLoader), readMethod(in, classLoader));
+        } else {
+            throw new IOException("Unknown bean definition kind: " + kind);
+        }
+        def.setLazy(in.readBoolean());
+        def.setScope(in.readUTF(), in.readInt(), readNullable(in));
+        return def;
+    }
+
+    /**
+     * 写入快照，先写临时文件再原子替换，多个进程同时启动时不会读到写了一半的快照
+     * @param file 快照文件
+     * @param fingerprint 当前类路径指纹
+     * @param defs 扫描得到的 BeanDefinition
+     */
+    static void write(Path file, byte[] fingerprint, Collection<BeanDefinition> defs) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.write(fingerprint);
+                List<BeanDefinition> sorted = defs.stream().sorted().toList();
+                out.writeInt(sorted.size());
+                for (BeanDefinition def : sorted) {
+                    writeDefinition(out, def);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeDefinition(DataOutputStream out, BeanDefinition def) throws IOException {
+        if (def.getFactoryMethod() == null) {
+            out.writeByte(KIND_CONSTRUCTOR);
+            out.writeUTF(def.getName());
+            out.writeUTF(def.getBeanClass().getName());
+            writeTypes(out, def.getConstructor().getParameterTypes());
+        } else {
+            Method factoryMethod = def.getFactoryMethod();
+            out.writeByte(KIND_FACTORY);
+            out.writeUTF(def.getName());
+            out.writeUTF(def.getBeanClass().getName());
+            out.writeUTF(def.getFactoryName());
+            out.writeUTF(factoryMethod.getDeclaringClass().getName());
+            out.writeUTF(factoryMethod.getName());
+            writeTypes(out, factoryMethod.getParameterTypes());
+        }
+        out.writeInt(def.getOrder());
+        out.writeBoolean(def.isPrimary());
+        writeNullable(out, def.getInitMethodName());
+        writeNullable(out, def.getDestroyMethodName());
+        writeMethod(out, def.getInitMethod());
+        writeMethod(out, def.getDestroyMethod());
+        out.writeBoolean(def.isLazy());
+        out.writeUTF(def.getScope());
+        out.writeInt(def.getPoolSize());
+        writeNullable(out, def.getResetMethodName());
+    }
+
+    private static void writeTypes(DataOutputStream out, Class<?>[] types) throws IOException {
+        out.writeShort(types.length);
+        for (Class<?> type : types) {
+            out.writeUTF(type.getName());
+        }
+    }
+
+    private static Class<?>[] readTypes(DataInputStream in, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        Class<?>[] types = new Class<?>[in.readShort()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = loadClass(in.readUTF(), classLoader);
+        }
+        return types;
+    }
+
+    /**
+     * 无参的 init / destroy 方法：声明类 + 方法名
+     */
+    private static void writeMethod(DataOutputStream out, Method method) throws IOException {
+        out.writeBoolean(method != null);
+        if (method != null) {
+            out.writeUTF(method.getDeclaringClass().getName());
+            out.writeUTF(method.getName());
+        }
+    }
+
+    private static Method readMethod(DataInputStream in, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Class<?> declaringClass = loadClass(in.readUTF(), classLoader);
+        return declaringClass.getDeclaredMethod(in.readUTF());
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, false, classLoader);
+    }
+}
@@ -2,14 +2,19 @@ package net.evelan.frp.bootstrap.core.context;
 
 import net.evelan.frp.bootstrap.annotation.bean.EConfiguration;
 import net.evelan.frp.bootstrap.annotation.lifecycle.EOrder;
+import net.evelan.frp.bootstrap.core.aop.ProxyFactory;
 import net.evelan.frp.bootstrap.core.core.ApplicationContextUtils;
 import net.evelan.frp.bootstrap.core.core.ConfigurableApplicationContext;
+import net.evelan.frp.bootstrap.core.solver.PropertyChangeListener;
 import net.evelan.frp.bootstrap.core.solver.PropertyResolver;
 import net.evelan.frp.bootstrap.utils.ClassUtils;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -19,9 +24,24 @@ import java.util.stream.Collectors;
  * 模拟了 Spring 的 IOC 容器行为。
  */
 public class EvelanConfigApplicationContext implements ConfigurableApplicationContext {
+
+    // 开启后按依赖图在线程池上并行创建、注入、初始化 Bean，默认关闭
+    public static final String PARALLEL_INIT_PROPERTY = "evelan.context.parallel-init";
+    // 并行加载使用的线程数，默认为 CPU 核数
+    public static final String PARALLEL_INIT_THREADS_PROPERTY = "evelan.context.parallel-init-threads";
+    // 开启后没有标记 @ELazy 的 Bean 也默认延迟初始化（配置类和 BeanPostProcessor 除外），默认关闭
+    public static final String LAZY_INIT_PROPERTY = "evelan.context.lazy-init";
+    // 容器快照文件路径，配置后第一次启动扫描并写入快照，之后类路径不变时直接还原 BeanDefinition，默认不使用快照
+    public static final String SNAPSHOT_PROPERTY = "evelan.context.snapshot";
+    // 启动耗时 trace 文件路径，配置后容器刷新完成时写入 Chrome trace-event JSON，默认不写入
+    public static final String STARTUP_TRACE_PROPERTY = "evelan.context.startup-trace";
     
     protected final PropertyResolver propertyResolver;
     protected final Map<String, BeanDefinition> beans;
+    // 按类型索引的 BeanDefinition，避免每次按类型查找都遍历、排序
+    private BeanTypeIndex beanTypeIndex;
+    // 按类型解析出的唯一 Bean（已处理 @EPrimary），{ 类型 : BeanDefinition }
+    private final Map<Class<?>, BeanDefinition> resolvedBeanDefinitions = new ConcurrentHashMap<>();
     
     // 依赖注入器
     private final DependencyInjector dependencyInjector;
@@ -32,12 +52,37 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
 
     // 正在创建中的 Bean 名称集合，用于检测循环依赖（主要针对构造器注入）
     private final Set<String> creatingBeanNames;
+    // 当前线程正在创建的非 singleton Bean，同一个作用域 Bean 可以在多个线程上同时创建，因此按线程记录
+    private final ThreadLocal<Set<String>> creatingScopedBeanNames = ThreadLocal.withInitial(HashSet::new);
     
+    private static final BeanPostProcessor[] NO_BEAN_POST_PROCESSORS = new BeanPostProcessor[0];
+
     // Bean 后置处理器列表
     private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    // 按 Bean 声明类型筛选出的 BeanPostProcessor（注册顺序），处理器变化时清空
+    // 没有处理器关心的类型对应空数组，初始化和获取这类 Bean 时直接跳过整个处理链
+    private final Map<Class<?>, BeanPostProcessor[]> beanPostProcessorsByType = new ConcurrentHashMap<>();
+    // 容器是否已刷新完成，完成后才缓存对外暴露的实例
+    private volatile boolean refreshed = false;
+
+    // 启动耗时记录，容器刷新完成后不再记录
+    private final StartupProfile startupProfile = new StartupProfile();
+    // 注册到 PropertyResolver 的 Bean，容器关闭时移除
+    private final List<PropertyChangeListener> propertyChangeListeners = new ArrayList<>();
+
+    // 启动类（@EApplication 标记），决定扫描范围
+    private final Class<?> configClass;
+    // 类路径扫描模式
+    private final ScanMode scanMode;
 
     public EvelanConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver) {
+        this(configClass, propertyResolver, ScanMode.SERIAL);
+    }
+
+    public EvelanConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver, ScanMode scanMode) {
+        this.configClass = configClass;
         this.propertyResolver = propertyResolver;
+        this.scanMode = scanMode;
         this.dependencyInjector = new DependencyInjector(this, propertyResolver);
         this.beanInstantiator = new BeanInstantiator(this, propertyResolver);
         this.beanScanner = new BeanDefinitionScanner(this);
@@ -46,12 +91,64 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
          这个时候虽然初始化了beans（ioc）容器，但是还没有实例化，只是拿到了BeanDefinition定义
          也就是只知道有哪些对象被标记了，之后需要交给框架管理的
          */
-        this.beans = this.beanScanner.scan(); // 初始化 beans map
-        this.creatingBeanNames = new HashSet<>();
+        this.beans = this.startupProfile.time("scan", this.beanScanner::scan); // 初始化 beans map
+        this.beanTypeIndex = new BeanTypeIndex(this.beans.values());
+        this.creatingBeanNames = ConcurrentHashMap.newKeySet();
+        registerScopes();
         // 执行容器刷新，加载所有 Bean
         refresh();
     }
 
+    /**
+     * 使用编译期生成的装配代码创建容器
+     * 生成代码已经按依赖顺序完成了创建、注入和初始化，这里只登记 BeanDefinition 并计算对外暴露的实例，不扫描类路径
+     */
+    public EvelanConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver, GeneratedContext generated) {
+        this.configClass = configClass;
+        this.propertyResolver = propertyResolver;
+        this.scanMode = ScanMode.SERIAL;
+        this.dependencyInjector = new DependencyInjector(this, propertyResolver);
+        this.beanInstantiator = new BeanInstantiator(this, propertyResolver);
+        this.beanScanner = new BeanDefinitionScanner(this);
+        this.creatingBeanNames = ConcurrentHashMap.newKeySet();
+        this.beans = this.startupProfile.time("loadGenerated", () -> loadGenerated(generated, propertyResolver));
+        this.beanTypeIndex = new BeanTypeIndex(this.beans.values());
+        this.refreshed = true;
+        phase("exposeInstances", this::exposeInstances);
+        finishStartup();
+        registerPropertyChangeListeners();
+    }
+
+    /**
+     * 执行生成的装配代码，中途失败时按注册的逆序销毁已经创建好的 Bean 再抛出异常
+     */
+    private static Map<String, BeanDefinition> loadGenerated(GeneratedContext generated, PropertyResolver propertyResolver) {
+        Map<String, BeanDefinition> defs = new LinkedHashMap<>();
+        List<BeanDefinition> registered = new ArrayList<>();
+        try {
+            generated.load((name, beanClass, instance, order, primary, destroyer) -> {
+                BeanDefinition def = new BeanDefinition(name, beanClass, instance, order, primary, destroyer);
+                registered.add(def);
+                if (defs.put(name, def) != null) {
+                    throw new RuntimeException("Duplicate bean name: " + name);
+                }
+            }, propertyResolver);
+        } catch (Exception e) {
+            RuntimeException failure = e instanceof RuntimeException re ? re
+                    : new RuntimeException("Failed to load generated context: " + generated.getClass().getName(), e);
+            for (int i = registered.size() - 1; i >= 0; i--) {
+                BeanDefinition def = registered.get(i);
+                try {
+                    def.invokeDestroyMethod(def.getInstance());
+                } catch (Throwable destroyFailure) {
+                    failure.addSuppressed(new RuntimeException("Failed to invoke destroy method of bean: " + def.getName(), destroyFailure));
+                }
+            }
+            throw failure;
+        }
+        return defs;
+    }
+
     /**
      * 刷新容器，执行核心加载流程
      */
@@ -62,14 +159,88 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
         优先实例化并注册实现了 BeanPostProcessor 接口的 Bean。
         BeanPostProcessor是实现拓展的主要手段，必须要在普通bean创建之前准备好，以便在普通beans初始化过程中进行拦截和处理
          */
-        registerBeanPostProcessors();
+        phase("registerBeanPostProcessors", this::registerBeanPostProcessors);
+
+        // 被立即初始化的 Bean 直接依赖（非 ObjectProvider / @ELazy 注入点）的延迟 Bean，在刷新时就需要，转为立即初始化
+        promoteRequiredLazyBeans();
+
+        if (this.propertyResolver.getProperty(PARALLEL_INIT_PROPERTY, boolean.class, false)) {
+            /*
+             3-5. 并行加载
+             按构造器 / 工厂方法依赖拓扑并行创建，再并行注入，最后按依赖顺序并行初始化，互不相关的 Bean 不再互相阻塞。
+             BeanPostProcessor 在上一步已经完整加载，这里不再重复处理。
+             */
+            int threads = this.propertyResolver.getProperty(PARALLEL_INIT_THREADS_PROPERTY, int.class, Runtime.getRuntime().availableProcessors());
+            List<BeanDefinition> defs = this.beans.values().stream()
+                    .filter(def -> !BeanPostProcessor.class.isAssignableFrom(def.getBeanClass()))
+                    .filter(def -> def.isSingleton() && !def.isLazy())
+                    .toList();
+            phase("parallelLoad", () -> new ParallelBeanLoader(this, threads)
+                    .load(defs, this::createBeanAsEarlySingleton, dependencyInjector::inject, this::initBean));
+        } else {
+            loadBeans();
+        }
+
+        /*
+         6. 计算对外暴露的实例
+         每个 Bean 只执行一次 postProcessOnSetProperty 处理链并缓存到 BeanDefinition 中，之后 getBean 只是一次字段读取
+         */
+        this.refreshed = true;
+        phase("exposeInstances", this::exposeInstances);
+        phase("prefillPools", this::prefillPools);
+        finishStartup();
+        registerPropertyChangeListeners();
+    }
+
+    private void phase(String name, Runnable action) {
+        this.startupProfile.phase(name, action);
+    }
+
+    /**
+     * 结束启动耗时记录，配置了 evelan.context.startup-trace 时写入 trace 文件
+     */
+    private void finishStartup() {
+        this.startupProfile.finish();
+        String trace = this.propertyResolver.getProperty(STARTUP_TRACE_PROPERTY);
+        if (trace != null && !trace.isBlank()) {
+            try {
+                this.startupProfile.writeChromeTrace(Path.of(trace));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write startup trace: " + trace, e);
+            }
+        }
+    }
+
+    /**
+     * 实现了 PropertyChangeListener 的单例 Bean 订阅配置变化，注册的是对外暴露的实例（可能是代理）
+     * 刷新完成后才创建的延迟 Bean 不会自动注册
+     */
+    private void registerPropertyChangeListeners() {
+        for (BeanDefinition def : this.beans.values()) {
+            if (def.isSingleton() && def.getExposedInstance() instanceof PropertyChangeListener listener) {
+                this.propertyResolver.addPropertyChangeListener(listener);
+                this.propertyChangeListeners.add(listener);
+            }
+        }
+    }
+
+    /**
+     * 启动耗时记录：各阶段和每个 Bean 的创建、注入、初始化耗时
+     */
+    public StartupProfile getStartupProfile() {
+        return this.startupProfile;
+    }
 
+    /**
+     * 串行创建、注入并初始化 Bean
+     */
+    private void loadBeans() {
         /*
          3. 实例化 Bean (分为 Configuration 和 普通 Bean)
          优先实例化 @EConfiguration 标注的类, 配置类中通常包含@EBean工厂方法，这些方法定义了其他的Bean，因此配置类本身必须先于 这些通过工厂方法注册的bean 之前创建
          */
         // 先实例化 @EConfiguration，因为它们可能包含工厂方法
-        createEConfigurationBeans();
+        phase("createConfigurationBeans", this::createEConfigurationBeans);
         /*
          再实例化其他 Bean
          此时仅调用构造函数，生成空壳对象，不进行属性注入。
@@ -77,20 +248,179 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
          当B想要注入A的时候就可以拿到A的空壳引用，从而完成B的创建。
          如果在此阶段直接注入属性，那么就会导致循环依赖
          */
-        createNormalBeans();
+        phase("createNormalBeans", this::createNormalBeans);
 
         /*
          4. 依赖注入 (属性填充)
          遍历所有 Bean 实例，解析 @EValue 和 @EImport ，将依赖注入到字段或 Setter 方法中
          将“空壳”对象填充为完整的对象。此时引用的依赖对象可能也处于“空壳”状态（如果是循环依赖），但这不影响引用的赋值。
          */
-        injectBeans();
+        phase("injectBeans", this::injectBeans);
 
         /*
          5. 初始化 Bean (调用 @PostConstruct 等)
          执行 Bean 的业务初始化逻辑（如开启连接、加载缓存）。AOP 代理通常在此阶段通过后置处理器完成，用代理对象替换原始对象。
          */
-        initBeans();
+        phase("initBeans", this::initBeans);
+    }
+
+    /**
+     * 为非 singleton 作用域的 Bean 创建作用域管理器，这些 Bean 不在刷新时创建
+     */
+    private void registerScopes() {
+        for (BeanDefinition def : this.beans.values()) {
+            if (!def.isSingleton()) {
+                def.setScopeHandler(BeanScope.create(def, () -> createScopedInstance(def), bean -> destroyScopedInstance(def, bean)));
+            }
+        }
+    }
+
+    /**
+     * 预先填满 pooled 作用域的对象池，延迟加载的 Bean 除外
+     */
+    private void prefillPools() {
+        for (BeanDefinition def : this.beans.values()) {
+            if (!def.isSingleton() && !def.isLazy()) {
+                def.getScopeHandler().prefill();
+            }
+        }
+    }
+
+    /**
+     * 按作用域获取实例：prototype 新建，thread 取当前线程的实例，pooled 从池中借出
+     */
+    Object getScopedBean(BeanDefinition def) {
+        return def.getScopeHandler().get();
+    }
+
+    /**
+     * 完整地创建一个作用域 Bean 实例：创建、注入、初始化，并经过 BeanPostProcessor 处理
+     */
+    private Object createScopedInstance(BeanDefinition def) {
+        Set<String> creating = this.creatingScopedBeanNames.get();
+        if (!creating.add(def.getName())) {
+            throw new RuntimeException(String.format("Circular dependency detected when create %s bean '%s'", def.getScope(), def.getName()));
+        }
+        try {
+            Object bean = beanInstantiator.createBean(def);
+            dependencyInjector.inject(def, bean);
+            return applyBeanPostProcessorsOnSetProperty(def, initBean(def, bean));
+        } finally {
+            creating.remove(def.getName());
+        }
+    }
+
+    private void destroyScopedInstance(BeanDefinition def, Object bean) {
+        try {
+            // 归还的可能是 @EAround 代理，destroy 方法在原始实例上调用
+            def.invokeDestroyMethod(ProxyFactory.getTarget(bean));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to invoke destroy method of bean: " + def.getName(), e);
+        }
+    }
+
+    /**
+     * 归还非 singleton 作用域的实例：pooled 重置后放回池中，prototype 和 thread 调用 destroy 方法（thread 同时解除与当前线程的绑定）
+     * singleton 由容器管理，调用此方法没有效果；pooled 实例不是从池中借出或者已经归还过时抛出异常
+     * @param name Bean 名称
+     * @param bean 通过 getBean 或注入得到的实例
+     */
+    public void releaseBean(String name, Object bean) {
+        BeanDefinition def = this.beans.get(name);
+        if (def == null) {
+            throw new RuntimeException(String.format("No bean defined with name '%s'.", name));
+        }
+        if (!def.isSingleton()) {
+            def.getScopeHandler().release(bean);
+        }
+    }
+
+    /**
+     * 获取 pooled 作用域 Bean 的对象池统计（命中、未命中、借出耗时等）
+     * @param name Bean 名称
+     * @return 统计快照，不是 pooled 作用域时返回 null
+     */
+    public PoolStatistics getPoolStatistics(String name) {
+        BeanDefinition def = this.beans.get(name);
+        if (def == null) {
+            throw new RuntimeException(String.format("No bean defined with name '%s'.", name));
+        }
+        return def.isSingleton() ? null : def.getScopeHandler().statistics();
+    }
+
+    /**
+     * 从立即初始化的 Bean 出发，沿依赖图把可达的延迟 Bean 标记为立即初始化
+     */
+    private void promoteRequiredLazyBeans() {
+        if (this.beans.values().stream().noneMatch(BeanDefinition::isLazy)) {
+            return;
+        }
+        BeanDependencyGraph graph = new BeanDependencyGraph(this, this.beans.values());
+        Deque<BeanDefinition> queue = new ArrayDeque<>();
+        this.beans.values().stream().filter(def -> def.isSingleton() && !def.isLazy()).forEach(queue::add);
+        while (!queue.isEmpty()) {
+            for (BeanDefinition dep : graph.getAllDependencies(queue.poll())) {
+                if (dep.isLazy()) {
+                    dep.setLazy(false);
+                    queue.add(dep);
+                }
+            }
+        }
+    }
+
+    /**
+     * 初始化延迟 Bean：创建、注入、初始化并计算对外暴露的实例
+     * 延迟 Bean 第一次被 getBean 或被注入时调用，多个线程同时获取时只初始化一次。
+     * 实例在注入、初始化之前就已经设置到 BeanDefinition 中，所以获取延迟 Bean 都要经过这里：其他线程会等待初始化完成，
+     * 只有正在初始化的线程（循环依赖）能拿到早期实例
+     * @param def 延迟 Bean 的定义
+     * @return 原始实例
+     */
+    synchronized Object initLazyBean(BeanDefinition def) {
+        Object instance = def.getInstance();
+        if (instance != null) {
+            return instance;
+        }
+        instance = createBeanAsEarlySingleton(def);
+        dependencyInjector.inject(def);
+        initBean(def);
+        if (this.refreshed) {
+            def.setExposedInstance(applyBeanPostProcessorsOnSetProperty(def));
+        }
+        return def.getInstance();
+    }
+
+    /**
+     * 添加 BeanPostProcessor
+     * 处理器变化后，已缓存的对外暴露实例全部失效并重新计算
+     */
+    public void addBeanPostProcessor(BeanPostProcessor processor) {
+        this.beanPostProcessors.add(processor);
+        this.beanPostProcessorsByType.clear();
+        if (this.refreshed) {
+            exposeInstances();
+        }
+    }
+
+    /**
+     * 关心该 Bean 声明类型的 BeanPostProcessor，每个类型只筛选一次
+     */
+    private BeanPostProcessor[] getBeanPostProcessors(BeanDefinition def) {
+        if (this.beanPostProcessors.isEmpty()) {
+            return NO_BEAN_POST_PROCESSORS;
+        }
+        return this.beanPostProcessorsByType.computeIfAbsent(def.getBeanClass(), type -> {
+            BeanPostProcessor[] processors = this.beanPostProcessors.stream()
+                    .filter(processor -> processor.supportsBeanType(type))
+                    .toArray(BeanPostProcessor[]::new);
+            return processors.length == 0 ? NO_BEAN_POST_PROCESSORS : processors;
+        });
+    }
+
+    private void exposeInstances() {
+        for (BeanDefinition def : this.beans.values()) {
+            def.setExposedInstance(def.getInstance() == null ? null : applyBeanPostProcessorsOnSetProperty(def));
+        }
     }
 
     /**
@@ -116,7 +446,7 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
             // 添加到列表
             Object instance = def.getInstance();
             if (instance instanceof BeanPostProcessor processor) {
-                this.beanPostProcessors.add(processor);
+                addBeanPostProcessor(processor);
             }
         }
     }
@@ -126,46 +456,64 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
      * 调用 @PostConstruct 方法和 BeanPostProcessor
      */
     private void initBeans() {
-        this.beans.values().forEach(this::initBean);
+        // 只处理当前已创建的 Bean；初始化过程中按需创建的延迟 Bean 已经由 initLazyBean 完整初始化
+        this.beans.values().stream()
+                .filter(def -> def.getInstance() != null)
+                .toList()
+                .forEach(this::initBean);
     }
 
     private void initBean(BeanDefinition def) {
-        Object bean = def.getInstance();
-        
-        // BeanPostProcessor Before Initialization (暂未实现，可扩展)
-        
-        // 调用初始化方法
-        callMethod(bean, def.getInitMethod(), def.getInitMethodName());
-        
-        // BeanPostProcessor After Initialization (暂未实现，可扩展)
+        def.setInitializedInstance(initBean(def, def.getInstance()));
     }
 
     /**
-     * 调用指定的方法（如 init 或 destroy）
+     * 初始化 Bean：postProcessBeforeInitialization -> init 方法 -> postProcessAfterInitialization
+     * init 方法始终在原始实例上调用；处理器返回 null 时保留当前实例
+     * @return 处理器处理后的实例，singleton 由调用方保存到 BeanDefinition 中，之后只在此基础上计算对外暴露的实例
      */
-    private void callMethod(Object beanInstance, Method method, String namedMethod) {
-        if (method != null) {
-            try {
-                method.invoke(beanInstance);
-            } catch (ReflectiveOperationException e) {
-                throw new RuntimeException("Failed to invoke init/destroy method", e);
+    private Object initBean(BeanDefinition def, Object bean) {
+        return this.startupProfile.time(StartupProfile.INIT, def.getName(), () -> doInitBean(def, bean));
+    }
+
+    private Object doInitBean(BeanDefinition def, Object bean) {
+        BeanPostProcessor[] processors = getBeanPostProcessors(def);
+        Object current = bean;
+        for (BeanPostProcessor processor : processors) {
+            Object processed = processor.postProcessBeforeInitialization(current, def.getName());
+            if (processed != null) {
+                current = processed;
             }
-        } else if (namedMethod != null) {
-            Method named = ClassUtils.getNamedMethod(beanInstance.getClass(), namedMethod);
-            named.setAccessible(true);
-            try {
-                named.invoke(beanInstance);
-            } catch (ReflectiveOperationException e) {
-                throw new RuntimeException("Failed to invoke named init/destroy method: " + namedMethod, e);
+        }
+
+        // 调用初始化方法
+        try {
+            if (def.getInitMethod() != null || def.getInitMethodName() != null) {
+                this.startupProfile.countReflectiveCall();
+            }
+            def.invokeInitMethod(bean);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to invoke init method of bean: " + def.getName(), e);
+        }
+
+        for (BeanPostProcessor processor : processors) {
+            Object processed = processor.postProcessAfterInitialization(current, def.getName());
+            if (processed != null) {
+                current = processed;
             }
         }
+        return current;
     }
 
     /**
      * 执行依赖注入
      */
     private void injectBeans() {
-        this.beans.values().forEach(dependencyInjector::inject);
+        // 延迟 Bean 尚未创建，跳过；注入过程中按需创建的延迟 Bean 已经由 initLazyBean 完成注入
+        this.beans.values().stream()
+                .filter(def -> def.getInstance() != null)
+                .toList()
+                .forEach(dependencyInjector::inject);
     }
 
     /**
@@ -183,7 +531,7 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
      */
     private void createNormalBeans() {
         List<BeanDefinition> defs = this.beans.values().stream()
-                .filter(def -> def.getInstance() == null)
+                .filter(def -> def.getInstance() == null && def.isSingleton() && !def.isLazy())
                 .sorted()
                 .toList();
         
@@ -263,28 +611,83 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
 
     @Override
     public void close() {
+        // 先停止配置变化通知和配置文件监听，避免回调到已经销毁的 Bean
+        this.propertyChangeListeners.forEach(this.propertyResolver::removePropertyChangeListener);
+        this.propertyChangeListeners.clear();
+        this.propertyResolver.close();
         this.beans.values().forEach(def -> {
-            final Object beanInstance = getProxiedInstance(def);
-            callMethod(beanInstance, def.getDestroyMethod(), def.getDestroyMethodName());
+            // 销毁对象池中的空闲实例和 thread 作用域还没有归还的实例；prototype 实例由使用方通过 releaseBean 销毁
+            if (!def.isSingleton()) {
+                def.getScopeHandler().close();
+                return;
+            }
+            // 从未被使用的延迟 Bean 没有实例，不需要销毁
+            if (def.getInstance() == null) {
+                return;
+            }
+            // 和 scoped Bean 一样在原始实例上调用 destroy 方法，不经过 @EAround 代理
+            final Object beanInstance = ProxyFactory.getTarget(getProxiedInstance(def));
+            try {
+                def.invokeDestroyMethod(beanInstance);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to invoke destroy method of bean: " + def.getName(), e);
+            }
         });
         this.beans.clear();
+        this.beanTypeIndex = new BeanTypeIndex(List.of());
+        this.resolvedBeanDefinitions.clear();
         ApplicationContextUtils.setApplicationContext(null);
     }
 
     /**
      * 获取代理后的 Bean 实例
-     * 应用 BeanPostProcessor 的 postProcessOnSetProperty 逻辑（如果有）
+     * 容器刷新完成后直接返回 BeanDefinition 中缓存的实例；刷新过程中（如工厂方法获取配置类实例）实时计算
      */
     private Object getProxiedInstance(BeanDefinition def) {
-        Object beanInstance = def.getInstance();
+        Object exposed = def.getExposedInstance();
+        if (exposed != null) {
+            return exposed;
+        }
+        if (!def.isSingleton()) {
+            return getScopedBean(def);
+        }
+        if (def.isLazy() && this.refreshed) {
+            initLazyBean(def);
+            // 初始化完成后 initLazyBean 已经计算好对外暴露的实例；为空说明是初始化线程内的循环引用，返回早期实例但不缓存
+            exposed = def.getExposedInstance();
+            return exposed != null ? exposed : applyBeanPostProcessorsOnSetProperty(def);
+        }
+        if (def.getInstance() == null) {
+            if (def.isLazy()) {
+                initLazyBean(def);
+            } else if (!this.refreshed) {
+                // 刷新过程中提前被依赖（如构造器注入的 prototype Bean 字段依赖尚未创建的单例），先创建早期单例，稍后统一注入、初始化
+                createBeanAsEarlySingleton(def);
+            }
+        }
+        exposed = applyBeanPostProcessorsOnSetProperty(def);
+        if (this.refreshed && exposed != null) {
+            def.setExposedInstance(exposed);
+        }
+        return exposed;
+    }
+
+    /**
+     * 应用 BeanPostProcessor 的 postProcessOnSetProperty 逻辑（如果有）
+     */
+    private Object applyBeanPostProcessorsOnSetProperty(BeanDefinition def) {
+        // 从初始化处理后的实例开始；刷新过程中尚未初始化的 Bean（注入时的早期引用）还是原始实例
+        return applyBeanPostProcessorsOnSetProperty(def, def.getInitializedInstance());
+    }
+
+    private Object applyBeanPostProcessorsOnSetProperty(BeanDefinition def, Object beanInstance) {
+        beanInstance = applyAroundAdvice(def, beanInstance);
         // 这里的逻辑保留了原有的设计：反向遍历 Processor
         // 注意：通常 BeanPostProcessor 是在初始化前后应用，而不是在 getBean 时。
         // 但为了保持原有逻辑的兼容性（可能用于动态代理替换），这里保留。
-        List<BeanPostProcessor> reversedBeanPostProcessors = new ArrayList<>(this.beanPostProcessors);
-        Collections.reverse(reversedBeanPostProcessors);
-        
-        for (BeanPostProcessor beanPostProcessor : reversedBeanPostProcessors) {
-            Object restoredInstance = beanPostProcessor.postProcessOnSetProperty(beanInstance, def.getName());
+        BeanPostProcessor[] processors = getBeanPostProcessors(def);
+        for (int i = processors.length - 1; i >= 0; i--) {
+            Object restoredInstance = processors[i].postProcessOnSetProperty(beanInstance, def.getName());
             if (restoredInstance != beanInstance) {
                 beanInstance = restoredInstance;
             }
@@ -292,6 +695,26 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
         return beanInstance;
     }
 
+    /**
+     * 标记了 @EAround 的 Bean 对外暴露子类代理，singleton 只生成一次代理
+     */
+    private Object applyAroundAdvice(BeanDefinition def, Object beanInstance) {
+        if (beanInstance == null || !AroundAdvice.isAdvised(beanInstance)) {
+            return beanInstance;
+        }
+        if (!def.isSingleton()) {
+            return AroundAdvice.createProxy(this, beanInstance);
+        }
+        synchronized (def) {
+            Object proxy = def.getAdvisedInstance();
+            if (proxy == null || ProxyFactory.getTarget(proxy) != beanInstance) {
+                proxy = AroundAdvice.createProxy(this, beanInstance);
+                def.setAdvisedInstance(proxy);
+            }
+            return proxy;
+        }
+    }
+
     // --- 查找辅助方法 ---
 
     @SuppressWarnings("unchecked")
@@ -335,6 +758,16 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
     }
 
     public BeanDefinition findBeanDefinition(Class<?> type) {
+        BeanDefinition resolved = this.resolvedBeanDefinitions.get(type);
+        if (resolved != null)
+            return resolved;
+        resolved = resolveBeanDefinition(type);
+        if (resolved != null)
+            this.resolvedBeanDefinitions.put(type, resolved);
+        return resolved;
+    }
+
+    private BeanDefinition resolveBeanDefinition(Class<?> type) {
         List<BeanDefinition> defs = findBeanDefinitions(type);
         if (defs.isEmpty())
             return null;
@@ -350,11 +783,27 @@ public class EvelanConfigApplicationContext implements ConfigurableApplicationCo
     }
 
     public List<BeanDefinition> findBeanDefinitions(Class<?> type) {
-        return this.beans.values().stream().filter(def -> type.isAssignableFrom(def.getBeanClass())).sorted().toList();
+        return this.beanTypeIndex.get(type);
     }
 
     // --- 内部辅助方法 ---
 
+    boolean isLazyInitByDefault() {
+        return this.propertyResolver.getProperty(LAZY_INIT_PROPERTY, boolean.class, false);
+    }
+
+    String getSnapshotLocation() {
+        return this.propertyResolver.getProperty(SNAPSHOT_PROPERTY);
+    }
+
+    Class<?> getConfigClass() {
+        return this.configClass;
+    }
+
+    ScanMode getScanMode() {
+        return this.scanMode;
+    }
+
     boolean isConfigurationDefinition(BeanDefinition def) {
         return ClassUtils.findAnnotation(def.getBeanClass(), EConfiguration.class) != null;
     }
@@ -0,0 +1,45 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.core.solver.PropertyResolver;
+
+/**
+ * 编译期生成的容器装配代码
+ * <p>
+ * 开启 ContextGeneratorProcessor（javac -Aevelan.context.generate=true）后，每个 @EApplication 启动类都会生成一个
+ * 名为 启动类名 + {@value #CLASS_SUFFIX} 的实现类：按依赖拓扑顺序直接 new 出 Bean、写字段、调 setter、调用 @EPostConstruct，
+ * 然后把实例注册到容器。EvelanApplication.run 发现该类时直接使用，不再扫描类路径，也不通过反射创建、注入 Bean。
+ */
+public interface GeneratedContext {
+
+    String CLASS_SUFFIX = "_EvelanContext";
+
+    /**
+     * 创建、注入、初始化全部 Bean，并按创建顺序注册
+     * @param registry Bean 注册表
+     * @param propertyResolver 解析 @EValue
+     */
+    void load(Registry registry, PropertyResolver propertyResolver) throws Exception;
+
+    /**
+     * 接收生成代码创建好的 Bean
+     */
+    interface Registry {
+        /**
+         * @param name Bean 名称
+         * @param beanClass Bean 的声明类型（工厂方法为返回类型）
+         * @param instance 已经注入、初始化完成的实例
+         * @param order @EOrder
+         * @param primary 是否被 @EPrimary 标记
+         * @param destroyer 调用 destroy 方法，没有时为 null
+         */
+        void register(String name, Class<?> beanClass, Object instance, int order, boolean primary, Destroyer destroyer);
+    }
+
+    /**
+     * 容器关闭时调用的 destroy 方法
+     */
+    @FunctionalInterface
+    interface Destroyer {
+        void destroy() throws Exception;
+    }
+}
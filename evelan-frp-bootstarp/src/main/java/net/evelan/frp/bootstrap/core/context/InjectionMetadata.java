@@ -0,0 +1,146 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.lifecycle.EImport;
+import net.evelan.frp.bootstrap.annotation.lifecycle.ELazy;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EValue;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 类的注入元数据
+ * <p>
+ * 按 Class 缓存 @EValue / @EImport 注入点：字段和 setter 方法的查找、注解读取、修饰符检查、调用器生成只在第一次用到这个类时做一次，
+ * 之后同一个类的所有 Bean、所有上下文实例共享同一份不可变的注入点列表。
+ * 缓存放在 ClassValue 里，随类一起回收，不会因为测试里反复创建上下文或类加载器而泄漏。
+ */
+final class InjectionMetadata {
+
+    private static final ClassValue<InjectionMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected InjectionMetadata computeValue(Class<?> type) {
+            return new InjectionMetadata(type);
+        }
+    };
+
+    private final List<InjectionPoint> injectionPoints;
+
+    private InjectionMetadata(Class<?> beanClass) {
+        List<InjectionPoint> points = new ArrayList<>();
+        collect(beanClass, points);
+        this.injectionPoints = List.copyOf(points);
+    }
+
+    /**
+     * 获取类的注入元数据
+     */
+    static InjectionMetadata forClass(Class<?> beanClass) {
+        return CACHE.get(beanClass);
+    }
+
+    /**
+     * 注入点，按当前类字段、当前类方法、父类的顺序排列
+     */
+    List<InjectionPoint> getInjectionPoints() {
+        return this.injectionPoints;
+    }
+
+    /**
+     * 收集注入点（包括父类）
+     */
+    private static void collect(Class<?> clazz, List<InjectionPoint> points) {
+        for (Field f : clazz.getDeclaredFields()) {
+            InjectionPoint point = resolve(clazz, f);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+        for (Method m : clazz.getDeclaredMethods()) {
+            InjectionPoint point = resolve(clazz, m);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+        Class<?> superClazz = clazz.getSuperclass();
+        if (superClazz != null && superClazz != Object.class) {
+            collect(superClazz, points);
+        }
+    }
+
+    private static InjectionPoint resolve(Class<?> clazz, AccessibleObject acc) {
+        EValue value = acc.getAnnotation(EValue.class);
+        EImport eImport = acc.getAnnotation(EImport.class);
+        if (value == null && eImport == null) {
+            return null;
+        }
+
+        String name;
+        Class<?> type;
+        Type genericType;
+        BiConsumer<Object, Object> setter;
+        if (acc instanceof Field f) {
+            checkFieldOrMethod(f);
+            name = f.getName();
+            type = f.getType();
+            genericType = f.getGenericType();
+            setter = Invokers.setter(f);
+        } else {
+            Method m = (Method) acc;
+            checkFieldOrMethod(m);
+            if (m.getParameterCount() != 1) {
+                throw new RuntimeException(
+                        String.format("Cannot inject a non-setter method %s of class: %s", m.getName(), clazz.getName()));
+            }
+            name = m.getName();
+            type = m.getParameterTypes()[0];
+            genericType = m.getGenericParameterTypes()[0];
+            setter = Invokers.setter(m);
+        }
+
+        if (value != null && eImport != null) {
+            throw new RuntimeException(String.format("Cannot specify both @EValue and @EImport when inject %s.%s",
+                    clazz.getSimpleName(), name));
+        }
+        boolean deferred = eImport != null && LazyResolution.isDeferred(type, acc.getAnnotation(ELazy.class));
+        return new InjectionPoint(clazz, name, type, genericType, value, eImport, deferred, setter);
+    }
+
+    /**
+     * 检查字段或方法修饰符
+     */
+    private static void checkFieldOrMethod(Member m) {
+        int mod = m.getModifiers();
+        if (Modifier.isStatic(mod)) {
+            throw new RuntimeException("Cannot inject static field: " + m);
+        }
+        if (Modifier.isFinal(mod)) {
+            if (m instanceof Field field) {
+                throw new RuntimeException("Cannot inject final field: " + field);
+            }
+            // Final methods in proxies might be an issue, but warning is sufficient for now
+        }
+    }
+
+    /**
+     * 单个注入点
+     *
+     * @param declaringClass 声明字段或方法的类
+     * @param name 字段名或方法名
+     * @param type 注入类型
+     * @param genericType 注入的泛型类型，ObjectProvider 解析元素类型时使用
+     * @param value @EValue，没有时为 null
+     * @param eImport @EImport，没有时为 null
+     * @param deferred 是否注入延迟获取的提供者 / 代理（ObjectProvider 或 @ELazy）
+     * @param setter 写入字段或调用 setter 的调用器
+     */
+    record InjectionPoint(Class<?> declaringClass, String name, Class<?> type, Type genericType,
+                          EValue value, EImport eImport, boolean deferred, BiConsumer<Object, Object> setter) {
+    }
+}
@@ -0,0 +1,224 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 生成的调用器
+ * <p>
+ * 把构造方法、工厂方法、注入字段 / setter、生命周期方法转换成统一签名的调用器，
+ * 由 BeanDefinition 缓存后反复使用，替代每次调用都要做访问检查、参数校验的 Constructor.newInstance / Method.invoke / Field.set。
+ * 单参数的 setter 和无参生命周期方法通过 LambdaMetafactory 生成类，构造方法、工厂方法（参数个数不定）和字段使用 MethodHandle。
+ * 调用器按成员缓存在声明类上，重启后的容器或同一个类的多个 BeanDefinition 共享同一个调用器，不会重复生成类。
+ */
+final class Invokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // (Object[])Object
+    static final MethodType CREATOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    // (Object, Object[])Object
+    static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    // (Object)void
+    static final MethodType LIFECYCLE_TYPE = MethodType.methodType(void.class, Object.class);
+    // (Object, Object)void
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final Cache<MethodHandle> CREATORS = new Cache<>();
+    private static final Cache<MethodHandle> FACTORIES = new Cache<>();
+    private static final Cache<Consumer<Object>> LIFECYCLES = new Cache<>();
+    private static final Cache<BiConsumer<Object, Object>> FIELD_SETTERS = new Cache<>();
+    private static final Cache<BiConsumer<Object, Object>> METHOD_SETTERS = new Cache<>();
+
+    private Invokers() {
+    }
+
+    /**
+     * 构造方法 -> (Object[] args)Object
+     */
+    static MethodHandle creator(Constructor<?> constructor) {
+        return CREATORS.get(constructor, Invokers::createCreator);
+    }
+
+    private static MethodHandle createCreator(Constructor<?> constructor) {
+        try {
+            constructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(CREATOR_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access constructor: " + constructor, e);
+        }
+    }
+
+    /**
+     * 工厂方法 -> (Object factoryBean, Object[] args)Object
+     */
+    static MethodHandle factory(Method method) {
+        return FACTORIES.get(method, Invokers::createFactory);
+    }
+
+    private static MethodHandle createFactory(Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                // 静态工厂方法忽略工厂 Bean 参数，保持统一签名
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asSpreader(Object[].class, method.getParameterCount()).asType(FACTORY_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access factory method: " + method, e);
+        }
+    }
+
+    /**
+     * 无参的 init / destroy 方法 -> Consumer(bean)，返回值被丢弃
+     */
+    static Consumer<Object> lifecycle(Method method) {
+        return LIFECYCLES.get(method, Invokers::createLifecycle);
+    }
+
+    private static Consumer<Object> createLifecycle(Method method) {
+        // 生成的类实现的是 Consumer<Object>，只是 LambdaMetafactory 返回的类型不带泛型参数
+        @SuppressWarnings("unchecked")
+        Consumer<Object> generated = (Consumer<Object>) generate(method, Consumer.class, "accept", LIFECYCLE_TYPE);
+        if (generated != null) {
+            return generated;
+        }
+        MethodHandle handle = unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        MethodHandle invoker = handle.asType(LIFECYCLE_TYPE);
+        return bean -> {
+            try {
+                invoker.invokeExact(bean);
+            } catch (Throwable t) {
+                throw sneakyThrow(t);
+            }
+        };
+    }
+
+    /**
+     * 注入字段 -> BiConsumer(bean, value)
+     */
+    static BiConsumer<Object, Object> setter(Field field) {
+        return FIELD_SETTERS.get(field, Invokers::createSetter);
+    }
+
+    private static BiConsumer<Object, Object> createSetter(Field field) {
+        MethodHandle invoker;
+        try {
+            field.setAccessible(true);
+            invoker = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access field: " + field, e);
+        }
+        return (bean, value) -> {
+            try {
+                invoker.invokeExact(bean, value);
+            } catch (Throwable t) {
+                throw sneakyThrow(t);
+            }
+        };
+    }
+
+    /**
+     * 单参数的 setter 方法 -> BiConsumer(bean, value)，返回值被丢弃
+     */
+    static BiConsumer<Object, Object> setter(Method method) {
+        return METHOD_SETTERS.get(method, Invokers::createSetter);
+    }
+
+    private static BiConsumer<Object, Object> createSetter(Method method) {
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object> generated = (BiConsumer<Object, Object>) generate(method, BiConsumer.class, "accept", SETTER_TYPE);
+        if (generated != null) {
+            return generated;
+        }
+        MethodHandle invoker = unreflect(method).asType(SETTER_TYPE);
+        return (bean, value) -> {
+            try {
+                invoker.invokeExact(bean, value);
+            } catch (Throwable t) {
+                throw sneakyThrow(t);
+            }
+        };
+    }
+
+    /**
+     * 用 LambdaMetafactory 为实例方法生成实现了函数式接口的类，JIT 可以像普通调用一样内联；
+     * 方法所在类不允许深度反射（例如命名模块未 open）或方法签名无法适配时返回 null，由调用方退回 MethodHandle
+     */
+    private static Object generate(Method method, Class<?> functionalInterface, String name, MethodType erasedType) {
+        if (Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        CallSite site;
+        try {
+            Class<?> owner = method.getDeclaringClass();
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+            MethodHandle target = lookup.unreflect(method);
+            // 实际调用签名：(Owner, 参数包装类型...)void，基本类型参数在生成类里拆箱，返回值被丢弃
+            MethodType instantiated = MethodType.methodType(void.class, owner)
+                    .appendParameterTypes(method.getParameterTypes()).wrap().changeReturnType(void.class);
+            site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(functionalInterface),
+                    erasedType, target, instantiated);
+        } catch (IllegalAccessException | LambdaConversionException e) {
+            System.out.println("Cannot generate invoker for method " + method + ", using method handle instead: " + e.getMessage());
+            return null;
+        }
+        try {
+            return site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to instantiate generated invoker for method: " + method, e);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access method: " + method, e);
+        }
+    }
+
+    /**
+     * 原样抛出目标方法的异常（包括受检异常），与 Method.invoke 不同，不包装成 InvocationTargetException
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(Throwable t) throws E {
+        throw (E) t;
+    }
+
+    /**
+     * 按声明类保存的调用器缓存，类被卸载时缓存随 ClassValue 一起释放，不会因为缓存导致类加载器泄漏
+     */
+    private static final class Cache<T> extends ClassValue<Map<Member, T>> {
+
+        @Override
+        protected Map<Member, T> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+
+        <M extends Member> T get(M member, Function<M, T> factory) {
+            return get(member.getDeclaringClass()).computeIfAbsent(member, key -> factory.apply(member));
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 只读的 jar（zip）归档
+ * <p>
+ * 打开时只读取一次文件尾部的中央目录（central directory），得到按名称排序的条目列表，
+ * 按包前缀过滤时通过二分查找定位，不会解压任何条目。条目列表只属于当前归档实例，关闭后即可回收，不做全局缓存。
+ * 嵌套 jar（fat jar 中的 lib/*.jar）如果是 STORED 方式存储，直接在外层文件上按偏移读取，不会解压到磁盘；
+ * 如果是压缩存储，则在内存中解压后读取。
+ */
+public class JarArchive implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final Comparator<Entry> NAME_ORDER = Comparator.comparing(Entry::name);
+
+    /**
+     * 中央目录中的一个条目
+     * @param name 条目名称，如 net/evelan/Foo.class
+     * @param method 压缩方式
+     * @param compressedSize 压缩后大小
+     * @param size 原始大小
+     * @param localHeaderOffset 本地文件头相对归档起始位置的偏移
+     */
+    public record Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    private final FileChannel channel;
+    // 当前归档在 channel 中的起始位置和长度，嵌套 jar 时为外层文件中的一段区域
+    private final long base;
+    private final long length;
+    // 压缩存储的嵌套 jar 解压后的内容，此时不使用 channel
+    private final ByteBuffer memory;
+    // 归档路径（嵌套 jar 为 外层路径!/条目名称），用于错误信息
+    private final String path;
+    private final List<Entry> entries;
+
+    private JarArchive(FileChannel channel, long base, long length, ByteBuffer memory, String path) throws IOException {
+        this.channel = channel;
+        this.base = base;
+        this.length = length;
+        this.memory = memory;
+        this.path = path;
+        this.entries = readCentralDirectory();
+    }
+
+    /**
+     * 打开磁盘上的 jar 文件
+     * @param file jar 文件
+     * @return 归档，使用完毕后需要关闭
+     */
+    public static JarArchive open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new JarArchive(channel, 0, channel.size(), null, file.getAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开当前归档中的嵌套 jar，与外层共享同一个文件句柄，关闭外层归档即可
+     * @param entry 嵌套 jar 条目
+     * @return 嵌套归档
+     */
+    public JarArchive openNested(Entry entry) throws IOException {
+        String nestedPath = this.path + "!/" + entry.name();
+        if (entry.method() == STORED && this.memory == null) {
+            return new JarArchive(this.channel, this.base + dataOffset(entry), entry.size(), null, nestedPath);
+        }
+        return new JarArchive(null, 0, entry.size(), ByteBuffer.wrap(read(entry)), nestedPath);
+    }
+
+    /**
+     * 获取条目
+     * @param name 条目名称
+     * @return 条目，不存在时返回 null
+     */
+    public Entry getEntry(String name) {
+        int index = Collections.binarySearch(entries, new Entry(name, 0, 0, 0, 0), NAME_ORDER);
+        return index >= 0 ? entries.get(index) : null;
+    }
+
+    /**
+     * 按前缀查找条目，只在排序后的条目列表上做二分查找，不会读取或解压条目内容
+     * @param prefix 名称前缀，如 net/evelan/
+     * @return 名称以 prefix 开头的条目（保持名称顺序）
+     */
+    public List<Entry> entriesWithPrefix(String prefix) {
+        int index = Collections.binarySearch(entries, new Entry(prefix, 0, 0, 0, 0), NAME_ORDER);
+        int from = index >= 0 ? index : -index - 1;
+        int to = from;
+        while (to < entries.size() && entries.get(to).name().startsWith(prefix)) {
+            to++;
+        }
+        return entries.subList(from, to);
+    }
+
+    /**
+     * 读取条目的原始内容（按需解压）
+     * @param entry 条目
+     * @return 条目内容
+     */
+    public byte[] read(Entry entry) throws IOException {
+        ByteBuffer compressed = readFully(dataOffset(entry), (int) entry.compressedSize());
+        if (entry.method() == STORED) {
+            return compressed.array();
+        }
+        if (entry.method() != DEFLATED) {
+            throw new IOException("Unsupported compression method " + entry.method() + " for entry: " + entry.name());
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed.array());
+            byte[] data = new byte[(int) entry.size()];
+            int n = 0;
+            while (n < data.length && !inflater.finished()) {
+                int count = inflater.inflate(data, n, data.length - n);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += count;
+            }
+            if (n != data.length) {
+                throw new IOException("Truncated entry: " + entry.name());
+            }
+            return data;
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid deflate data in entry: " + entry.name(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private long dataOffset(Entry entry) throws IOException {
+        ByteBuffer header = readFully(entry.localHeaderOffset(), 30);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid local header for entry: " + entry.name());
+        }
+        return entry.localHeaderOffset() + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+    }
+
+    /**
+     * 从归档尾部定位 End Of Central Directory，然后一次性读取整个中央目录
+     */
+    private List<Entry> readCentralDirectory() throws IOException {
+        int tailSize = (int) Math.min(length, END_SIZE + MAX_COMMENT_SIZE);
+        long tailStart = length - tailSize;
+        ByteBuffer tail = readFully(tailStart, tailSize);
+        int endPos = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                endPos = i;
+                break;
+            }
+        }
+        if (endPos < 0) {
+            throw new IOException("End of central directory not found: " + path);
+        }
+
+        long total = tail.getShort(endPos + 10) & 0xFFFF;
+        long cdSize = tail.getInt(endPos + 12) & 0xFFFFFFFFL;
+        long cdOffset = tail.getInt(endPos + 16) & 0xFFFFFFFFL;
+        long endOffset = tailStart + endPos;
+        if (endPos >= 20 && tail.getInt(endPos - 20) == ZIP64_LOCATOR_SIGNATURE) {
+            ByteBuffer zip64End = readFully(tail.getLong(endPos - 20 + 8), 56);
+            total = zip64End.getLong(32);
+            cdSize = zip64End.getLong(40);
+            cdOffset = zip64End.getLong(48);
+            endOffset = tail.getLong(endPos - 20 + 8);
+        }
+        // 可执行 jar 可能在 zip 数据前附加了启动脚本，所有偏移都需要加上这段前缀的长度
+        long prefix = endOffset - cdSize - cdOffset;
+
+        ByteBuffer cd = readFully(cdOffset + prefix, (int) cdSize);
+        List<Entry> result = new ArrayList<>((int) total);
+        int pos = 0;
+        while (pos + 46 <= cd.limit() && cd.getInt(pos) == CENTRAL_HEADER_SIGNATURE) {
+            int method = cd.getShort(pos + 10) & 0xFFFF;
+            long compressedSize = cd.getInt(pos + 20) & 0xFFFFFFFFL;
+            long size = cd.getInt(pos + 24) & 0xFFFFFFFFL;
+            int nameLength = cd.getShort(pos + 28) & 0xFFFF;
+            int extraLength = cd.getShort(pos + 30) & 0xFFFF;
+            int commentLength = cd.getShort(pos + 32) & 0xFFFF;
+            long localHeaderOffset = cd.getInt(pos + 42) & 0xFFFFFFFFL;
+            String name = new String(cd.array(), pos + 46, nameLength, StandardCharsets.UTF_8);
+
+            // Zip64 扩展字段：只有值为 0xFFFFFFFF 的字段才会出现在扩展字段中，且顺序固定
+            int extra = pos + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = cd.getShort(extra) & 0xFFFF;
+                int dataSize = cd.getShort(extra + 2) & 0xFFFF;
+                if (id == 0x0001) {
+                    int p = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = cd.getLong(p);
+                        p += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = cd.getLong(p);
+                        p += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL) {
+                        localHeaderOffset = cd.getLong(p);
+                    }
+                    break;
+                }
+                extra += 4 + dataSize;
+            }
+
+            result.add(new Entry(name, method, compressedSize, size, localHeaderOffset + prefix));
+            pos += 46 + nameLength + extraLength + commentLength;
+        }
+        result.sort(NAME_ORDER);
+        return Collections.unmodifiableList(result);
+    }
+
+    private ByteBuffer readFully(long position, int size) throws IOException {
+        if (position < 0 || position + size > length) {
+            throw new IOException("Read out of range in archive: " + path);
+        }
+        byte[] data = new byte[size];
+        if (memory != null) {
+            memory.get((int) position, data);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, base + position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of archive: " + path);
+                }
+            }
+        }
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,129 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.lifecycle.ELazy;
+import net.evelan.frp.bootstrap.core.core.ObjectProvider;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+
+/**
+ * 延迟注入点的解析
+ * <p>
+ * 注入点类型为 ObjectProvider 时注入提供者；注入点标记了 @ELazy 时注入接口代理。
+ * 两者都不会在注入时创建目标 Bean，目标 Bean 第一次被使用时才通过容器获取。
+ */
+class LazyResolution {
+
+    /**
+     * 注入点是否需要延迟解析
+     * @param type 注入点声明的类型
+     * @param lazy 注入点上的 @ELazy，可为 null
+     */
+    static boolean isDeferred(Class<?> type, ELazy lazy) {
+        return type == ObjectProvider.class || (lazy != null && lazy.value());
+    }
+
+    /**
+     * 创建延迟注入的对象
+     * @param context 容器
+     * @param type 注入点声明的类型
+     * @param genericType 注入点的泛型类型，用于解析 ObjectProvider&lt;T&gt; 中的 T
+     * @param name 按名称注入时的 Bean 名称，为空时按类型注入
+     * @param required 是否必须存在
+     * @param description 注入点描述，用于报错
+     * @return ObjectProvider 或接口代理
+     */
+    static Object resolve(EvelanConfigApplicationContext context, Class<?> type, Type genericType, String name, boolean required, String description) {
+        if (type == ObjectProvider.class) {
+            return new BeanProvider<>(context, providedType(genericType, description), name);
+        }
+        if (!type.isInterface()) {
+            throw new RuntimeException("@ELazy injection point must be an interface or ObjectProvider: " + description);
+        }
+        BeanProvider<?> provider = new BeanProvider<>(context, type, name);
+        if (required && !provider.isDefined()) {
+            throw new RuntimeException("Dependency bean not found for lazy injection point: " + description);
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Lazy proxy for " + type.getName();
+                    default:
+                        break;
+                }
+            }
+            try {
+                return method.invoke(provider.getObject(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static Class<?> providedType(Type genericType, String description) {
+        if (genericType instanceof ParameterizedType pt) {
+            Type arg = pt.getActualTypeArguments()[0];
+            if (arg instanceof Class<?> c) {
+                return c;
+            }
+            if (arg instanceof ParameterizedType argType && argType.getRawType() instanceof Class<?> c) {
+                return c;
+            }
+        }
+        throw new RuntimeException("Cannot resolve bean type of ObjectProvider injection point: " + description);
+    }
+
+    /**
+     * 从容器获取 Bean 的提供者，singleton 第一次获取后缓存结果
+     */
+    private static class BeanProvider<T> implements ObjectProvider<T> {
+        private final EvelanConfigApplicationContext context;
+        private final Class<T> type;
+        private final String name;
+        private volatile T object;
+
+        BeanProvider(EvelanConfigApplicationContext context, Class<T> type, String name) {
+            this.context = context;
+            this.type = type;
+            this.name = name;
+        }
+
+        private boolean isSingleton() {
+            BeanDefinition def = name.isEmpty() ? context.findBeanDefinition(type) : context.findBeanDefinition(name, type);
+            return def == null || def.isSingleton();
+        }
+
+        boolean isDefined() {
+            return name.isEmpty() ? context.findBeanDefinition(type) != null : context.findBeanDefinition(name, type) != null;
+        }
+
+        @Override
+        public T getObject() {
+            T result = getIfAvailable();
+            if (result == null) {
+                throw new RuntimeException(String.format("No bean defined with type '%s'%s.", type.getName(), name.isEmpty() ? "" : " and name '" + name + "'"));
+            }
+            return result;
+        }
+
+        @Override
+        public T getIfAvailable() {
+            T result = this.object;
+            if (result == null) {
+                result = name.isEmpty() ? context.findBean(type) : context.findBean(name, type);
+                // 非 singleton 作用域每次都按作用域重新获取（prototype 新建、thread 取当前线程的实例），不缓存
+                if (result != null && isSingleton()) {
+                    this.object = result;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 基于依赖图的并行 Bean 加载器
+ * <p>
+ * 在有界线程池上分三个阶段执行：
+ * <ol>
+ *     <li>创建：按创建依赖（构造 / 工厂方法参数、工厂方法所属配置类）拓扑调度，依赖都创建完成后才创建当前 Bean，创建依赖成环时报错</li>
+ *     <li>注入：所有实例都已存在，每个 Bean 只写自己的字段，全部并行</li>
+ *     <li>初始化：按全部依赖的强连通分量拓扑调度，依赖先初始化；互相注入成环的 Bean 在同一分量内按顺序初始化</li>
+ * </ol>
+ * 某个 Bean 失败后，直接或间接依赖它的 Bean 不再执行，其余 Bean 照常执行完当前阶段。哪些 Bean 会执行只取决于依赖关系，
+ * 阶段结束后按 Bean 排序取第一个失败作为异常抛出，其余失败作为 suppressed 附加，因此报错结果与线程调度无关。
+ */
+class ParallelBeanLoader {
+
+    private final EvelanConfigApplicationContext context;
+    private final int threads;
+
+    ParallelBeanLoader(EvelanConfigApplicationContext context, int threads) {
+        this.context = context;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * 创建、注入并初始化 Bean
+     * @param defs 需要加载的 Bean（不包括已经加载完成的 BeanPostProcessor）
+     * @param creator 创建单个 Bean
+     * @param injector 注入单个 Bean
+     * @param initializer 初始化单个 Bean
+     */
+    void load(Collection<BeanDefinition> defs, Consumer<BeanDefinition> creator, Consumer<BeanDefinition> injector, Consumer<BeanDefinition> initializer) {
+        List<BeanDefinition> sorted = defs.stream().sorted().toList();
+        BeanDependencyGraph graph = new BeanDependencyGraph(context, sorted);
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "evelan-bean-loader-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            // 与启动线程使用同一个类加载器，保证 Bean 中按上下文类加载器加载资源的行为一致
+            t.setContextClassLoader(Thread.currentThread().getContextClassLoader());
+            return t;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads, factory);
+        try {
+            List<BeanDefinition> toCreate = sorted.stream().filter(def -> def.getInstance() == null).toList();
+            checkCreateCycles(toCreate, graph);
+            execute(executor, "create", toCreate, def -> List.of(def), graph::getCreateDependencies, creator);
+
+            execute(executor, "inject", sorted, def -> List.of(def), def -> List.of(), injector);
+
+            List<List<BeanDefinition>> components = graph.stronglyConnectedComponents(sorted, graph::getAllDependencies);
+            Map<BeanDefinition, List<BeanDefinition>> componentOf = new HashMap<>();
+            components.forEach(c -> c.forEach(def -> componentOf.put(def, c)));
+            execute(executor, "init", components, c -> c,
+                    c -> c.stream()
+                            .flatMap(def -> graph.getAllDependencies(def).stream())
+                            .map(componentOf::get)
+                            .filter(dep -> dep != null && dep != c)
+                            .distinct()
+                            .toList(),
+                    c -> c.forEach(initializer));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 创建依赖成环时，按排序后的第一个成环 Bean 报错，与串行创建的提示保持一致
+     */
+    private void checkCreateCycles(List<BeanDefinition> defs, BeanDependencyGraph graph) {
+        for (List<BeanDefinition> component : graph.stronglyConnectedComponents(defs, graph::getCreateDependencies)) {
+            if (component.size() > 1 || graph.getCreateDependencies(component.get(0)).contains(component.get(0))) {
+                List<String> names = component.stream().map(BeanDefinition::getName).toList();
+                throw new RuntimeException(String.format("Circular dependency detected when create bean '%s': %s", names.get(0), names));
+            }
+        }
+    }
+
+    /**
+     * 按依赖关系调度任务
+     * @param executor 线程池
+     * @param phase 阶段名称，用于报错
+     * @param nodes 节点，已排序
+     * @param members 节点包含的 Bean，用于报错时定位
+     * @param dependencies 节点依赖的其他节点（不在 nodes 中的依赖视为已完成）
+     * @param action 节点任务
+     */
+    private <T> void execute(ExecutorService executor, String phase, List<T> nodes, Function<T, List<BeanDefinition>> members,
+                             Function<T, Collection<T>> dependencies, Consumer<T> action) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        Map<T, Integer> positions = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            positions.put(nodes.get(i), i);
+        }
+        int[] pending = new int[nodes.size()];
+        List<List<Integer>> dependents = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            for (T dep : dependencies.apply(nodes.get(i))) {
+                Integer j = positions.get(dep);
+                if (j != null && j != i) {
+                    pending[i]++;
+                    dependents.get(j).add(i);
+                }
+            }
+        }
+
+        Scheduler<T> scheduler = new Scheduler<>(executor, nodes, pending, dependents, action);
+        scheduler.start();
+        Map<Integer, Throwable> failures = scheduler.await();
+        if (!failures.isEmpty()) {
+            Map.Entry<Integer, Throwable> first = failures.entrySet().iterator().next();
+            String beanName = members.apply(nodes.get(first.getKey())).get(0).getName();
+            RuntimeException e = new RuntimeException(String.format("Failed to %s bean '%s' in parallel mode.", phase, beanName), first.getValue());
+            failures.values().stream().skip(1).forEach(e::addSuppressed);
+            throw e;
+        }
+    }
+
+    /**
+     * 拓扑调度器：依赖计数归零的节点提交到线程池，成功后递减后继节点的计数；失败节点的后继节点计数不会归零，不会执行
+     */
+    private static class Scheduler<T> {
+        private final ExecutorService executor;
+        private final List<T> nodes;
+        private final int[] pending;
+        private final List<List<Integer>> dependents;
+        private final Consumer<T> action;
+        // 失败的节点 { 节点位置 : 异常 }，按位置排序保证报错顺序稳定
+        private final Map<Integer, Throwable> failures = new TreeMap<>();
+        private int running = 0;
+
+        Scheduler(ExecutorService executor, List<T> nodes, int[] pending, List<List<Integer>> dependents, Consumer<T> action) {
+            this.executor = executor;
+            this.nodes = nodes;
+            this.pending = pending;
+            this.dependents = dependents;
+            this.action = action;
+        }
+
+        synchronized void start() {
+            for (int i = 0; i < nodes.size(); i++) {
+                if (pending[i] == 0) {
+                    submit(i);
+                }
+            }
+        }
+
+        synchronized Map<Integer, Throwable> await() {
+            while (running > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while loading beans in parallel.", e);
+                }
+            }
+            return failures;
+        }
+
+        // 调用方持有锁
+        private void submit(int i) {
+            running++;
+            executor.execute(() -> {
+                Throwable failure = null;
+                try {
+                    action.accept(nodes.get(i));
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                complete(i, failure);
+            });
+        }
+
+        private synchronized void complete(int i, Throwable failure) {
+            running--;
+            if (failure != null) {
+                failures.put(i, failure);
+            } else {
+                for (int next : dependents.get(i)) {
+                    if (--pending[next] == 0) {
+                        submit(next);
+                    }
+                }
+            }
+            notifyAll();
+        }
+    }
+}
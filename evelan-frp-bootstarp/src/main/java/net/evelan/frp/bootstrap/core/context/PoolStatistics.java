@@ -0,0 +1,25 @@
+package net.evelan.frp.bootstrap.core.context;
+
+/**
+ * pooled 作用域 Bean 的对象池统计
+ *
+ * @param borrows 借出次数
+ * @param hits 直接从池中取到空闲实例的次数
+ * @param misses 池为空、新建实例的次数
+ * @param releases 归还次数
+ * @param discarded 归还时池已满、被销毁的实例数
+ * @param idle 当前池中的空闲实例数
+ * @param totalBorrowNanos 借出累计耗时（包括未命中时创建实例的时间）
+ * @param maxBorrowNanos 单次借出的最大耗时
+ */
+public record PoolStatistics(long borrows, long hits, long misses, long releases, long discarded, int idle,
+                             long totalBorrowNanos, long maxBorrowNanos) {
+
+    public double hitRate() {
+        return this.borrows == 0 ? 0 : (double) this.hits / this.borrows;
+    }
+
+    public long averageBorrowNanos() {
+        return this.borrows == 0 ? 0 : this.totalBorrowNanos / this.borrows;
+    }
+}
@@ -0,0 +1,15 @@
+package net.evelan.frp.bootstrap.core.context;
+
+/**
+ * 类路径扫描模式
+ */
+public enum ScanMode {
+    /**
+     * 单线程递归遍历目录（默认）
+     */
+    SERIAL,
+    /**
+     * 基于 ForkJoinPool 按类路径根目录和子目录拆分任务并行扫描，结果按名称排序后合并，顺序稳定
+     */
+    PARALLEL
+}
@@ -0,0 +1,305 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * 容器启动耗时记录
+ * <p>
+ * 记录 refresh 各阶段（扫描、BeanPostProcessor 注册、配置类创建、普通 Bean 创建、注入、初始化）和每个 Bean 的创建、注入、初始化耗时（纳秒），
+ * 以及通过调用器发生的反射调用次数。嵌套的步骤（如构造器依赖触发的创建）各自记录，Bean 的耗时是扣除嵌套步骤之后的自身耗时。
+ * 只记录到容器刷新完成，之后创建的作用域 Bean 不再记录。可以通过 {@link #toChromeTrace()} 导出为 Chrome trace-event JSON，
+ * 在 chrome://tracing 或 Perfetto 中查看。
+ */
+public final class StartupProfile {
+
+    /**
+     * 启动阶段
+     * @param name 阶段名称
+     * @param startNanos 相对于记录开始的时间
+     * @param durationNanos 耗时
+     * @param thread 执行的线程
+     */
+    public record Phase(String name, long startNanos, long durationNanos, String thread) {
+    }
+
+    /**
+     * 单个 Bean 的耗时，都是扣除嵌套步骤（如创建过程中创建的依赖）之后的自身耗时；作用域 Bean 在启动过程中创建多次时累加
+     * @param name Bean 名称
+     * @param createNanos 构造方法 / 工厂方法（包括参数解析）
+     * @param injectNanos 字段 / setter 注入
+     * @param initNanos 初始化（@EPostConstruct 和 BeanPostProcessor 的初始化回调）
+     * @param reflectiveCalls 通过调用器的反射调用次数（构造方法 / 工厂方法、注入字段 / setter、init 方法）
+     */
+    public record BeanTiming(String name, long createNanos, long injectNanos, long initNanos, int reflectiveCalls) {
+
+        public long totalNanos() {
+            return this.createNanos + this.injectNanos + this.initNanos;
+        }
+    }
+
+    static final String CREATE = "create";
+    static final String INJECT = "inject";
+    static final String INIT = "init";
+
+    private static final Step NO_STEP = new Step(null, null, null, 0, null);
+
+    private final long origin = System.nanoTime();
+    private final ConcurrentLinkedQueue<Step> steps = new ConcurrentLinkedQueue<>();
+    // 当前线程正在执行的最内层步骤，嵌套步骤的耗时从外层步骤的自身耗时中扣除
+    private final ThreadLocal<Step> current = new ThreadLocal<>();
+    private volatile long finishedNanos = -1;
+
+    /**
+     * 执行并记录一个阶段
+     */
+    void phase(String name, Runnable action) {
+        Step step = start(null, name);
+        try {
+            action.run();
+        } finally {
+            step.close();
+        }
+    }
+
+    /**
+     * 执行并记录一个有返回值的阶段
+     */
+    <T> T time(String name, Supplier<T> action) {
+        Step step = start(null, name);
+        try {
+            return action.get();
+        } finally {
+            step.close();
+        }
+    }
+
+    /**
+     * 执行并记录一个 Bean 的创建 / 注入 / 初始化步骤
+     */
+    <T> T time(String kind, String beanName, Supplier<T> action) {
+        Step step = start(kind, beanName);
+        try {
+            return action.get();
+        } finally {
+            step.close();
+        }
+    }
+
+    private Step start(String kind, String name) {
+        if (this.finishedNanos >= 0) {
+            return NO_STEP;
+        }
+        Step step = new Step(this, kind, name, System.nanoTime(), this.current.get());
+        this.current.set(step);
+        return step;
+    }
+
+    /**
+     * 记录一次通过调用器的反射调用，计入当前线程正在执行的 Bean 步骤
+     */
+    void countReflectiveCall() {
+        Step step = this.current.get();
+        if (step != null) {
+            step.reflectiveCalls++;
+        }
+    }
+
+    /**
+     * 容器刷新完成，之后不再记录
+     */
+    void finish() {
+        if (this.finishedNanos < 0) {
+            this.finishedNanos = System.nanoTime() - this.origin;
+        }
+    }
+
+    /**
+     * 从开始记录到容器刷新完成的总耗时，尚未完成时返回 -1
+     */
+    public long getTotalNanos() {
+        return this.finishedNanos;
+    }
+
+    public List<Phase> getPhases() {
+        List<Phase> phases = new ArrayList<>();
+        for (Step step : this.steps) {
+            if (step.kind == null) {
+                phases.add(new Phase(step.name, step.start - this.origin, step.duration, step.thread));
+            }
+        }
+        phases.sort(Comparator.comparingLong(Phase::startNanos));
+        return phases;
+    }
+
+    /**
+     * 按第一次开始创建的顺序返回每个 Bean 的耗时
+     */
+    public List<BeanTiming> getBeanTimings() {
+        List<Step> sorted = new ArrayList<>();
+        for (Step step : this.steps) {
+            if (step.kind != null) {
+                sorted.add(step);
+            }
+        }
+        sorted.sort(Comparator.comparingLong(step -> step.start));
+        Map<String, long[]> timings = new LinkedHashMap<>();
+        for (Step step : sorted) {
+            // { create, inject, init, reflectiveCalls }
+            long[] t = timings.computeIfAbsent(step.name, name -> new long[4]);
+            long self = step.duration - step.childNanos;
+            switch (step.kind) {
+                case CREATE -> t[0] += self;
+                case INJECT -> t[1] += self;
+                default -> t[2] += self;
+            }
+            t[3] += step.reflectiveCalls;
+        }
+        List<BeanTiming> result = new ArrayList<>(timings.size());
+        timings.forEach((name, t) -> result.add(new BeanTiming(name, t[0], t[1], t[2], (int) t[3])));
+        return result;
+    }
+
+    /**
+     * 总耗时最长的 Bean
+     * @param limit 最多返回的个数
+     */
+    public List<BeanTiming> getSlowestBeans(int limit) {
+        return getBeanTimings().stream()
+                .sorted(Comparator.comparingLong(BeanTiming::totalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public long getReflectiveCalls() {
+        long calls = 0;
+        for (Step step : this.steps) {
+            calls += step.reflectiveCalls;
+        }
+        return calls;
+    }
+
+    /**
+     * 导出为 Chrome trace-event JSON（每个步骤是一个 "X" 事件，时间单位为微秒）
+     */
+    public String toChromeTrace() {
+        StringBuilder sb = new StringBuilder(256 + this.steps.size() * 160);
+        sb.append("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        Map<Long, String> threads = new LinkedHashMap<>();
+        boolean first = true;
+        for (Step step : this.steps) {
+            threads.putIfAbsent(step.threadId, step.thread);
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("\n{\"name\":");
+            appendString(sb, step.kind == null ? step.name : step.kind + " " + step.name);
+            sb.append(",\"cat\":\"").append(step.kind == null ? "phase" : "bean").append('"');
+            sb.append(",\"ph\":\"X\",\"pid\":1,\"tid\":").append(step.threadId);
+            sb.append(",\"ts\":").append(micros(step.start - this.origin));
+            sb.append(",\"dur\":").append(micros(step.duration));
+            if (step.kind != null) {
+                sb.append(",\"args\":{\"bean\":");
+                appendString(sb, step.name);
+                sb.append(",\"selfMicros\":").append(micros(step.duration - step.childNanos));
+                sb.append(",\"reflectiveCalls\":").append(step.reflectiveCalls).append('}');
+            }
+            sb.append('}');
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            sb.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(thread.getKey()).append(",\"args\":{\"name\":");
+            appendString(sb, thread.getValue());
+            sb.append("}}");
+        }
+        return sb.append("\n]}\n").toString();
+    }
+
+    public void writeChromeTrace(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, toChromeTrace(), StandardCharsets.UTF_8);
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%d.%03d", nanos / 1000, nanos % 1000);
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * 一个正在执行或已经结束的步骤，kind 为 null 时是阶段
+     */
+    static final class Step {
+
+        private final StartupProfile profile;
+        private final String kind;
+        private final String name;
+        private final long start;
+        private final Step parent;
+        private final String thread;
+        private final long threadId;
+        private long duration;
+        private long childNanos;
+        private int reflectiveCalls;
+
+        private Step(StartupProfile profile, String kind, String name, long start, Step parent) {
+            this.profile = profile;
+            this.kind = kind;
+            this.name = name;
+            this.start = start;
+            this.parent = parent;
+            Thread t = Thread.currentThread();
+            this.thread = t.getName();
+            this.threadId = t.getId();
+        }
+
+        /**
+         * 结束步骤，只能在开始步骤的线程上调用
+         */
+        void close() {
+            if (this.profile == null) {
+                return;
+            }
+            this.duration = System.nanoTime() - this.start;
+            if (this.parent != null) {
+                this.parent.childNanos += this.duration;
+            }
+            this.profile.current.set(this.parent);
+            this.profile.steps.add(this);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package net.evelan.frp.bootstrap.core.core;
+
+/**
+ * 延迟获取 Bean 的提供者
+ * <p>
+ * 以 ObjectProvider&lt;T&gt; 类型声明 @EImport 注入点时，容器注入的是提供者而不是 Bean 本身，
+ * 只有调用 getObject / getIfAvailable 时才会查找（必要时创建）目标 Bean。
+ */
+public interface ObjectProvider<T> {
+
+    // 获取 Bean，不存在时抛出异常
+    T getObject();
+
+    // 获取 Bean，不存在时返回 null
+    T getIfAvailable();
+}
@@ -0,0 +1,64 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.util.Locale;
+
+/**
+ * 数据大小，配置中写作 64KB、8MB、512B 或纯数字（字节），单位按 1024 进制，不区分大小写，KB / K 等价
+ *
+ * @param bytes 字节数
+ */
+public record DataSize(long bytes) {
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, 1024L));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, 1024L * 1024));
+    }
+
+    public static DataSize parse(String text) {
+        String value = text.trim();
+        int unitStart = 0;
+        while (unitStart < value.length() && (Character.isDigit(value.charAt(unitStart)) || (unitStart == 0 && value.charAt(0) == '-'))) {
+            unitStart++;
+        }
+        if (unitStart == 0 || (unitStart == 1 && value.charAt(0) == '-')) {
+            throw new IllegalArgumentException("Invalid data size: " + text);
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        long multiplier = switch (value.substring(unitStart).trim().toUpperCase(Locale.ROOT)) {
+            case "", "B" -> 1L;
+            case "K", "KB" -> 1024L;
+            case "M", "MB" -> 1024L * 1024;
+            case "G", "GB" -> 1024L * 1024 * 1024;
+            case "T", "TB" -> 1024L * 1024 * 1024 * 1024;
+            default -> throw new IllegalArgumentException("Invalid data size unit: " + text);
+        };
+        return new DataSize(Math.multiplyExact(amount, multiplier));
+    }
+
+    public long toKilobytes() {
+        return this.bytes / 1024;
+    }
+
+    public long toMegabytes() {
+        return this.bytes / (1024 * 1024);
+    }
+
+    /**
+     * 转换成 int，用于缓冲区大小等参数，超出范围时抛出异常
+     */
+    public int toIntBytes() {
+        return Math.toIntExact(this.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return this.bytes + "B";
+    }
+}
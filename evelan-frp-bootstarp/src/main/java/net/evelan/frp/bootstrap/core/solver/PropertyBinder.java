@@ -0,0 +1,265 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * 按类型把配置绑定成 Java 对象
+ * <p>
+ * 标量类型（有转换器的类型和枚举）直接转换；List / Set / 数组 来自逗号分隔的值或 key[0]、key[1]... 形式的下标 key；
+ * Map 来自 key.xxx 形式的 key；record 通过规范构造方法、普通类通过无参构造方法加非 final 字段绑定，嵌套对象递归绑定。
+ * 一个 PropertyBinder 只用于一次绑定，所有值都从同一个配置快照中读取；按前缀查找是快照中排好序的属性名上的一次范围查询。
+ */
+final class PropertyBinder {
+
+    private final PropertyResolver resolver;
+    private final PropertySnapshot snapshot;
+
+    PropertyBinder(PropertyResolver resolver, PropertySnapshot snapshot) {
+        this.resolver = resolver;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 绑定 key 对应的值
+     * @return 绑定结果，没有任何对应的配置时返回 null
+     */
+    Object bind(String key, Type type) {
+        Class<?> raw = rawClass(type);
+        if (this.resolver.isScalar(raw)) {
+            return bindScalar(key, raw);
+        }
+        if (raw.isArray()) {
+            List<Object> list = bindList(key, raw.getComponentType());
+            if (list == null) {
+                return null;
+            }
+            Object array = Array.newInstance(raw.getComponentType(), list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Array.set(array, i, list.get(i));
+            }
+            return array;
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            List<Object> list = bindList(key, typeArgument(type, 0));
+            if (list == null) {
+                return null;
+            }
+            return Set.class.isAssignableFrom(raw) ? Collections.unmodifiableSet(new LinkedHashSet<>(list)) : Collections.unmodifiableList(list);
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            return bindMap(key, typeArgument(type, 1));
+        }
+        if (raw.isPrimitive() || raw.getName().startsWith("java.") || !hasPrefix(key)) {
+            return null;
+        }
+        return bindObject(key, raw);
+    }
+
+    /**
+     * 创建对象并绑定 prefix 下的配置，没有任何配置时同样创建（字段保持默认值）
+     */
+    <T> T bindObject(String prefix, Class<T> type) {
+        try {
+            return type.isRecord() ? bindRecord(prefix, type) : bindBean(prefix, type);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(String.format("Failed to bind properties '%s' to %s", prefix, type.getName()), e);
+        }
+    }
+
+    private <T> T bindRecord(String prefix, Class<T> type) throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        Object[] args = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            Object value = bindMember(prefix, components[i].getName(), components[i].getGenericType());
+            // 缺少配置的基本类型使用默认值
+            args[i] = value != null || !parameterTypes[i].isPrimitive() ? value : Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+        }
+        Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        return constructor.newInstance(args);
+    }
+
+    private <T> T bindBean(String prefix, Class<T> type) throws ReflectiveOperationException {
+        Constructor<T> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        T bean = constructor.newInstance();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int mod = field.getModifiers();
+                if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || Modifier.isTransient(mod) || field.isSynthetic()) {
+                    continue;
+                }
+                Object value = bindMember(prefix, field.getName(), field.getGenericType());
+                // 没有配置时保留字段初始值
+                if (value != null) {
+                    field.setAccessible(true);
+                    field.set(bean, value);
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 按成员名绑定，先匹配原样的名称，再匹配短横线形式（maxFrameLength -> max-frame-length）
+     */
+    private Object bindMember(String prefix, String name, Type type) {
+        Object value = bind(join(prefix, name), type);
+        if (value == null) {
+            String dashed = dashed(name);
+            if (!dashed.equals(name)) {
+                value = bind(join(prefix, dashed), type);
+            }
+        }
+        return value;
+    }
+
+    private Object bindScalar(String key, Class<?> type) {
+        String value = this.resolver.getProperty(this.snapshot, key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return this.resolver.convert(type, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.format("Cannot convert property '%s' value '%s' to %s", key, value, type.getName()), e);
+        }
+    }
+
+    /**
+     * 标量元素可以写成逗号分隔的值；否则使用 key[0]、key[1]... 直到第一个不存在的下标
+     */
+    private List<Object> bindList(String key, Type elementType) {
+        Class<?> elementClass = rawClass(elementType);
+        if (this.resolver.isScalar(elementClass)) {
+            String value = this.resolver.getProperty(this.snapshot, key);
+            if (value != null) {
+                List<Object> list = new ArrayList<>();
+                for (String item : value.split(",")) {
+                    String trimmed = item.trim();
+                    if (!trimmed.isEmpty()) {
+                        list.add(bindScalarValue(key, trimmed, elementClass));
+                    }
+                }
+                return list;
+            }
+        }
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; ; i++) {
+            Object element = bind(key + "[" + i + "]", elementType);
+            if (element == null) {
+                break;
+            }
+            list.add(element);
+        }
+        return list.isEmpty() ? null : list;
+    }
+
+    private Object bindScalarValue(String key, String value, Class<?> type) {
+        try {
+            return this.resolver.convert(type, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.format("Cannot convert property '%s' value '%s' to %s", key, value, type.getName()), e);
+        }
+    }
+
+    /**
+     * 标量值的 Map 使用前缀之后的完整名称作为 key；对象值的 Map 按前缀之后的第一段分组
+     */
+    private Map<String, Object> bindMap(String key, Type valueType) {
+        boolean scalar = this.resolver.isScalar(rawClass(valueType));
+        String prefix = key + ".";
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String name : keysWithPrefix(key)) {
+            String rest = name.substring(prefix.length());
+            String entryKey = scalar ? rest : firstSegment(rest);
+            if (!map.containsKey(entryKey)) {
+                Object value = bind(prefix + entryKey, valueType);
+                if (value != null) {
+                    map.put(entryKey, value);
+                }
+            }
+        }
+        return map.isEmpty() ? null : Collections.unmodifiableMap(map);
+    }
+
+    private boolean hasPrefix(String key) {
+        return !keysWithPrefix(key).isEmpty();
+    }
+
+    /**
+     * 以 key. 或 key[ 开头的属性名
+     */
+    private SortedSet<String> keysWithPrefix(String key) {
+        NavigableSet<String> keys = this.snapshot.sortedNames();
+        // '.' 的下一个字符是 '/'，'[' 的下一个字符是 '\\'
+        SortedSet<String> dotted = keys.subSet(key + ".", key + "/");
+        SortedSet<String> indexed = keys.subSet(key + "[", key + "\\");
+        if (indexed.isEmpty()) {
+            return dotted;
+        }
+        SortedSet<String> all = new TreeSet<>(dotted);
+        all.addAll(indexed);
+        return all;
+    }
+
+    private static String firstSegment(String rest) {
+        for (int i = 0; i < rest.length(); i++) {
+            char c = rest.charAt(i);
+            if (c == '.' || c == '[') {
+                return rest.substring(0, i);
+            }
+        }
+        return rest;
+    }
+
+    private static String join(String prefix, String name) {
+        return prefix.isEmpty() ? name : prefix + "." + name;
+    }
+
+    static String dashed(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    sb.append('-');
+                }
+                sb.append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) {
+            return c;
+        }
+        if (type instanceof ParameterizedType p) {
+            return (Class<?>) p.getRawType();
+        }
+        if (type instanceof GenericArrayType a) {
+            return Array.newInstance(rawClass(a.getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType w) {
+            return rawClass(w.getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    /**
+     * 泛型参数，原始类型（如 List）的元素按 String 处理
+     */
+    static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType p && p.getActualTypeArguments().length > index) {
+            Type argument = p.getActualTypeArguments()[index];
+            return argument instanceof WildcardType w ? w.getUpperBounds()[0] : argument;
+        }
+        return String.class;
+    }
+}
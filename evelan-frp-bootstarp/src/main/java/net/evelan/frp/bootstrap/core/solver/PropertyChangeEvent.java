@@ -0,0 +1,96 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * 一次配置重新加载产生的变化
+ * <p>
+ * 变化的 key 包括新增、删除、值改变的 key，以及原始值没变但引用的占位符解析结果变了的 key。
+ * 旧值和新值分别从替换前后的配置快照中读取，按类型获取时同样使用 (key, 类型) 缓存。
+ */
+public final class PropertyChangeEvent {
+
+    private final PropertyResolver resolver;
+    private final PropertySnapshot oldSnapshot;
+    private final PropertySnapshot newSnapshot;
+    private final Set<String> changedKeys;
+
+    PropertyChangeEvent(PropertyResolver resolver, PropertySnapshot oldSnapshot, PropertySnapshot newSnapshot, Set<String> changedKeys) {
+        this.resolver = resolver;
+        this.oldSnapshot = oldSnapshot;
+        this.newSnapshot = newSnapshot;
+        this.changedKeys = changedKeys;
+    }
+
+    /**
+     * 变化的 key，按名称排序，不可修改
+     */
+    public Set<String> getChangedKeys() {
+        return this.changedKeys;
+    }
+
+    /**
+     * key 本身或以 key. / key[ 开头的任意配置是否变化
+     */
+    public boolean isChanged(String key) {
+        for (String changed : this.changedKeys) {
+            if (isUnder(changed, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getOldValue(String key) {
+        return this.resolver.getProperty(this.oldSnapshot, key);
+    }
+
+    public String getNewValue(String key) {
+        return this.resolver.getProperty(this.newSnapshot, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getOldValue(String key, Class<T> type) {
+        return (T) getOldValue(key, (Type) type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getNewValue(String key, Class<T> type) {
+        return (T) getNewValue(key, (Type) type);
+    }
+
+    public Object getOldValue(String key, Type type) {
+        return this.resolver.getProperty(this.oldSnapshot, key, type);
+    }
+
+    public Object getNewValue(String key, Type type) {
+        return this.resolver.getProperty(this.newSnapshot, key, type);
+    }
+
+    /**
+     * 新配置的版本号，每次产生变化的重新加载加 1
+     */
+    public long getVersion() {
+        return this.newSnapshot.version();
+    }
+
+    static boolean isUnder(String name, String key) {
+        if (key.isEmpty()) {
+            return true;
+        }
+        if (!name.startsWith(key)) {
+            return false;
+        }
+        if (name.length() == key.length()) {
+            return true;
+        }
+        char next = name.charAt(key.length());
+        return next == '.' || next == '[';
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyChangeEvent{version=" + getVersion() + ", changedKeys=" + this.changedKeys + "}";
+    }
+}
@@ -0,0 +1,14 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+/**
+ * 配置变化监听器
+ * <p>
+ * 通过 {@link PropertyResolver#addPropertyChangeListener(PropertyChangeListener)} 注册；
+ * 实现了该接口的单例 Bean 在容器刷新完成后自动注册，容器关闭时移除。
+ * 回调在重新加载配置的线程上按注册顺序执行，此时新的配置已经生效。
+ */
+@FunctionalInterface
+public interface PropertyChangeListener {
+
+    void onPropertyChange(PropertyChangeEvent event);
+}
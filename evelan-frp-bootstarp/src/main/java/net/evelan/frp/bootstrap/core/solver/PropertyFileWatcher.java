@@ -0,0 +1,140 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import net.evelan.frp.bootstrap.utils.YamlParseUtil;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 监听配置文件，文件变化后重新加载 PropertyResolver 中对应的配置来源
+ * <p>
+ * 使用 WatchService 监听文件所在目录（同时能覆盖编辑器先写临时文件再重命名的保存方式，以及之后才创建的 profile 配置文件），
+ * 收到事件后等待一小段时间合并连续的写入，再把这段时间内变化的文件一次性重新加载。
+ * 加载失败（如保存了一半的文件解析出错）时保留当前配置，等待下一次修改。
+ */
+final class PropertyFileWatcher implements AutoCloseable {
+
+    // 收到第一个事件后等待后续事件的时间
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final PropertyResolver resolver;
+    // { 文件 : 配置来源名称 }
+    private final Map<Path, String> files = new LinkedHashMap<>();
+    // 重新加载时使用和第一次加载相同的 profile
+    private final List<String> activeProfiles;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    PropertyFileWatcher(PropertyResolver resolver, Map<Path, String> files, List<String> activeProfiles) throws IOException {
+        this.resolver = resolver;
+        files.forEach((file, name) -> this.files.put(file.toAbsolutePath().normalize(), name));
+        this.activeProfiles = activeProfiles;
+        this.watchService = this.files.keySet().iterator().next().getFileSystem().newWatchService();
+        Set<Path> dirs = new HashSet<>();
+        for (Path file : this.files.keySet()) {
+            if (dirs.add(file.getParent())) {
+                file.getParent().register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+        this.thread = new Thread(this::run, "evelan-config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 从文件系统加载配置文件
+     */
+    static Map<String, String> load(Path file, List<String> activeProfiles) {
+        return YamlParseUtil.loadYamlProperties(file, activeProfiles);
+    }
+
+    /**
+     * 从类路径加载配置文件
+     */
+    static Map<String, String> load(String path, List<String> activeProfiles) {
+        return YamlParseUtil.loadYamlProperties(path, activeProfiles);
+    }
+
+    private void run() {
+        while (!this.closed) {
+            Set<Path> changed = new LinkedHashSet<>();
+            try {
+                collect(this.watchService.take(), changed);
+                if (changed.isEmpty()) {
+                    continue;
+                }
+                Thread.sleep(DEBOUNCE_MILLIS);
+                WatchKey key;
+                while ((key = this.watchService.poll()) != null) {
+                    collect(key, changed);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            reload(changed);
+        }
+    }
+
+    /**
+     * 记录事件中变化的配置文件，目录中的其他文件忽略
+     */
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失，重新加载这个目录下的所有配置文件
+                for (Path file : this.files.keySet()) {
+                    if (file.getParent().equals(dir)) {
+                        changed.add(file);
+                    }
+                }
+            } else {
+                Path file = dir.resolve((Path) event.context());
+                if (this.files.containsKey(file)) {
+                    changed.add(file);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void reload(Set<Path> changed) {
+        try {
+            List<PropertySource> sources = new ArrayList<>(changed.size());
+            for (Path file : changed) {
+                // 文件被删除时按空配置处理
+                Map<String, String> properties = Files.exists(file) ? load(file, this.activeProfiles) : Map.of();
+                sources.add(PropertySource.of(this.files.get(file), properties));
+            }
+            this.resolver.replacePropertySources(sources);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to reload config files: " + changed + ", keep current properties");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        this.thread.interrupt();
+    }
+}
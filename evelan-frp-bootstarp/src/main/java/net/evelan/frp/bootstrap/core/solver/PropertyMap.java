@@ -0,0 +1,98 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 合并所有配置来源之后的只读配置表
+ * <p>
+ * 开放寻址（线性探测）的哈希表，容量是 2 的幂且至少是元素个数的两倍，key、值、哈希值和来源分别保存在并行的数组中。
+ * 查找先比较数组中缓存的哈希值，命中时通常只探测一次，不创建任何对象。构建完成后不再修改，可以在线程之间直接共享。
+ */
+final class PropertyMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final String[] keys;
+    private final String[] values;
+    private final int[] hashes;
+    // 值来自的配置来源下标
+    private final short[] origins;
+    private final int mask;
+    // 按插入顺序排列的 key
+    private final List<String> names;
+
+    /**
+     * @param keys 不重复的 key
+     * @param values 与 key 一一对应的值
+     * @param origins 与 key 一一对应的来源下标
+     */
+    PropertyMap(String[] keys, String[] values, short[] origins) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < keys.length * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.hashes = new int[capacity];
+        this.origins = new short[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int hash = hash(keys[i]);
+            int slot = hash & this.mask;
+            while (this.keys[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = keys[i];
+            this.values[slot] = values[i];
+            this.hashes[slot] = hash;
+            this.origins[slot] = origins[i];
+        }
+        this.names = Collections.unmodifiableList(Arrays.asList(keys.clone()));
+    }
+
+    String get(String key) {
+        int slot = slot(key);
+        return slot < 0 ? null : this.values[slot];
+    }
+
+    boolean contains(String key) {
+        return slot(key) >= 0;
+    }
+
+    /**
+     * 值来自的配置来源下标，不存在时返回 -1
+     */
+    int origin(String key) {
+        int slot = slot(key);
+        return slot < 0 ? -1 : this.origins[slot];
+    }
+
+    List<String> names() {
+        return this.names;
+    }
+
+    int size() {
+        return this.names.size();
+    }
+
+    private int slot(String key) {
+        int hash = hash(key);
+        int slot = hash & this.mask;
+        String k;
+        while ((k = this.keys[slot]) != null) {
+            if (this.hashes[slot] == hash && (k == key || k.equals(key))) {
+                return slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        // 高位参与计算，减少只有后缀不同的 key 在低位上的冲突
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,14 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.util.List;
+
+/**
+ * 配置的来源，用于诊断某个配置为什么是当前的值
+ *
+ * @param key 配置名
+ * @param value 原始值，未解析占位符
+ * @param source 生效的配置来源
+ * @param overridden 同样包含该配置、但优先级更低而被覆盖的配置来源，按优先级从高到低
+ */
+public record PropertyOrigin(String key, String value, String source, List<String> overridden) {
+}
@@ -2,9 +2,21 @@ package net.evelan.frp.bootstrap.core.solver;
 
 import net.evelan.frp.bootstrap.entity.PropertyExpr;
 
+import net.evelan.frp.bootstrap.utils.ClassPathUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.*;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 /**
@@ -12,21 +24,57 @@ import java.util.function.Function;
  * 1. 支持按照配置的key查询，如 getProperty("name")
  * 2. 支持按照 ${abc.xyz} 方式查询，用于 @EValue("abc.xyz")
  * 3. 带默认值，以${abc.xyz:defaultValue}形式的查询，例如，getProperty("${app.title:1}")，常用于@Value("${app.title:1}")注入。
+ * 4. 内嵌、嵌套和默认值链，如 "http://${host}:${port}/x"、"${${env}.host}"、"${a:${b:1}}"，属性值中的占位符同样会被解析
+ * 含占位符的字符串只编译一次（{@link PropertyTemplate}），按源字符串缓存在快照上，重新加载后不再使用的模板随旧快照一起释放
+ * 5. 按类型获取时每个 (key, 类型) 只转换一次并缓存，热路径上读取超时、缓冲区大小等配置不再解析字符串；
+ *    支持 List / Set / Map / 数组、DataSize（64KB）、Duration（30s）和枚举，{@link #bind(String, Class)} 把整个前缀绑定到对象上
+ * 6. 配置保存在不可变的快照（{@link PropertySnapshot}）中，每次查询只读取一次 volatile 字段，读取路径上没有锁；
+ *    {@link #loadApplicationConfig()} 加载 application.yaml 并监听文件变化，重新加载时整体替换快照，
+ *    再把变化的 key 通知给 {@link PropertyChangeListener}
+ * 7. 配置来自多个有优先级的来源（{@link PropertySource}），从高到低依次为：命令行参数、构造时传入的配置、系统属性、
+ *    环境变量（支持 FRP_SERVER_PORT -> frp.server.port）、application-{profile}.yaml、application.yaml。
+ *    构建快照时预先合并成一个开放寻址的哈希表（{@link PropertyMap}），查询只探测一次，不需要依次查找每个来源；
+ *    {@link #getPropertyOrigins(String)} 可以查看每个配置最终来自哪个来源
  */
-public class PropertyResolver {
-    // 存储所有的配置项(包括环境变量)
-    Map<String, String> properties = new ConcurrentHashMap<>();
+public class PropertyResolver implements AutoCloseable {
+
+    // 配置文件路径，默认使用类路径下的 application.yaml
+    public static final String CONFIG_LOCATION_PROPERTY = "evelan.config.location";
+    // 配置文件在文件系统中时是否监听变化并重新加载，默认开启
+    public static final String CONFIG_WATCH_PROPERTY = "evelan.config.watch";
+    public static final String DEFAULT_CONFIG_FILE = "application.yaml";
+    // 激活的 profile，逗号分隔，决定多文档配置文件中哪些文档生效；未配置时使用配置文件中的同名配置
+    public static final String PROFILES_ACTIVE_PROPERTY = "evelan.profiles.active";
+
+    // 名称中包含这些词的配置在诊断信息中隐藏值
+    private static final String[] SENSITIVE_KEYS = {"password", "secret", "token", "credential"};
+
+    // 当前的配置快照，重新加载时整体替换
+    private volatile PropertySnapshot snapshot;
     // 存储 Class -> Function
     Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
+    // 配置变化监听器，{ 监听的 key 或前缀（空字符串表示全部） : 监听器 }
+    private final List<Map.Entry<String, PropertyChangeListener>> listeners = new CopyOnWriteArrayList<>();
+    // 监听配置文件的线程，未开启时为 null
+    private PropertyFileWatcher watcher;
+
+    // 按类型转换后不存在的值
+    private static final Object MISSING = new Object();
 
     public PropertyResolver(Properties props) {
-        // 环境变量先直接都存进去
-        this.properties.putAll(System.getenv());
-        // 再存传进来的properties
-        Set<String> names = props.stringPropertyNames();
-        for (String name : names) {
-            this.properties.put(name, properties.get(name));
-        }
+        this(new String[0], props);
+    }
+
+    /**
+     * @param args 启动参数，--key=value 形式的参数优先级最高
+     * @param props 优先级高于系统属性和环境变量的配置
+     */
+    public PropertyResolver(String[] args, Properties props) {
+        this.snapshot = new PropertySnapshot(List.of(
+                PropertySource.commandLine(args),
+                PropertySource.of(PropertySource.PROPERTIES, props),
+                PropertySource.of(PropertySource.SYSTEM_PROPERTIES, System.getProperties()),
+                PropertySource.environment(System.getenv())), 0);
 
         converters.put(String.class, value -> value);
         converters.put(boolean.class, Boolean::parseBoolean);
@@ -51,11 +99,15 @@ public class PropertyResolver {
         converters.put(LocalTime.class, LocalTime::parse);
         converters.put(LocalDateTime.class, LocalDateTime::parse);
         converters.put(ZonedDateTime.class, ZonedDateTime::parse);
-        converters.put(Duration.class, Duration::parse);
+        converters.put(Duration.class, PropertyResolver::parseDuration);
+        converters.put(DataSize.class, DataSize::parse);
         converters.put(ZoneId.class, ZoneId::of);
     }
 
 
+    /**
+     * 解析整个字符串就是一个占位符的表达式，不支持内嵌和嵌套；容器内部的解析使用编译后的 {@link PropertyTemplate}
+     */
     public PropertyExpr parserPropertyExpr(String key) {
         if (key.startsWith("${") && key.endsWith("}")) {
             int n = key.indexOf(":");
@@ -74,44 +126,363 @@ public class PropertyResolver {
     }
 
     public boolean containsProperty(String key) {
-        return this.properties.containsKey(key);
+        return this.snapshot.contains(key);
     }
 
 
     public String getProperty(String key) {
-        // 按 ${abc.xyz:defaultValue} 格式解析
-        PropertyExpr expr = parserPropertyExpr(key);
-        if (expr != null) {
-            if (expr.defaultValue() != null)
-                return getProperty(expr.key(), expr.defaultValue());
-            else
-                return getRequiredProperty(expr.key());
-        }
-        String value = this.properties.get(key);
+        return getProperty(this.snapshot, key);
+    }
+
+    String getProperty(PropertySnapshot snapshot, String key) {
+        // 按 ${abc.xyz:defaultValue} 格式解析，也可以是包含占位符的任意字符串
+        if (PropertyTemplate.hasPlaceholder(key)) {
+            return template(snapshot, key).resolve(this, snapshot);
+        }
+        String value = snapshot.get(key);
         if (value != null)
-            return parseValue(value);
+            return parseValue(snapshot, value);
         return value;
     }
 
 
     public String getProperty(String key, String defaultValue) {
-        String value = getProperty(key);
-        return value == null ? parseValue(defaultValue) : value;
+        PropertySnapshot snapshot = this.snapshot;
+        String value = getProperty(snapshot, key);
+        return value == null && defaultValue != null ? parseValue(snapshot, defaultValue) : value;
     }
 
+    @SuppressWarnings("unchecked")
     public <T> T getProperty(String key, Class<T> targetType) {
-        String value = getProperty(key);
-        if (value == null)
-            return null;
-        return convert(targetType, value);
+        return (T) getProperty(key, (Type) targetType);
     }
 
     public <T> T getProperty(String key, Class<T> targetType, T defaultValue) {
-        String value = getProperty(key);
+        T value = getProperty(key, targetType);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 按泛型类型获取，如 List&lt;Integer&gt;、Map&lt;String, DataSize&gt;，结果按 (key, 类型) 缓存
+     * @return 转换后的值，不存在时返回 null
+     */
+    public Object getProperty(String key, Type targetType) {
+        return getProperty(this.snapshot, key, targetType);
+    }
+
+    Object getProperty(PropertySnapshot snapshot, String key, Type targetType) {
+        Map<Type, Object> byType = snapshot.bindings.get(key);
+        Object value = byType == null ? null : byType.get(targetType);
+        if (value != null) {
+            return value == MISSING ? null : value;
+        }
+        value = new PropertyBinder(this, snapshot).bind(key, targetType);
+        if (isCacheable(targetType)) {
+            snapshot.bindings.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(targetType, value == null ? MISSING : value);
+        }
+        return value;
+    }
+
+    /**
+     * 创建对象并把 prefix 下的所有配置绑定上去（普通类按字段、record 按规范构造方法），每次调用都创建新的实例
+     * @param prefix 配置前缀，如 frp.server
+     * @param type 普通类（需要无参构造方法）或 record
+     */
+    public <T> T bind(String prefix, Class<T> type) {
+        return new PropertyBinder(this, this.snapshot).bindObject(prefix, type);
+    }
+
+    /**
+     * 当前配置的版本号，从 0 开始，每次产生变化的重新加载加 1
+     */
+    public long getVersion() {
+        return this.snapshot.version();
+    }
+
+    /**
+     * 加载配置文件：{@code evelan.config.location} 指定的文件，未指定时为类路径下的 application.yaml（不存在时跳过），
+     * 以及同一位置的 application-{profile}.yaml，后激活的 profile 优先。激活的 profile 来自 {@code evelan.profiles.active}，
+     * 没有配置时使用 application.yaml 中的同名配置。
+     * 配置文件在文件系统中且 {@code evelan.config.watch} 没有关闭时，启动后台线程监听文件变化并自动重新加载
+     */
+    public void loadApplicationConfig() {
+        String location = getProperty(CONFIG_LOCATION_PROPERTY);
+        List<String> profiles = activeProfiles(getProperty(PROFILES_ACTIVE_PROPERTY));
+        // { 文件 : 来源名称 }，只包含文件系统中的配置文件
+        Map<Path, String> files = new LinkedHashMap<>();
+        Map<String, String> defaults;
+        String defaultName;
+        if (location != null && !location.isBlank()) {
+            Path file = Path.of(location);
+            defaultName = location;
+            defaults = PropertyFileWatcher.load(file, profiles);
+            files.put(file, defaultName);
+        } else {
+            URL url = ClassPathUtils.getResource(DEFAULT_CONFIG_FILE);
+            if (url == null) {
+                return;
+            }
+            defaultName = DEFAULT_CONFIG_FILE;
+            defaults = PropertyFileWatcher.load(DEFAULT_CONFIG_FILE, profiles);
+            Path file = toPath(url);
+            if (file != null) {
+                files.put(file, defaultName);
+            }
+        }
+        if (profiles.isEmpty()) {
+            profiles = activeProfiles(defaults.get(PROFILES_ACTIVE_PROPERTY));
+        }
+        // 按优先级从高到低
+        List<PropertySource> sources = new ArrayList<>();
+        for (int i = profiles.size() - 1; i >= 0; i--) {
+            String name = profileFileName(defaultName, profiles.get(i));
+            Path file = files.isEmpty() ? null : profileFile(files.keySet().iterator().next(), name);
+            Map<String, String> properties = Map.of();
+            if (file != null) {
+                // 文件系统中的 profile 配置文件，不存在时同样监听，之后创建时加载
+                files.put(file, name);
+                if (Files.exists(file)) {
+                    properties = PropertyFileWatcher.load(file, profiles);
+                }
+            } else if (ClassPathUtils.getResource(name) != null) {
+                properties = PropertyFileWatcher.load(name, profiles);
+            }
+            sources.add(PropertySource.of(name, properties));
+        }
+        sources.add(PropertySource.of(defaultName, defaults));
+        replacePropertySources(sources);
+        if (!files.isEmpty() && getProperty(CONFIG_WATCH_PROPERTY, boolean.class, true)) {
+            watch(files, profiles);
+        }
+    }
+
+    /**
+     * 监听配置文件，文件变化后重新加载对应的配置来源；已经在监听时先停止
+     * @param files { 文件 : 配置来源名称 }
+     */
+    synchronized void watch(Map<Path, String> files, List<String> activeProfiles) {
+        if (this.watcher != null) {
+            this.watcher.close();
+        }
+        try {
+            this.watcher = new PropertyFileWatcher(this, files, activeProfiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to watch config files: " + files.keySet(), e);
+        }
+    }
+
+    /**
+     * 替换同名的配置来源（保持原来的优先级），不存在的来源按顺序添加到优先级最低的位置，然后通知监听器
+     * <p>
+     * 新快照构建完成后通过一次 volatile 写发布，正在进行的查询继续使用旧快照。没有任何变化时不替换快照，也不通知。
+     * @return 变化的 key，没有变化时为空集合
+     */
+    public synchronized Set<String> replacePropertySources(List<PropertySource> replacements) {
+        PropertySnapshot previous = this.snapshot;
+        List<PropertySource> sources = new ArrayList<>(previous.sources());
+        for (PropertySource replacement : replacements) {
+            int index = -1;
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i).getName().equals(replacement.getName())) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index >= 0) {
+                sources.set(index, replacement);
+            } else {
+                sources.add(replacement);
+            }
+        }
+        PropertySnapshot next = new PropertySnapshot(sources, previous.version() + 1);
+        Set<String> changedKeys = changedKeys(previous, next);
+        if (changedKeys.isEmpty()) {
+            return changedKeys;
+        }
+        this.snapshot = next;
+        PropertyChangeEvent event = new PropertyChangeEvent(this, previous, next, changedKeys);
+        for (Map.Entry<String, PropertyChangeListener> listener : this.listeners) {
+            if (!event.isChanged(listener.getKey())) {
+                continue;
+            }
+            try {
+                listener.getValue().onPropertyChange(event);
+            } catch (RuntimeException e) {
+                // 一个监听器失败不影响其他监听器，配置已经生效
+                System.err.println("Property change listener failed: " + listener.getValue());
+                e.printStackTrace();
+            }
+        }
+        return changedKeys;
+    }
+
+    public Set<String> replacePropertySource(PropertySource source) {
+        return replacePropertySources(List.of(source));
+    }
+
+    /**
+     * 所有配置来源，按优先级从高到低
+     */
+    public List<PropertySource> getPropertySources() {
+        return this.snapshot.sources();
+    }
+
+    /**
+     * 配置的值最终来自哪个来源，不存在时返回 null
+     */
+    public String getPropertySourceName(String key) {
+        PropertySource origin = this.snapshot.origin(key);
+        return origin == null ? null : origin.getName();
+    }
+
+    /**
+     * 前缀下每个配置的原始值（未解析占位符）、生效的来源和被覆盖的来源，按 key 排序
+     * @param prefix 配置前缀，空字符串表示全部
+     */
+    public List<PropertyOrigin> getPropertyOrigins(String prefix) {
+        PropertySnapshot snapshot = this.snapshot;
+        List<PropertyOrigin> origins = new ArrayList<>();
+        for (String key : snapshot.sortedNames()) {
+            if (PropertyChangeEvent.isUnder(key, prefix)) {
+                List<String> shadowed = snapshot.shadowed(key).stream().map(PropertySource::getName).toList();
+                origins.add(new PropertyOrigin(key, snapshot.get(key), snapshot.origin(key).getName(), shadowed));
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * 诊断用的配置列表，每行一个配置：key = value  [来源] (overrides 被覆盖的来源)，密码等敏感配置的值被隐藏
+     */
+    public String describeProperties(String prefix) {
+        StringBuilder sb = new StringBuilder();
+        for (PropertyOrigin origin : getPropertyOrigins(prefix)) {
+            sb.append(origin.key()).append(" = ").append(isSensitive(origin.key()) ? "******" : origin.value())
+                    .append("  [").append(origin.source()).append(']');
+            if (!origin.overridden().isEmpty()) {
+                sb.append(" (overrides ").append(String.join(", ", origin.overridden())).append(')');
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 监听所有配置变化
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        addPropertyChangeListener("", listener);
+    }
+
+    /**
+     * 只在 key 本身或以 key. / key[ 开头的配置变化时通知
+     */
+    public void addPropertyChangeListener(String key, PropertyChangeListener listener) {
+        this.listeners.add(Map.entry(key, listener));
+    }
+
+    /**
+     * 按类型监听单个配置，转换后的值不同时回调 (旧值, 新值)，不存在的值为 null
+     * @return 注册的监听器，用于 {@link #removePropertyChangeListener(PropertyChangeListener)}
+     */
+    public <T> PropertyChangeListener addPropertyChangeListener(String key, Class<T> type, BiConsumer<? super T, ? super T> callback) {
+        PropertyChangeListener listener = event -> {
+            T oldValue = event.getOldValue(key, type);
+            T newValue = event.getNewValue(key, type);
+            if (!Objects.equals(oldValue, newValue)) {
+                callback.accept(oldValue, newValue);
+            }
+        };
+        addPropertyChangeListener(key, listener);
+        return listener;
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        this.listeners.removeIf(entry -> entry.getValue() == listener);
+    }
+
+    /**
+     * 停止监听配置文件
+     */
+    @Override
+    public synchronized void close() {
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * 原始值不同的 key，以及原始值相同但包含占位符、解析结果不同的 key
+     */
+    private Set<String> changedKeys(PropertySnapshot previous, PropertySnapshot next) {
+        Set<String> changed = new TreeSet<>();
+        for (String key : next.names()) {
+            String value = next.get(key);
+            String old = previous.get(key);
+            if (!value.equals(old) || (PropertyTemplate.hasPlaceholder(value) && !Objects.equals(resolveQuietly(previous, value), resolveQuietly(next, value)))) {
+                changed.add(key);
+            }
+        }
+        for (String key : previous.names()) {
+            if (!next.contains(key)) {
+                changed.add(key);
+            }
+        }
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * 解析失败（如引用的配置不存在）时返回原始值，只用于比较
+     */
+    private String resolveQuietly(PropertySnapshot snapshot, String value) {
+        try {
+            return parseValue(snapshot, value);
+        } catch (RuntimeException e) {
+            return value;
+        }
+    }
+
+    private static List<String> activeProfiles(String value) {
         if (value == null) {
-            return defaultValue;
+            return List.of();
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).filter(profile -> !profile.isEmpty()).toList();
+    }
+
+    /**
+     * application.yaml -> application-dev.yaml，conf/app.yml -> conf/app-dev.yml
+     */
+    private static String profileFileName(String name, String profile) {
+        int dot = name.lastIndexOf('.');
+        int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+        return dot > slash ? name.substring(0, dot) + "-" + profile + name.substring(dot) : name + "-" + profile;
+    }
+
+    private static Path profileFile(Path defaultFile, String profileName) {
+        return defaultFile.resolveSibling(Path.of(profileName).getFileName());
+    }
+
+    private static boolean isSensitive(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        for (String sensitive : SENSITIVE_KEYS) {
+            if (lower.contains(sensitive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Path toPath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            // jar 中的配置文件不能修改，不需要监听
+            return null;
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
         }
-        return convert(targetType, value);
     }
 
     public String getRequiredProperty(String key) {
@@ -124,25 +495,95 @@ public class PropertyResolver {
         return Objects.requireNonNull(value, "Property '" + key + "' not found.");
     }
 
+    public Object getRequiredProperty(String key, Type targetType) {
+        Object value = getProperty(key, targetType);
+        return Objects.requireNonNull(value, "Property '" + key + "' not found.");
+    }
 
 
-    @SuppressWarnings("unchecked")
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
     <T> T convert(Class<T> clazz, String value) {
         Function<String, Object> fn = converters.get(clazz);
-        if (fn == null)
+        if (fn == null) {
+            if (clazz.isEnum())
+                return (T) Enum.valueOf((Class) clazz, value.trim());
             throw new IllegalArgumentException("Unsupported value type: " + clazz.getName());
+        }
         return (T) fn.apply(value);
     }
 
+    /**
+     * 是否是可以直接从字符串转换的类型
+     */
+    boolean isScalar(Class<?> clazz) {
+        return converters.containsKey(clazz) || clazz.isEnum();
+    }
 
-    String parseValue(String value) {
-        PropertyExpr expr = parserPropertyExpr(value);
-        if (expr == null)
-            return value;
-        if (expr.defaultValue() != null)
-            return getProperty(expr.key(), expr.defaultValue());
-        else
-            return getRequiredProperty(expr.key());
+    /**
+     * 标量和标量元素的 List / Set / Map（绑定结果不可修改）可以缓存，其他对象每次重新绑定
+     */
+    private boolean isCacheable(Type type) {
+        Class<?> raw = PropertyBinder.rawClass(type);
+        if (isScalar(raw)) {
+            return true;
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            return isScalar(PropertyBinder.rawClass(PropertyBinder.typeArgument(type, 0)));
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            return isScalar(PropertyBinder.rawClass(PropertyBinder.typeArgument(type, 1)));
+        }
+        return false;
+    }
+
+    /**
+     * 解析时长：30s、500ms、2m、1h、1d、100us、10ns，纯数字按毫秒处理，也支持 ISO-8601 格式（PT30S）
+     */
+    static Duration parseDuration(String text) {
+        String value = text.trim();
+        if (value.length() > 1 && (value.charAt(0) == 'P' || value.charAt(0) == 'p' || value.startsWith("-P"))) {
+            return Duration.parse(value);
+        }
+        int unitStart = value.startsWith("-") ? 1 : 0;
+        while (unitStart < value.length() && Character.isDigit(value.charAt(unitStart))) {
+            unitStart++;
+        }
+        if (unitStart == 0 || (unitStart == 1 && value.startsWith("-"))) {
+            throw new IllegalArgumentException("Invalid duration: " + text);
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        ChronoUnit unit = switch (value.substring(unitStart).trim().toLowerCase(Locale.ROOT)) {
+            case "ns" -> ChronoUnit.NANOS;
+            case "us" -> ChronoUnit.MICROS;
+            case "", "ms" -> ChronoUnit.MILLIS;
+            case "s" -> ChronoUnit.SECONDS;
+            case "m" -> ChronoUnit.MINUTES;
+            case "h" -> ChronoUnit.HOURS;
+            case "d" -> ChronoUnit.DAYS;
+            default -> throw new IllegalArgumentException("Invalid duration unit: " + text);
+        };
+        return Duration.of(amount, unit);
+    }
+
+
+    String parseValue(PropertySnapshot snapshot, String value) {
+        return PropertyTemplate.hasPlaceholder(value) ? template(snapshot, value).resolve(this, snapshot) : value;
+    }
+
+    /**
+     * 获取编译后的模板，同一个快照上同一个源字符串只编译一次
+     */
+    PropertyTemplate template(PropertySnapshot snapshot, String source) {
+        PropertyTemplate template = snapshot.templates.get(source);
+        return template != null ? template : snapshot.templates.computeIfAbsent(source, PropertyTemplate::compile);
+    }
+
+    /**
+     * 不解析占位符的原始属性值
+     */
+    String getRawProperty(String key) {
+        return this.snapshot.get(key);
     }
 
     String notEmpty(String key) {
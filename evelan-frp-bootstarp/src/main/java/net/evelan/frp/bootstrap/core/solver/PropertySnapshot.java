@@ -0,0 +1,143 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 某一时刻的全部配置，不可变
+ * <p>
+ * PropertyResolver 通过一个 volatile 字段发布当前快照，配置重新加载时整体替换。读取方每次查询只读取一次快照，
+ * 之后的占位符解析、类型转换都在同一个快照上进行，不会读到一半旧值一半新值。按类型转换的缓存、占位符模板和排序后的属性名跟随快照，
+ * 替换快照即失效，不需要额外加锁清理。
+ * <p>
+ * 构建时按优先级从低到高合并所有配置来源，结果保存在一个 {@link PropertyMap} 中，查询不需要依次查找每个来源。
+ * 环境变量除了按宽松名称提供配置外，还会覆盖低优先级来源中环境变量形式的名称相同的配置（FRP_SERVER_READTIMEOUT 覆盖 frp.server.read-timeout）；
+ * 所有来源中都不存在的 key 最后按环境变量形式查找一次。
+ */
+final class PropertySnapshot {
+
+    // 配置来源，按优先级从高到低
+    private final List<PropertySource> sources;
+    private final PropertyMap values;
+    // 环境变量来源，用于查找不存在的 key，没有时为 null
+    private final PropertySource relaxed;
+    private final int relaxedIndex;
+    private final long version;
+    // 按类型转换后的值，{ key : { 类型 : 值 } }
+    final Map<String, Map<Type, Object>> bindings = new ConcurrentHashMap<>();
+    // 编译后的占位符模板，{ 源字符串 : 模板 }，只缓存这个快照中用到的字符串
+    final Map<String, PropertyTemplate> templates = new ConcurrentHashMap<>();
+    // 排序后的属性名，第一次按前缀查找时创建
+    private volatile NavigableSet<String> sortedNames;
+
+    PropertySnapshot(List<PropertySource> sources, long version) {
+        this.sources = List.copyOf(sources);
+        this.version = version;
+        Map<String, String> merged = new LinkedHashMap<>();
+        Map<String, Integer> origins = new HashMap<>();
+        PropertySource relaxed = null;
+        int relaxedIndex = -1;
+        for (int i = this.sources.size() - 1; i >= 0; i--) {
+            PropertySource source = this.sources.get(i);
+            if (source.isRelaxed()) {
+                // 覆盖低优先级来源中的配置
+                for (Map.Entry<String, String> entry : merged.entrySet()) {
+                    String value = source.getRelaxedProperty(entry.getKey());
+                    if (value != null) {
+                        entry.setValue(value);
+                        origins.put(entry.getKey(), i);
+                    }
+                }
+                relaxed = source;
+                relaxedIndex = i;
+            }
+            for (Map.Entry<String, String> entry : source.getProperties().entrySet()) {
+                merged.put(entry.getKey(), entry.getValue());
+                origins.put(entry.getKey(), i);
+            }
+        }
+        String[] keys = new String[merged.size()];
+        String[] values = new String[merged.size()];
+        short[] indexes = new short[merged.size()];
+        int n = 0;
+        for (Map.Entry<String, String> entry : merged.entrySet()) {
+            keys[n] = entry.getKey();
+            values[n] = entry.getValue();
+            indexes[n] = origins.get(entry.getKey()).shortValue();
+            n++;
+        }
+        this.values = new PropertyMap(keys, values, indexes);
+        this.relaxed = relaxed;
+        this.relaxedIndex = relaxedIndex;
+    }
+
+    String get(String key) {
+        String value = this.values.get(key);
+        if (value == null && this.relaxed != null) {
+            value = this.relaxed.getRelaxedProperty(key);
+        }
+        return value;
+    }
+
+    boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * 合并后的所有 key，不包括只能按环境变量形式查找到的 key
+     */
+    Collection<String> names() {
+        return this.values.names();
+    }
+
+    NavigableSet<String> sortedNames() {
+        NavigableSet<String> names = this.sortedNames;
+        if (names == null) {
+            names = Collections.unmodifiableNavigableSet(new TreeSet<>(this.values.names()));
+            this.sortedNames = names;
+        }
+        return names;
+    }
+
+    List<PropertySource> sources() {
+        return this.sources;
+    }
+
+    /**
+     * 值来自的配置来源，不存在时返回 null
+     */
+    PropertySource origin(String key) {
+        int index = this.values.origin(key);
+        if (index >= 0) {
+            return this.sources.get(index);
+        }
+        return this.relaxed != null && this.relaxed.getRelaxedProperty(key) != null ? this.sources.get(this.relaxedIndex) : null;
+    }
+
+    /**
+     * 同样包含 key、但被 origin 覆盖的配置来源，按优先级从高到低
+     */
+    List<PropertySource> shadowed(String key) {
+        PropertySource origin = origin(key);
+        List<PropertySource> shadowed = new ArrayList<>();
+        for (PropertySource source : this.sources) {
+            if (source != origin && (source.containsProperty(key) || (source.isRelaxed() && source.getRelaxedProperty(key) != null))) {
+                shadowed.add(source);
+            }
+        }
+        return shadowed;
+    }
+
+    long version() {
+        return this.version;
+    }
+}
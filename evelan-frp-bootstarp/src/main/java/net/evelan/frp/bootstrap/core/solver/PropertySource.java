@@ -0,0 +1,184 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 一组有名称的配置，如命令行参数、系统属性、环境变量、配置文件
+ * <p>
+ * PropertyResolver 按优先级保存多个 PropertySource，同一个 key 使用优先级最高的来源中的值。
+ * 环境变量来源使用宽松的名称：FRP_SERVER_PORT 同时可以通过 frp.server.port 获取，
+ * 其他来源中的 frp.server.read-timeout 可以被环境变量 FRP_SERVER_READTIMEOUT 或 FRP_SERVER_READ_TIMEOUT 覆盖。
+ */
+public final class PropertySource {
+
+    public static final String COMMAND_LINE_ARGS = "commandLineArgs";
+    public static final String PROPERTIES = "properties";
+    public static final String SYSTEM_PROPERTIES = "systemProperties";
+    public static final String SYSTEM_ENVIRONMENT = "systemEnvironment";
+
+    private final String name;
+    private final Map<String, String> properties;
+    // 是否是环境变量，使用宽松的名称匹配
+    private final boolean relaxed;
+
+    private PropertySource(String name, Map<String, String> properties, boolean relaxed) {
+        this.name = name;
+        this.properties = Map.copyOf(properties);
+        this.relaxed = relaxed;
+    }
+
+    public static PropertySource of(String name, Map<String, String> properties) {
+        return new PropertySource(name, properties, false);
+    }
+
+    public static PropertySource of(String name, Properties properties) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            map.put(key, properties.getProperty(key));
+        }
+        return of(name, map);
+    }
+
+    /**
+     * 命令行参数，--key=value，只有 --key 时值为 true，其他参数忽略
+     */
+    public static PropertySource commandLine(String... args) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg == null || !arg.startsWith("--") || arg.length() == 2) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                map.put(arg.substring(2), "true");
+            } else if (eq > 2) {
+                map.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return of(COMMAND_LINE_ARGS, map);
+    }
+
+    /**
+     * 环境变量，除了原始名称外，只包含大写字母、数字和下划线的名称同时以宽松的形式保存：
+     * FRP_SERVER_PORT -> frp.server.port，FRP_ROUTES_0_HOST -> frp.routes[0].host
+     */
+    public static PropertySource environment(Map<String, String> env) {
+        Map<String, String> map = new LinkedHashMap<>(env);
+        for (Map.Entry<String, String> entry : env.entrySet()) {
+            String relaxedName = relaxedName(entry.getKey());
+            if (relaxedName != null) {
+                map.putIfAbsent(relaxedName, entry.getValue());
+            }
+        }
+        return new PropertySource(SYSTEM_ENVIRONMENT, map, true);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getProperty(String key) {
+        return this.properties.get(key);
+    }
+
+    public boolean containsProperty(String key) {
+        return this.properties.containsKey(key);
+    }
+
+    public Map<String, String> getProperties() {
+        return this.properties;
+    }
+
+    boolean isRelaxed() {
+        return this.relaxed;
+    }
+
+    /**
+     * 按环境变量的命名方式查找配置：frp.server.read-timeout 依次查找 FRP_SERVER_READTIMEOUT、FRP_SERVER_READ_TIMEOUT
+     * @return 不存在时返回 null
+     */
+    String getRelaxedProperty(String key) {
+        String value = this.properties.get(environmentName(key, false));
+        if (value == null && key.indexOf('-') >= 0) {
+            value = this.properties.get(environmentName(key, true));
+        }
+        return value;
+    }
+
+    /**
+     * 配置名对应的环境变量名，'.' 和 '[' 转为 '_'，']' 去掉，'-' 去掉或转为 '_'
+     */
+    static String environmentName(String key, boolean dashAsUnderscore) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            switch (c) {
+                case '.', '[' -> sb.append('_');
+                case ']' -> {
+                }
+                case '-' -> {
+                    if (dashAsUnderscore) {
+                        sb.append('_');
+                    }
+                }
+                default -> sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 环境变量名对应的配置名，不是 FRP_SERVER_PORT 这种形式时返回 null
+     */
+    static String relaxedName(String env) {
+        if (env.isEmpty() || env.indexOf('_') < 0 || env.charAt(0) == '_' || env.charAt(env.length() - 1) == '_') {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(env.length() + 4);
+        int start = 0;
+        while (start <= env.length()) {
+            int end = env.indexOf('_', start);
+            if (end < 0) {
+                end = env.length();
+            }
+            if (end == start) {
+                // 连续的下划线
+                return null;
+            }
+            String segment = env.substring(start, end);
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                    return null;
+                }
+            }
+            if (isIndex(segment) && start > 0) {
+                sb.append('[').append(segment).append(']');
+            } else {
+                if (start > 0) {
+                    sb.append('.');
+                }
+                sb.append(segment.toLowerCase(Locale.ROOT));
+            }
+            start = end + 1;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isIndex(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,170 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译后的属性占位符模板，不可变，按源字符串缓存在 PropertyResolver 中
+ * <p>
+ * 模板由文本片段和占位符组成，支持：
+ * <ul>
+ *     <li>内嵌：http://${host}:${port}/x</li>
+ *     <li>嵌套：${${env}.host}，key 本身也是模板</li>
+ *     <li>默认值链：${a:${b:${c:fallback}}}，默认值同样是模板，只在 key 不存在时解析</li>
+ * </ul>
+ * 没有闭合的 "${" 按普通文本处理。整个模板只有一个占位符时直接返回解析结果，不拼接字符串。
+ */
+final class PropertyTemplate {
+
+    // 解析嵌套的最大深度，超过时认为占位符之间存在循环引用
+    private static final int MAX_DEPTH = 32;
+
+    private final String source;
+    // String（文本片段）或 Placeholder
+    private final Object[] parts;
+
+    private PropertyTemplate(String source, Object[] parts) {
+        this.source = source;
+        this.parts = parts;
+    }
+
+    /**
+     * 占位符
+     * @param key key 模板
+     * @param defaultValue 默认值模板，没有默认值时为 null
+     */
+    private record Placeholder(PropertyTemplate key, PropertyTemplate defaultValue) {
+    }
+
+    /**
+     * 是否包含占位符，不包含时调用方直接使用原字符串，不需要编译
+     */
+    static boolean hasPlaceholder(String value) {
+        return value.contains("${");
+    }
+
+    static PropertyTemplate compile(String source) {
+        return new PropertyTemplate(source, parse(source, 0, source.length()));
+    }
+
+    /**
+     * 解析 [from, to) 区间
+     */
+    private static Object[] parse(String s, int from, int to) {
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = from;
+        while (i < to) {
+            int start = s.indexOf("${", i);
+            if (start < 0 || start >= to) {
+                literal.append(s, i, to);
+                break;
+            }
+            int end = findClosing(s, start + 2, to);
+            if (end < 0) {
+                // 没有闭合的占位符，剩余部分都是文本
+                literal.append(s, i, to);
+                break;
+            }
+            literal.append(s, i, start);
+            if (!literal.isEmpty()) {
+                parts.add(literal.toString());
+                literal.setLength(0);
+            }
+            int colon = findSeparator(s, start + 2, end);
+            PropertyTemplate key = new PropertyTemplate(s.substring(start + 2, colon < 0 ? end : colon),
+                    parse(s, start + 2, colon < 0 ? end : colon));
+            PropertyTemplate defaultValue = colon < 0 ? null
+                    : new PropertyTemplate(s.substring(colon + 1, end), parse(s, colon + 1, end));
+            parts.add(new Placeholder(key, defaultValue));
+            i = end + 1;
+        }
+        if (!literal.isEmpty() || parts.isEmpty()) {
+            parts.add(literal.toString());
+        }
+        return parts.toArray();
+    }
+
+    /**
+     * 查找与 "${" 匹配的 "}"，跳过嵌套的占位符
+     */
+    private static int findClosing(String s, int from, int to) {
+        int depth = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '$' && i + 1 < to && s.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (c == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查找 key 和默认值之间的第一个不在嵌套占位符中的 ':'
+     */
+    private static int findSeparator(String s, int from, int to) {
+        int depth = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '$' && i + 1 < to && s.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == ':' && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 使用配置快照中的属性解析模板，嵌套的模板从 resolver 的缓存中获取
+     * @throws NullPointerException 没有默认值的占位符对应的属性不存在
+     */
+    String resolve(PropertyResolver resolver, PropertySnapshot snapshot) {
+        return resolve(resolver, snapshot, 0);
+    }
+
+    private String resolve(PropertyResolver resolver, PropertySnapshot snapshot, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Circular placeholder reference in: " + this.source);
+        }
+        if (this.parts.length == 1) {
+            return resolvePart(this.parts[0], resolver, snapshot, depth);
+        }
+        StringBuilder sb = new StringBuilder(this.source.length() + 16);
+        for (Object part : this.parts) {
+            sb.append(resolvePart(part, resolver, snapshot, depth));
+        }
+        return sb.toString();
+    }
+
+    private static String resolvePart(Object part, PropertyResolver resolver, PropertySnapshot snapshot, int depth) {
+        if (part instanceof String literal) {
+            return literal;
+        }
+        Placeholder placeholder = (Placeholder) part;
+        String key = placeholder.key().resolve(resolver, snapshot, depth + 1);
+        String value = snapshot.get(key);
+        if (value != null) {
+            // 属性值本身也可能包含占位符
+            return hasPlaceholder(value) ? resolver.template(snapshot, value).resolve(resolver, snapshot, depth + 1) : value;
+        }
+        if (placeholder.defaultValue() != null) {
+            return placeholder.defaultValue().resolve(resolver, snapshot, depth + 1);
+        }
+        throw new NullPointerException("Property '" + key + "' not found.");
+    }
+
+    @Override
+    public String toString() {
+        return this.source;
+    }
+}
@@ -0,0 +1,162 @@
+package net.evelan.frp.bootstrap.processor;
+
+import net.evelan.frp.bootstrap.annotation.bean.EComponent;
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
+import net.evelan.frp.bootstrap.core.context.BeanIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期 Bean 索引生成器
+ * <p>
+ * 在编译阶段收集所有直接或间接（元注解）被 @EComponent 标记的类，
+ * 包括 @EService, @EController, @EConfiguration 以及自定义的派生注解，
+ * 并写入 {@value BeanIndex#INDEX_LOCATION}。
+ * 启动时 BeanDefinitionScanner 读取该索引即可跳过类路径扫描。
+ */
+@SupportedAnnotationTypes("*")
+public class BeanIndexProcessor extends AbstractProcessor {
+
+    private static final String COMPONENT_ANNOTATION = EComponent.class.getCanonicalName();
+
+    // 跨多轮处理收集到的 Bean 类名，使用 TreeSet 保证索引内容稳定
+    private final Set<String> beanClassNames = new TreeSet<>();
+    // 本次编译处理过的所有顶层类，增量编译时这些类在旧索引中的条目以本次结果为准
+    private final Set<String> processedClassNames = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement type) {
+                processedClassNames.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+            }
+            // 和 BeanDefinitionScanner 保持一致：注解、枚举、接口都不是 Bean，record 只有被 @EConfigurationProperties 标记时才是
+            if (element.getKind() != ElementKind.CLASS && !(element.getKind() == ElementKind.RECORD
+                    && element.getAnnotation(EConfigurationProperties.class) != null)) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (isComponent(type, new HashSet<>())) {
+                beanClassNames.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+            }
+        }
+        // 不独占任何注解，其他处理器仍可处理
+        return false;
+    }
+
+    /**
+     * 递归检查类型上的注解（含元注解）是否存在 @EComponent
+     * @param element 待检测的类型或注解类型
+     * @param visited 已访问的注解类型，避免循环引用
+     * @return 是否被 @EComponent 标记
+     */
+    static boolean isComponent(Element element, Set<String> visited) {
+        return isAnnotated(element, COMPONENT_ANNOTATION, visited);
+    }
+
+    /**
+     * 递归检查类型上的注解（含元注解）是否存在指定注解
+     * @param element 待检测的类型或注解类型
+     * @param annotationName 注解的全限定名
+     * @param visited 已访问的注解类型，避免循环引用
+     * @return 是否被指定注解标记
+     */
+    static boolean isAnnotated(Element element, String annotationName, Set<String> visited) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annoType = (TypeElement) mirror.getAnnotationType().asElement();
+            String annoName = annoType.getQualifiedName().toString();
+            if (annotationName.equals(annoName)) {
+                return true;
+            }
+            if (annoName.startsWith("java.lang.annotation.") || !visited.add(annoName)) {
+                continue;
+            }
+            if (isAnnotated(annoType, annotationName, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入索引
+     * <p>
+     * 增量编译时只有改动过的源文件参与处理，所以需要和输出目录中已有的索引合并：
+     * 本次处理过的类以本次结果为准，未处理的类保留原条目，已经删除的类去掉。
+     */
+    private void writeIndex() {
+        Set<String> existing = readExistingIndex();
+        Set<String> names = new TreeSet<>(beanClassNames);
+        for (String name : existing) {
+            if (!processedClassNames.contains(name) && processingEnv.getElementUtils().getTypeElement(name) != null) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty() && existing.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", BeanIndex.INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# Generated by " + BeanIndexProcessor.class.getName() + ", do not edit.\n");
+                for (String name : names) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write bean index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取输出目录中上一次编译生成的索引
+     * @return 索引中的类名，不存在时返回空集合
+     */
+    private Set<String> readExistingIndex() {
+        Set<String> names = new TreeSet<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", BeanIndex.INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        names.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 首次编译或 clean 之后没有旧索引
+        }
+        return names;
+    }
+}
@@ -0,0 +1,396 @@
+package net.evelan.frp.bootstrap.processor;
+
+import net.evelan.frp.bootstrap.annotation.EApplication;
+import net.evelan.frp.bootstrap.core.context.GeneratedContext;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译期容器装配代码生成器
+ * <p>
+ * 通过 javac -Aevelan.context.generate=true 开启后，为每个 @EApplication 启动类生成 启动类名 + _EvelanContext，
+ * 把 WiringPlan 计算出的装配过程写成普通 Java 代码：直接 new、调用工厂方法、写字段、调用 setter 和 init 方法。
+ * 生成类所在的包访问不到的成员（private 字段、其他包的非 public 构造方法等）通过静态 final 的 MethodHandle 访问，
+ * 句柄在类初始化时一次性查找，不做任何扫描和注解解析。
+ * <p>
+ * 处理器只能看到本次编译的源码，依赖其他 jar 中的 Bean 或使用了运行时特性的应用不会生成代码（输出一条 NOTE），
+ * 运行时自动回退到反射容器。
+ */
+@SupportedAnnotationTypes("net.evelan.frp.bootstrap.annotation.EApplication")
+@SupportedOptions(ContextGeneratorProcessor.GENERATE_OPTION)
+public class ContextGeneratorProcessor extends AbstractProcessor {
+
+    static final String GENERATE_OPTION = "evelan.context.generate";
+
+    // 已生成的启动类，后续轮次不再重复生成
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(GENERATE_OPTION)) || roundEnv.processingOver()) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(EApplication.class)) {
+            // 运行时按 启动类名 + 后缀 查找生成类，只为顶层启动类生成
+            if (element.getKind() != ElementKind.CLASS || ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL) {
+                continue;
+            }
+            TypeElement application = (TypeElement) element;
+            if (!generated.add(application.getQualifiedName().toString())) {
+                continue;
+            }
+            try {
+                WiringPlan plan = WiringPlan.create(processingEnv, application, roundEnv.getRootElements());
+                write(application, new SourceWriter(application, plan).write());
+            } catch (WiringPlan.UnsupportedWiringException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Evelan context is not generated, the reflective container will be used: " + e.getMessage(), application);
+            }
+        }
+        return false;
+    }
+
+    private void write(TypeElement application, String source) {
+        String className = application.getQualifiedName() + GeneratedContext.CLASS_SUFFIX;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, application);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write generated context " + className + ": " + e.getMessage(), application);
+        }
+    }
+
+    /**
+     * 按装配计划输出源码
+     * <p>
+     * 生成类所在的包无法写出名字的类型（其他包的非 public 类）用 Object 声明变量，类对象在类初始化时按名称加载一次，
+     * 涉及这些类型的成员一律通过 MethodHandle 访问。
+     */
+    private final class SourceWriter {
+
+        private final Elements elements = processingEnv.getElementUtils();
+        private final Types types = processingEnv.getTypeUtils();
+        private final TypeElement application;
+        private final WiringPlan plan;
+        private final String packageName;
+        private final String simpleName;
+
+        private final Map<WiringPlan.Bean, String> variables = new HashMap<>();
+        // 静态字段声明和初始化表达式，按登记顺序初始化：类对象先于使用它的句柄
+        private final List<String> staticFields = new ArrayList<>();
+        private final List<String> staticInits = new ArrayList<>();
+        private final Map<String, String> classFields = new HashMap<>();
+        private int handleCount;
+        private final StringBuilder body = new StringBuilder();
+
+        SourceWriter(TypeElement application, WiringPlan plan) {
+            this.application = application;
+            this.plan = plan;
+            this.packageName = elements.getPackageOf(application).getQualifiedName().toString();
+            this.simpleName = application.getSimpleName() + GeneratedContext.CLASS_SUFFIX;
+        }
+
+        String write() throws WiringPlan.UnsupportedWiringException {
+            for (WiringPlan.Bean bean : this.plan.beans) {
+                this.variables.put(bean, "b" + this.variables.size());
+            }
+
+            this.body.append("        // 创建\n");
+            for (WiringPlan.Bean bean : this.plan.beans) {
+                writeCreation(bean);
+            }
+            this.body.append("        // 注入\n");
+            for (WiringPlan.Bean bean : this.plan.beans) {
+                for (WiringPlan.Injection injection : bean.injections) {
+                    writeInjection(bean, injection);
+                }
+            }
+            this.body.append("        // 初始化\n");
+            for (WiringPlan.Bean bean : this.plan.initOrder) {
+                if (bean.initMethod != null) {
+                    this.body.append("        ").append(invocation(bean.initMethod, bean, List.of())).append(";\n");
+                }
+            }
+            this.body.append("        // 注册\n");
+            for (WiringPlan.Bean bean : this.plan.beans) {
+                String destroyer = bean.destroyMethod == null ? "null" : "() -> " + invocation(bean.destroyMethod, bean, List.of());
+                this.body.append("        registry.register(").append(literal(bean.name)).append(", ")
+                        .append(classLiteral(bean.type.asType())).append(", ").append(this.variables.get(bean)).append(", ")
+                        .append(bean.order).append(", ").append(bean.primary).append(", ").append(destroyer).append(");\n");
+            }
+            return source();
+        }
+
+        private String source() {
+            StringBuilder out = new StringBuilder();
+            if (!this.packageName.isEmpty()) {
+                out.append("package ").append(this.packageName).append(";\n\n");
+            }
+            out.append("import net.evelan.frp.bootstrap.core.context.GeneratedContext;\n");
+            out.append("import net.evelan.frp.bootstrap.core.solver.PropertyResolver;\n\n");
+            out.append("import java.lang.invoke.MethodHandle;\n");
+            out.append("import java.lang.invoke.MethodHandles;\n");
+            out.append("import java.lang.invoke.MethodType;\n\n");
+            out.append("/**\n * ").append(this.application.getQualifiedName()).append(" 的装配代码，由 ContextGeneratorProcessor 生成，请勿修改\n */\n");
+            out.append("@javax.annotation.processing.Generated(\"").append(ContextGeneratorProcessor.class.getName()).append("\")\n");
+            out.append("public final class ").append(this.simpleName).append(" implements GeneratedContext {\n\n");
+            for (String field : this.staticFields) {
+                out.append("    private static final ").append(field).append(";\n");
+            }
+            if (!this.staticInits.isEmpty()) {
+                out.append("\n    static {\n        try {\n");
+                for (String init : this.staticInits) {
+                    out.append("            ").append(init).append(";\n");
+                }
+                out.append("        } catch (ReflectiveOperationException e) {\n");
+                out.append("            throw new ExceptionInInitializerError(e);\n");
+                out.append("        }\n    }\n\n");
+            }
+            out.append("    @Override\n");
+            out.append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            out.append("    public void load(Registry registry, PropertyResolver propertyResolver) throws Exception {\n");
+            out.append(this.body);
+            out.append("    }\n\n");
+            out.append("    private static MethodHandles.Lookup lookup(Class<?> owner) throws IllegalAccessException {\n");
+            out.append("        return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());\n");
+            out.append("    }\n\n");
+            out.append("    private static Object call(MethodHandle handle, Object... args) throws Exception {\n");
+            out.append("        try {\n");
+            out.append("            return handle.invokeWithArguments(args);\n");
+            out.append("        } catch (Exception | Error e) {\n");
+            out.append("            throw e;\n");
+            out.append("        } catch (Throwable e) {\n");
+            out.append("            throw new RuntimeException(e);\n");
+            out.append("        }\n");
+            out.append("    }\n");
+            out.append("}\n");
+            return out.toString();
+        }
+
+        private void writeCreation(WiringPlan.Bean bean) throws WiringPlan.UnsupportedWiringException {
+            TypeMirror type = bean.type.asType();
+            List<String> args = new ArrayList<>();
+            String creation;
+            if (bean.factory == null) {
+                ExecutableElement constructor = bean.creator;
+                boolean direct = isDirect(constructor, null);
+                for (WiringPlan.Argument argument : bean.arguments) {
+                    args.add(expression(argument, direct));
+                }
+                if (direct) {
+                    creation = "new " + typeName(type) + "(" + String.join(", ", args) + ")";
+                } else {
+                    String handle = handle("findConstructor(" + classLiteral(owner(constructor)) + ", " + methodType(constructor) + ")", constructor);
+                    creation = cast(type) + "call(" + join(handle, args) + ")";
+                }
+            } else {
+                boolean direct = isDirect(bean.creator, bean.factory);
+                for (WiringPlan.Argument argument : bean.arguments) {
+                    args.add(expression(argument, direct));
+                }
+                creation = invocation(bean.creator, bean.factory, args);
+                if (!direct) {
+                    creation = cast(type) + creation;
+                }
+            }
+            this.body.append("        ").append(variableType(type)).append(" ").append(this.variables.get(bean))
+                    .append(" = ").append(creation).append(";\n");
+        }
+
+        private void writeInjection(WiringPlan.Bean bean, WiringPlan.Injection injection) throws WiringPlan.UnsupportedWiringException {
+            WiringPlan.Argument argument = injection.argument();
+            if (argument.isAbsent()) {
+                // 可选依赖不存在时和运行时一样保持字段原值
+                return;
+            }
+            Element member = injection.member();
+            String statement;
+            if (member.getKind() == ElementKind.FIELD) {
+                String target = this.variables.get(bean);
+                if (isDirect(member, bean)) {
+                    statement = target + "." + member.getSimpleName() + " = " + expression(argument, true);
+                } else {
+                    String handle = handle("findSetter(" + classLiteral(owner(member)) + ", " + literal(member.getSimpleName().toString())
+                            + ", " + classLiteral(member.asType()) + ")", member);
+                    statement = "call(" + handle + ", " + target + ", " + expression(argument, false) + ")";
+                }
+            } else {
+                ExecutableElement method = (ExecutableElement) member;
+                statement = invocation(method, bean, List.of(expression(argument, isDirect(method, bean))));
+            }
+            this.body.append("        ").append(statement).append(";\n");
+        }
+
+        /**
+         * 调用方法：能访问时直接调用，否则通过 MethodHandle
+         * @param target 调用方法的 Bean，静态方法忽略
+         */
+        private String invocation(ExecutableElement method, WiringPlan.Bean target, List<String> args) throws WiringPlan.UnsupportedWiringException {
+            boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+            if (isDirect(method, target)) {
+                String receiver = isStatic ? typeName(owner(method)) : this.variables.get(target);
+                return receiver + "." + method.getSimpleName() + "(" + String.join(", ", args) + ")";
+            }
+            String handle = handle((isStatic ? "findStatic(" : "findVirtual(") + classLiteral(owner(method)) + ", "
+                    + literal(method.getSimpleName().toString()) + ", " + methodType(method) + ")", method);
+            List<String> callArgs = new ArrayList<>();
+            if (!isStatic) {
+                callArgs.add(this.variables.get(target));
+            }
+            callArgs.addAll(args);
+            return "call(" + join(handle, callArgs) + ")";
+        }
+
+        /**
+         * 能否直接访问成员：成员可见、参数 / 字段类型能写出名字，实例成员还要求目标变量不是用 Object 声明的
+         */
+        private boolean isDirect(Element member, WiringPlan.Bean target) {
+            if (!WiringPlan.isAccessible(member, this.packageName, this.elements)) {
+                return false;
+            }
+            if (target != null && !member.getModifiers().contains(Modifier.STATIC) && !isNameable(target.type.asType())) {
+                return false;
+            }
+            if (member instanceof ExecutableElement executable) {
+                for (VariableElement parameter : executable.getParameters()) {
+                    if (!isNameable(parameter.asType())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return isNameable(member.asType());
+        }
+
+        /**
+         * @param direct 是否直接传给构造方法、方法或字段，直接传递时按参数类型转型，保证重载和拆箱正确
+         */
+        private String expression(WiringPlan.Argument argument, boolean direct) throws WiringPlan.UnsupportedWiringException {
+            TypeMirror type = argument.type();
+            String cast = direct ? cast(type) : "";
+            if (argument.valueKey() != null) {
+                return cast + "propertyResolver.getRequiredProperty(" + literal(argument.valueKey()) + ", " + classLiteral(type) + ")";
+            }
+            if (argument.bean() == null) {
+                if (type.getKind().isPrimitive()) {
+                    throw new WiringPlan.UnsupportedWiringException("optional dependency of primitive type " + type);
+                }
+                return cast + "null";
+            }
+            return cast + this.variables.get(argument.bean());
+        }
+
+        private String handle(String lookup, Element member) throws WiringPlan.UnsupportedWiringException {
+            String name = "H" + this.handleCount++;
+            this.staticFields.add("MethodHandle " + name);
+            this.staticInits.add(name + " = lookup(" + classLiteral(owner(member)) + ")." + lookup);
+            return name;
+        }
+
+        private String methodType(ExecutableElement method) throws WiringPlan.UnsupportedWiringException {
+            StringBuilder out = new StringBuilder("MethodType.methodType(");
+            out.append(method.getKind() == ElementKind.CONSTRUCTOR ? "void.class" : classLiteral(method.getReturnType()));
+            for (VariableElement parameter : method.getParameters()) {
+                out.append(", ").append(classLiteral(parameter.asType()));
+            }
+            return out.append(")").toString();
+        }
+
+        /**
+         * 类对象：能写出名字时用类字面量，否则在类初始化时按二进制名称加载一次
+         */
+        private String classLiteral(TypeMirror type) throws WiringPlan.UnsupportedWiringException {
+            TypeMirror erased = this.types.erasure(type);
+            if (erased.getKind() == TypeKind.VOID || isNameable(erased)) {
+                return typeName(erased) + ".class";
+            }
+            if (erased.getKind() != TypeKind.DECLARED) {
+                throw new WiringPlan.UnsupportedWiringException("type " + type + " is not accessible from package '" + this.packageName + "'");
+            }
+            String binaryName = this.elements.getBinaryName((TypeElement) this.types.asElement(erased)).toString();
+            String field = this.classFields.get(binaryName);
+            if (field == null) {
+                field = "C" + this.classFields.size();
+                this.classFields.put(binaryName, field);
+                this.staticFields.add("Class<?> " + field);
+                this.staticInits.add(field + " = Class.forName(" + literal(binaryName) + ", false, " + this.simpleName + ".class.getClassLoader())");
+            }
+            return field;
+        }
+
+        private TypeMirror owner(Element member) {
+            return member.getEnclosingElement().asType();
+        }
+
+        private boolean isNameable(TypeMirror type) {
+            return WiringPlan.isNameable(this.types.erasure(type), this.packageName, this.elements);
+        }
+
+        private String variableType(TypeMirror type) {
+            return isNameable(type) ? typeName(type) : "Object";
+        }
+
+        private String cast(TypeMirror type) {
+            return isNameable(type) ? "(" + typeName(type) + ") " : "";
+        }
+
+        private String typeName(TypeMirror type) {
+            return this.types.erasure(type).toString();
+        }
+
+        private static String join(String first, List<String> rest) {
+            List<String> all = new ArrayList<>();
+            all.add(first);
+            all.addAll(rest);
+            return String.join(", ", all);
+        }
+
+        private static String literal(String value) {
+            StringBuilder out = new StringBuilder("\"");
+            for (char c : value.toCharArray()) {
+                switch (c) {
+                    case '"' -> out.append("\\\"");
+                    case '\\' -> out.append("\\\\");
+                    case '\n' -> out.append("\\n");
+                    case '\r' -> out.append("\\r");
+                    case '\t' -> out.append("\\t");
+                    default -> out.append(c);
+                }
+            }
+            return out.append('"').toString();
+        }
+    }
+}
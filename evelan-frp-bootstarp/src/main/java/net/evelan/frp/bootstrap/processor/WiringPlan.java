@@ -0,0 +1,619 @@
+package net.evelan.frp.bootstrap.processor;
+
+import net.evelan.frp.bootstrap.annotation.EApplication;
+import net.evelan.frp.bootstrap.annotation.aop.EAround;
+import net.evelan.frp.bootstrap.annotation.bean.EBean;
+import net.evelan.frp.bootstrap.annotation.bean.EComponent;
+import net.evelan.frp.bootstrap.annotation.bean.EConfiguration;
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EImport;
+import net.evelan.frp.bootstrap.annotation.lifecycle.ELazy;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EOrder;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPostConstruct;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPreDestroy;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPrimary;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EScope;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EValue;
+import net.evelan.frp.bootstrap.core.context.BeanPostProcessor;
+import net.evelan.frp.bootstrap.core.core.ObjectProvider;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期装配计划
+ * <p>
+ * 按 BeanDefinitionScanner、BeanInstantiator、DependencyInjector 相同的规则，在编译期完成扫描范围、Bean 名称、
+ * 构造方法选择、@EImport 按名称 / 类型匹配、@EPrimary 选择和创建顺序的计算，供 ContextGeneratorProcessor 生成源码。
+ * <p>
+ * 生成代码只覆盖能在编译期完全确定的装配。遇到需要运行时容器参与的特性（非 singleton 作用域、@ELazy、ObjectProvider、
+ * BeanPostProcessor、@EAround）或编译期无法确定的情况（依赖不在本次编译中、构造方法循环依赖等）时抛出 UnsupportedWiringException，
+ * 该启动类不生成代码，运行时仍使用反射容器。
+ */
+final class WiringPlan {
+
+    private static final String COMPONENT_ANNOTATION = EComponent.class.getCanonicalName();
+    private static final String CONFIGURATION_ANNOTATION = EConfiguration.class.getCanonicalName();
+
+    /**
+     * 按创建顺序排列的 Bean
+     */
+    final List<Bean> beans;
+
+    /**
+     * 按注入完成后调用 init 方法的顺序排列的 Bean：依赖的 Bean 先初始化
+     */
+    final List<Bean> initOrder;
+
+    private WiringPlan(List<Bean> beans, List<Bean> initOrder) {
+        this.beans = beans;
+        this.initOrder = initOrder;
+    }
+
+    /**
+     * 计算启动类的装配计划
+     * @param env 处理环境
+     * @param application @EApplication 启动类
+     * @param rootElements 本次编译的全部类型
+     */
+    static WiringPlan create(ProcessingEnvironment env, TypeElement application, Set<? extends Element> rootElements)
+            throws UnsupportedWiringException {
+        return new Planner(env, application).plan(rootElements);
+    }
+
+    /**
+     * 单个 Bean
+     */
+    static final class Bean {
+        final String name;
+        // 注册到容器的类型：类本身或工厂方法的返回类型
+        final TypeElement type;
+        final boolean configuration;
+        final int order;
+        final boolean primary;
+        // 构造方法或工厂方法
+        final ExecutableElement creator;
+        // 工厂方法所在的配置类 Bean，构造方法创建时为 null
+        final Bean factory;
+        final List<Argument> arguments = new ArrayList<>();
+        final List<Injection> injections = new ArrayList<>();
+        ExecutableElement initMethod;
+        ExecutableElement destroyMethod;
+
+        Bean(String name, TypeElement type, boolean configuration, int order, boolean primary, ExecutableElement creator, Bean factory) {
+            this.name = name;
+            this.type = type;
+            this.configuration = configuration;
+            this.order = order;
+            this.primary = primary;
+            this.creator = creator;
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * 构造参数、工厂方法参数或注入点的值：@EValue 配置项、容器中的 Bean，或可选依赖缺失时的 null
+     *
+     * @param type 参数、字段或 setter 参数的类型
+     * @param valueKey @EValue 的配置项，不是 @EValue 时为 null
+     * @param bean 注入的 Bean，@EValue 或依赖缺失时为 null
+     */
+    record Argument(TypeMirror type, String valueKey, Bean bean) {
+        boolean isAbsent() {
+            return this.valueKey == null && this.bean == null;
+        }
+    }
+
+    /**
+     * 字段或 setter 注入点
+     *
+     * @param member 字段或 setter 方法
+     * @param argument 注入的值
+     */
+    record Injection(Element member, Argument argument) {
+    }
+
+    /**
+     * 无法在编译期生成装配代码
+     */
+    static final class UnsupportedWiringException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedWiringException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Planner {
+
+        private final Elements elements;
+        private final Types types;
+        private final TypeElement application;
+        private final TypeMirror postProcessorType;
+        private final TypeMirror providerType;
+
+        private final Map<String, Bean> beans = new LinkedHashMap<>();
+        // 每个 Bean 待解析的构造 / 工厂方法参数和注入点，所有 Bean 登记完之后再解析
+        private final Map<Bean, TypeElement> beanClasses = new HashMap<>();
+
+        Planner(ProcessingEnvironment env, TypeElement application) {
+            this.elements = env.getElementUtils();
+            this.types = env.getTypeUtils();
+            this.application = application;
+            this.postProcessorType = erasure(BeanPostProcessor.class.getCanonicalName());
+            this.providerType = erasure(ObjectProvider.class.getCanonicalName());
+        }
+
+        private TypeMirror erasure(String className) {
+            TypeElement element = this.elements.getTypeElement(className);
+            return element == null ? null : this.types.erasure(element.asType());
+        }
+
+        WiringPlan plan(Set<? extends Element> rootElements) throws UnsupportedWiringException {
+            AnnotationMirror mirror = findMirror(this.application, EApplication.class.getCanonicalName());
+            List<String> basePackages = basePackages(mirror);
+            Set<String> excludeClasses = new HashSet<>();
+            for (Object value : values(mirror, "exclude")) {
+                excludeClasses.add(this.types.erasure((TypeMirror) value).toString());
+            }
+            List<String> excludePackages = new ArrayList<>();
+            for (Object value : values(mirror, "excludePackages")) {
+                excludePackages.add((String) value);
+            }
+
+            for (TypeElement type : ElementFilter.typesIn(rootElements)) {
+                collect(type, basePackages, excludeClasses, excludePackages);
+            }
+            for (Map.Entry<Bean, TypeElement> entry : this.beanClasses.entrySet()) {
+                resolve(entry.getKey(), entry.getValue());
+            }
+
+            List<Bean> sorted = new ArrayList<>(this.beans.values());
+            // 和 EvelanConfigApplicationContext 一致：先创建配置类，再按 @EOrder、名称创建其他 Bean
+            sorted.sort(Comparator.comparing((Bean bean) -> !bean.configuration)
+                    .thenComparingInt(bean -> bean.order)
+                    .thenComparing(bean -> bean.name));
+            List<Bean> creationOrder = new ArrayList<>();
+            Set<Bean> creating = new HashSet<>();
+            for (Bean bean : sorted) {
+                visitCreation(bean, creating, creationOrder);
+            }
+            List<Bean> initOrder = new ArrayList<>();
+            Set<Bean> visited = new HashSet<>();
+            for (Bean bean : creationOrder) {
+                visitInit(bean, visited, initOrder);
+            }
+            return new WiringPlan(List.copyOf(creationOrder), List.copyOf(initOrder));
+        }
+
+        /**
+         * 深度优先排序：构造参数、工厂 Bean 先于当前 Bean 创建
+         */
+        private void visitCreation(Bean bean, Set<Bean> creating, List<Bean> order) throws UnsupportedWiringException {
+            if (order.contains(bean)) {
+                return;
+            }
+            if (!creating.add(bean)) {
+                throw new UnsupportedWiringException("circular dependency detected when creating bean '" + bean.name + "'");
+            }
+            if (bean.factory != null) {
+                visitCreation(bean.factory, creating, order);
+            }
+            for (Argument argument : bean.arguments) {
+                if (argument.bean() != null) {
+                    visitCreation(argument.bean(), creating, order);
+                }
+            }
+            creating.remove(bean);
+            order.add(bean);
+        }
+
+        /**
+         * 字段 / setter 允许循环依赖，init 顺序只尽量让依赖先初始化
+         */
+        private void visitInit(Bean bean, Set<Bean> visited, List<Bean> order) {
+            if (!visited.add(bean)) {
+                return;
+            }
+            if (bean.factory != null) {
+                visitInit(bean.factory, visited, order);
+            }
+            for (Argument argument : bean.arguments) {
+                if (argument.bean() != null) {
+                    visitInit(argument.bean(), visited, order);
+                }
+            }
+            for (Injection injection : bean.injections) {
+                if (injection.argument().bean() != null) {
+                    visitInit(injection.argument().bean(), visited, order);
+                }
+            }
+            order.add(bean);
+        }
+
+        // --- 扫描范围 ---
+
+        private List<String> basePackages(AnnotationMirror mirror) {
+            Set<String> packages = new TreeSet<>();
+            for (Object value : values(mirror, "scanBasePackages")) {
+                String basePackage = (String) value;
+                if (!basePackage.isBlank()) {
+                    packages.add(basePackage.trim());
+                }
+            }
+            for (Object value : values(mirror, "scanBasePackageClasses")) {
+                Element element = this.types.asElement((TypeMirror) value);
+                packages.add(this.elements.getPackageOf(element).getQualifiedName().toString());
+            }
+            if (packages.isEmpty()) {
+                packages.add(packageName(this.application));
+            }
+            return new ArrayList<>(packages);
+        }
+
+        private List<Object> values(AnnotationMirror mirror, String name) {
+            List<Object> result = new ArrayList<>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : this.elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(name)) {
+                    for (Object value : (List<?>) entry.getValue().getValue()) {
+                        result.add(((AnnotationValue) value).getValue());
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static boolean isInPackages(String packageName, List<String> packages) {
+            for (String p : packages) {
+                if (p.isEmpty() || packageName.equals(p) || packageName.startsWith(p + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // --- BeanDefinition ---
+
+        private void collect(TypeElement type, List<String> basePackages, Set<String> excludeClasses, List<String> excludePackages)
+                throws UnsupportedWiringException {
+            // 和 BeanIndexProcessor、类路径扫描一致，只处理顶层类
+            boolean properties = type.getAnnotation(EConfigurationProperties.class) != null;
+            if ((type.getKind() != ElementKind.CLASS && !properties) || !BeanIndexProcessor.isComponent(type, new HashSet<>())) {
+                return;
+            }
+            String packageName = packageName(type);
+            if (!isInPackages(packageName, basePackages) || excludeClasses.contains(type.getQualifiedName().toString())
+                    || isInPackages(packageName, excludePackages)) {
+                return;
+            }
+            if (properties) {
+                // 配置绑定的 Bean 由运行时的 PropertyResolver 创建
+                throw new UnsupportedWiringException(type + " is bound by @EConfigurationProperties");
+            }
+            if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+                throw new UnsupportedWiringException("abstract class " + type + " cannot be instantiated");
+            }
+            checkSingleton(type, type);
+            boolean configuration = BeanIndexProcessor.isAnnotated(type, CONFIGURATION_ANNOTATION, new HashSet<>());
+            Bean bean = new Bean(componentName(type), type, configuration, order(type), type.getAnnotation(EPrimary.class) != null,
+                    suitableConstructor(type), null);
+            bean.initMethod = annotatedMethod(type, EPostConstruct.class);
+            bean.destroyMethod = annotatedMethod(type, EPreDestroy.class);
+            add(bean, type);
+
+            if (configuration) {
+                for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    EBean eBean = method.getAnnotation(EBean.class);
+                    if (eBean != null) {
+                        collectFactoryMethod(bean, method, eBean);
+                    }
+                }
+            }
+        }
+
+        private void collectFactoryMethod(Bean factory, ExecutableElement method, EBean eBean) throws UnsupportedWiringException {
+            Set<Modifier> modifiers = method.getModifiers();
+            TypeMirror returnType = method.getReturnType();
+            if (modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE)
+                    || returnType.getKind() != TypeKind.DECLARED) {
+                throw new UnsupportedWiringException("invalid @EBean method " + factory.type + "." + method.getSimpleName());
+            }
+            TypeElement beanType = (TypeElement) this.types.asElement(returnType);
+            checkSingleton(method, beanType);
+            String name = eBean.value().isEmpty() ? method.getSimpleName().toString() : eBean.value();
+            Bean bean = new Bean(name, beanType, false, order(method), method.getAnnotation(EPrimary.class) != null, method, factory);
+            bean.initMethod = namedMethod(beanType, eBean.initMethod());
+            bean.destroyMethod = namedMethod(beanType, eBean.destroyMethod());
+            add(bean, null);
+        }
+
+        private void add(Bean bean, TypeElement beanClass) throws UnsupportedWiringException {
+            if (this.beans.put(bean.name, bean) != null) {
+                throw new UnsupportedWiringException("duplicate bean name: " + bean.name);
+            }
+            this.beanClasses.put(bean, beanClass);
+        }
+
+        /**
+         * 生成代码只处理立即初始化的 singleton，BeanPostProcessor 和 @EAround 需要包装 Bean，同样交给运行时容器
+         */
+        private void checkSingleton(Element element, TypeElement beanType) throws UnsupportedWiringException {
+            EScope scope = element.getAnnotation(EScope.class);
+            if (scope != null && !EScope.SINGLETON.equals(scope.value())) {
+                throw new UnsupportedWiringException(element + " has @EScope(\"" + scope.value() + "\")");
+            }
+            ELazy lazy = element.getAnnotation(ELazy.class);
+            if (lazy != null && lazy.value()) {
+                throw new UnsupportedWiringException(element + " is marked with @ELazy");
+            }
+            if (this.postProcessorType != null && this.types.isAssignable(this.types.erasure(beanType.asType()), this.postProcessorType)) {
+                throw new UnsupportedWiringException(beanType + " is a BeanPostProcessor");
+            }
+            // 生成代码直接注入原始实例，@EAround 代理由运行时容器创建
+            for (TypeElement type = beanType; type != null; type = superclass(type)) {
+                if (type.getAnnotation(EAround.class) != null || ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                        .anyMatch(method -> method.getAnnotation(EAround.class) != null)) {
+                    throw new UnsupportedWiringException(beanType + " is advised by @EAround");
+                }
+            }
+        }
+
+        private String componentName(TypeElement type) {
+            String name = "";
+            for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+                if (annotationType.getQualifiedName().contentEquals(COMPONENT_ANNOTATION)
+                        || findMirror(annotationType, COMPONENT_ANNOTATION) != null) {
+                    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                            : this.elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                        if (entry.getKey().getSimpleName().contentEquals("value")) {
+                            name = (String) entry.getValue().getValue();
+                        }
+                    }
+                }
+            }
+            if (name.isEmpty()) {
+                name = type.getSimpleName().toString();
+                name = name.substring(0, 1).toLowerCase() + name.substring(1);
+            }
+            return name;
+        }
+
+        private static int order(Element element) {
+            EOrder order = element.getAnnotation(EOrder.class);
+            return order == null ? Integer.MAX_VALUE : order.value();
+        }
+
+        private ExecutableElement suitableConstructor(TypeElement type) throws UnsupportedWiringException {
+            List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+            List<ExecutableElement> publicConstructors = constructors.stream()
+                    .filter(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC))
+                    .toList();
+            List<ExecutableElement> candidates = publicConstructors.isEmpty() ? constructors : publicConstructors;
+            if (candidates.size() != 1) {
+                throw new UnsupportedWiringException("more than one constructor found in class: " + type);
+            }
+            return candidates.get(0);
+        }
+
+        private static ExecutableElement annotatedMethod(TypeElement type, Class<? extends java.lang.annotation.Annotation> annotation)
+                throws UnsupportedWiringException {
+            ExecutableElement found = null;
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (method.getAnnotation(annotation) == null) {
+                    continue;
+                }
+                if (found != null || !method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)) {
+                    throw new UnsupportedWiringException("invalid @" + annotation.getSimpleName() + " method in class: " + type);
+                }
+                found = method;
+            }
+            return found;
+        }
+
+        /**
+         * @EBean 的 initMethod / destroyMethod 只在返回类型中查找，实际类型是子类时交给运行时容器按实例查找
+         */
+        private static ExecutableElement namedMethod(TypeElement type, String name) throws UnsupportedWiringException {
+            if (name.isEmpty()) {
+                return null;
+            }
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()
+                        && !method.getModifiers().contains(Modifier.STATIC)) {
+                    return method;
+                }
+            }
+            throw new UnsupportedWiringException("method '" + name + "' not found in class: " + type);
+        }
+
+        // --- 依赖解析 ---
+
+        private void resolve(Bean bean, TypeElement beanClass) throws UnsupportedWiringException {
+            for (VariableElement parameter : bean.creator.getParameters()) {
+                EValue value = parameter.getAnnotation(EValue.class);
+                EImport eImport = parameter.getAnnotation(EImport.class);
+                if ((value == null) == (eImport == null) || bean.configuration && eImport != null) {
+                    throw new UnsupportedWiringException("invalid parameter '" + parameter + "' when create bean '" + bean.name + "'");
+                }
+                bean.arguments.add(argument(parameter, parameter.asType(), value, eImport));
+            }
+            if (beanClass == null) {
+                // 和运行时一致：工厂方法创建的 Bean 不做字段 / setter 注入
+                return;
+            }
+            for (TypeElement type = beanClass; type != null; type = superclass(type)) {
+                for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    Injection injection = injection(field, field.asType());
+                    if (injection != null) {
+                        bean.injections.add(injection);
+                    }
+                }
+                for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    if (method.getAnnotation(EValue.class) == null && method.getAnnotation(EImport.class) == null) {
+                        continue;
+                    }
+                    if (method.getParameters().size() != 1) {
+                        throw new UnsupportedWiringException("cannot inject a non-setter method " + method + " of class: " + type);
+                    }
+                    bean.injections.add(injection(method, method.getParameters().get(0).asType()));
+                }
+            }
+        }
+
+        private Injection injection(Element member, TypeMirror type) throws UnsupportedWiringException {
+            EValue value = member.getAnnotation(EValue.class);
+            EImport eImport = member.getAnnotation(EImport.class);
+            if (value == null && eImport == null) {
+                return null;
+            }
+            Set<Modifier> modifiers = member.getModifiers();
+            if (value != null && eImport != null || modifiers.contains(Modifier.STATIC)
+                    || member.getKind() == ElementKind.FIELD && modifiers.contains(Modifier.FINAL)) {
+                throw new UnsupportedWiringException("cannot inject " + member.getEnclosingElement() + "." + member);
+            }
+            return new Injection(member, argument(member, type, value, eImport));
+        }
+
+        private Argument argument(Element element, TypeMirror type, EValue value, EImport eImport) throws UnsupportedWiringException {
+            if (value != null) {
+                return new Argument(type, value.value(), null);
+            }
+            TypeMirror required = this.types.erasure(type);
+            ELazy lazy = element.getAnnotation(ELazy.class);
+            if (lazy != null && lazy.value() || this.providerType != null && this.types.isSameType(required, this.providerType)) {
+                throw new UnsupportedWiringException(element + " is a deferred injection point");
+            }
+            Bean bean = eImport.value().isEmpty() ? findBean(required) : this.beans.get(eImport.value());
+            if (bean != null && !this.types.isAssignable(this.types.erasure(bean.type.asType()), required)) {
+                throw new UnsupportedWiringException("bean '" + bean.name + "' is not assignable to " + required);
+            }
+            if (bean == null && eImport.isRequired()) {
+                // 依赖可能来自其他 jar，编译期看不到
+                throw new UnsupportedWiringException("no bean of type " + required + " found for " + element);
+            }
+            return new Argument(type, null, bean);
+        }
+
+        private Bean findBean(TypeMirror required) throws UnsupportedWiringException {
+            List<Bean> candidates = new ArrayList<>();
+            for (Bean bean : this.beans.values()) {
+                if (this.types.isAssignable(this.types.erasure(bean.type.asType()), required)) {
+                    candidates.add(bean);
+                }
+            }
+            if (candidates.size() <= 1) {
+                return candidates.isEmpty() ? null : candidates.get(0);
+            }
+            List<Bean> primary = candidates.stream().filter(bean -> bean.primary).toList();
+            if (primary.size() != 1) {
+                throw new UnsupportedWiringException("multiple beans with type " + required + " found");
+            }
+            return primary.get(0);
+        }
+
+        private TypeElement superclass(TypeElement type) {
+            TypeMirror superclass = type.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                return null;
+            }
+            TypeElement element = (TypeElement) this.types.asElement(superclass);
+            return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+        }
+
+        private AnnotationMirror findMirror(Element element, String annotationName) {
+            return findMirror(element, annotationName, new HashSet<>());
+        }
+
+        private AnnotationMirror findMirror(Element element, String annotationName, Set<String> visited) {
+            for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+                String name = annotationType.getQualifiedName().toString();
+                if (name.equals(annotationName)) {
+                    return mirror;
+                }
+                if (!name.startsWith("java.lang.annotation.") && visited.add(name)) {
+                    AnnotationMirror found = findMirror(annotationType, annotationName, visited);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private String packageName(Element element) {
+            PackageElement packageElement = this.elements.getPackageOf(element);
+            return packageElement.getQualifiedName().toString();
+        }
+    }
+
+    /**
+     * 判断类型能否在生成代码中直接写出，数组按元素类型判断
+     */
+    static boolean isNameable(TypeMirror type, String packageName, Elements elements) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isNameable(((ArrayType) type).getComponentType(), packageName, elements);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return type.getKind().isPrimitive();
+        }
+        return isAccessible((TypeElement) ((DeclaredType) type).asElement(), packageName, elements);
+    }
+
+    /**
+     * 判断类型对生成类所在的包是否可见（包括外部类）
+     */
+    static boolean isAccessible(TypeElement type, String packageName, Elements elements) {
+        for (Element e = type; e instanceof TypeElement t; e = e.getEnclosingElement()) {
+            Set<Modifier> modifiers = t.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(t).getQualifiedName().contentEquals(packageName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断字段、方法、构造方法能否在生成代码中直接访问
+     */
+    static boolean isAccessible(Element member, String packageName, Elements elements) {
+        TypeElement owner = (TypeElement) member.getEnclosingElement();
+        if (!isAccessible(owner, packageName, elements)) {
+            return false;
+        }
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !modifiers.contains(Modifier.PRIVATE) && elements.getPackageOf(owner).getQualifiedName().contentEquals(packageName);
+    }
+}
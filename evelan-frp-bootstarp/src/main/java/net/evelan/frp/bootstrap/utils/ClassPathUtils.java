@@ -4,6 +4,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 
 public class ClassPathUtils {
@@ -29,6 +30,16 @@ public class ClassPathUtils {
         });
     }
 
+    /**
+     * 查找类路径资源，不存在时返回 null
+     */
+    public static URL getResource(String path) {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return getContextClassLoader().getResource(path);
+    }
+
     static ClassLoader getContextClassLoader() {
         ClassLoader cl = null;
         cl = Thread.currentThread().getContextClassLoader();
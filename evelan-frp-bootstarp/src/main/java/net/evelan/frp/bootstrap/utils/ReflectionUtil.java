@@ -1,11 +1,15 @@
 package net.evelan.frp.bootstrap.utils;
 
+import net.evelan.frp.bootstrap.core.context.AnnotationClassFilter;
 import net.evelan.frp.bootstrap.core.context.ClassPathScanner;
+import net.evelan.frp.bootstrap.core.context.ScanMode;
 
 import java.lang.annotation.Annotation;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -24,13 +28,46 @@ public class ReflectionUtil {
     public static Set<Class<?>> findAnnotatedClasses(String packageName,
                                                      List<Class<? extends Annotation>> annotationClass,
                                                      boolean recursive) {
+        return findAnnotatedClasses(packageName, annotationClass, recursive, ScanMode.SERIAL);
+    }
+
+    /**
+     * 查找包中所有被特定注解标记的类
+     * @param packageName 要扫描的包名
+     * @param annotationClass 注解类型
+     * @param recursive 是否递归扫描子包
+     * @param mode 扫描模式（串行 / 并行）
+     * @return 被扫描的集合，保持扫描顺序
+     */
+    public static Set<Class<?>> findAnnotatedClasses(String packageName,
+                                                     List<Class<? extends Annotation>> annotationClass,
+                                                     boolean recursive,
+                                                     ScanMode mode) {
+        return findAnnotatedClasses(packageName, annotationClass, recursive, mode, root -> true);
+    }
+
+    /**
+     * 查找包中所有被特定注解标记的类
+     * @param packageName 要扫描的包名
+     * @param annotationClass 注解类型
+     * @param recursive 是否递归扫描子包
+     * @param mode 扫描模式（串行 / 并行）
+     * @param rootFilter 类路径根过滤条件，只扫描通过过滤的目录 / jar
+     * @return 被扫描的集合，保持扫描顺序
+     */
+    public static Set<Class<?>> findAnnotatedClasses(String packageName,
+                                                     List<Class<? extends Annotation>> annotationClass,
+                                                     boolean recursive,
+                                                     ScanMode mode,
+                                                     Predicate<String> rootFilter) {
         try {
-            // 先拿到包里面所有的类
-            Set<Class<?>> allClasses = ClassPathScanner.getPackageAllClasses(packageName, recursive);
+            // 先按字节码预过滤，只加载可能被指定注解标记的类
+            AnnotationClassFilter filter = new AnnotationClassFilter(Thread.currentThread().getContextClassLoader(), annotationClass);
+            Set<Class<?>> allClasses = ClassPathScanner.getPackageAllClasses(packageName, recursive, filter, mode, rootFilter);
             // 从所有类中过滤出被指定注解标记的类
             return allClasses.stream()
                     .filter(clazz -> annotationClass.stream().anyMatch(ann -> isAnnotationPresentOrMetaPresent(clazz, ann)))
-                    .collect(Collectors.toSet());
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
         } catch (Exception e) {
             throw new RuntimeException("Scan Annotation Class Fail: " + e.getMessage(), e);
         }
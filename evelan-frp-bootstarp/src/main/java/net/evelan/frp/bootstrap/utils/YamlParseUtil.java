@@ -7,59 +7,87 @@ import org.yaml.snakeyaml.constructor.Constructor;
 import org.yaml.snakeyaml.representer.Representer;
 import org.yaml.snakeyaml.resolver.Resolver;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Yaml 解析工具类
+ * <p>
+ * 配置文件使用 loadYamlProperties / loadYamlPlainMap，直接把解析事件转成扁平的 server.port 形式，不构建中间的树（见 {@link YamlPropertyLoader}）；
+ * 需要完整的树结构时使用 loadYaml。
  */
 @SuppressWarnings("unused")
 public class YamlParseUtil {
 
-    private static final Yaml yaml = new Yaml();
-
+    /**
+     * 加载类路径下的 yaml，多文档文件中只合并无条件的文档和文件中 evelan.profiles.active 激活的文档
+     */
     public static Map<String, Object> loadYamlPlainMap(String path) {
-        Map<String, Object> data = loadYaml(path);
-        Map<String, Object> plain = new LinkedHashMap<>();
-        convertTo(data, "", plain);
-        return plain;
+        return new LinkedHashMap<>(loadYamlProperties(path, List.of()));
+    }
+
+    /**
+     * 从文件系统加载，用于配置文件重新加载
+     */
+    public static Map<String, Object> loadYamlPlainMap(Path file) {
+        return new LinkedHashMap<>(loadYamlProperties(file, List.of()));
+    }
+
+    /**
+     * 加载类路径下的 yaml 并转为扁平的配置
+     * @param activeProfiles 激活的 profile，为空时使用文件中的 evelan.profiles.active
+     */
+    public static Map<String, String> loadYamlProperties(String path, Collection<String> activeProfiles) {
+        return ClassPathUtils.readInputStream(path, (input) -> {
+            return YamlPropertyLoader.load(new InputStreamReader(input, StandardCharsets.UTF_8), activeProfiles);
+        });
+    }
+
+    /**
+     * 从文件系统加载 yaml 并转为扁平的配置
+     * @param activeProfiles 激活的 profile，为空时使用文件中的 evelan.profiles.active
+     */
+    public static Map<String, String> loadYamlProperties(Path file, Collection<String> activeProfiles) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return YamlPropertyLoader.load(reader, activeProfiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read yaml: " + file, e);
+        }
     }
 
     @SuppressWarnings("unchecked")
     public static Map<String, Object> loadYaml(String path) {
-        var loaderOptions = new LoaderOptions();
-        var dumperOptions = new DumperOptions();
-        var representer = new Representer(dumperOptions);
-        var resolver = new Resolver();
-        var yaml = new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
+        var yaml = newYaml();
         return ClassPathUtils.readInputStream(path, (input) -> {
             return (Map<String, Object>) yaml.load(input);
         });
     }
 
-
-    /**
-     * 递归将树状结构变成扁平结构
-     * Yaml解析出来的格式是嵌套Map，保留yaml中的格式，如 server:port:8080,现在需要嵌套修改为 server.port:8080, 这样才符合需要的值，方便后续Value和Properties阅读和解析
-     * @param source yaml utils解析出来的原字典，也是每一层递归的输入
-     * @param prefix 前缀，默认是空，后续为当前节点的父节点
-     * @param plain 输出字典
-     */
-    static void convertTo(Map<String, Object> source, String prefix, Map<String, Object> plain) {
-        for (String key : source.keySet()) {
-            Object value = source.get(key);
-            if (value instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> subMap = (Map<String, Object>) value;
-                convertTo(subMap, prefix + key + ".", plain);
-            } else if (value instanceof List) {
-                plain.put(prefix + key, value);
-            } else {
-                plain.put(prefix + key, value.toString());
-            }
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> loadYaml(Path file) {
+        var yaml = newYaml();
+        try (InputStream input = Files.newInputStream(file)) {
+            return (Map<String, Object>) yaml.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read yaml: " + file, e);
         }
     }
+
+    private static Yaml newYaml() {
+        var loaderOptions = new LoaderOptions();
+        var dumperOptions = new DumperOptions();
+        var representer = new Representer(dumperOptions);
+        var resolver = new Resolver();
+        return new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
+    }
 }
@@ -0,0 +1,248 @@
+package net.evelan.frp.bootstrap.utils;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * 直接把 SnakeYAML 的解析事件转成扁平的配置，不构建中间的 Map / List 树
+ * <p>
+ * 转换规则：
+ * <ul>
+ *     <li>嵌套的 key 用 '.' 连接：server.port</li>
+ *     <li>列表元素使用下标：routes[0].host；只包含标量的列表同时生成逗号分隔的值：ports=80,443</li>
+ *     <li>标量保留原文，只有 YAML 1.1 的布尔值（yes / on / off ...）统一为 true / false，null、~ 和空值转为空字符串</li>
+ *     <li>空的 Map / 列表转为空字符串</li>
+ *     <li>支持锚点、别名和合并 key（&lt;&lt;: *base），合并进来的值不覆盖 Map 中显式写出的值</li>
+ * </ul>
+ * 多文档文件中带有 spring.profiles / evelan.profiles / spring.config.activate.on-profile 的文档只在对应的 profile 激活时生效，
+ * 条件可以写多个（逗号分隔，满足任意一个即可），!prod 表示 prod 没有激活时生效。生效的文档按出现顺序合并，后面的覆盖前面的。
+ * 没有指定激活的 profile 时，使用无条件文档中的 evelan.profiles.active。
+ */
+final class YamlPropertyLoader {
+
+    static final String PROFILES_ACTIVE = "evelan.profiles.active";
+    private static final String[] PROFILE_CONDITION_KEYS = {"evelan.profiles", "spring.profiles", "spring.config.activate.on-profile"};
+    private static final String MERGE_KEY = "<<";
+
+    // 只读使用，可以共享
+    private static final LoaderOptions LOADER_OPTIONS = new LoaderOptions();
+
+    private final Parser parser;
+    // 当前文档的扁平配置
+    private Map<String, String> document;
+    // 当前文档中按写入顺序记录的 key，用于截取锚点范围内的配置
+    private List<String> written;
+    // 锚点 -> 相对于锚点节点的 { 后缀 : 值 }，别名在文档之间共享
+    private final Map<String, List<String[]>> anchors = new HashMap<>();
+
+    private YamlPropertyLoader(Reader reader) {
+        this.parser = new ParserImpl(new StreamReader(reader), LOADER_OPTIONS);
+    }
+
+    /**
+     * 解析并按 profile 合并所有文档
+     * @param activeProfiles 激活的 profile，为空时使用文件中的 evelan.profiles.active
+     */
+    static Map<String, String> load(Reader reader, Collection<String> activeProfiles) {
+        List<Map<String, String>> documents = new YamlPropertyLoader(reader).documents();
+        Collection<String> profiles = activeProfiles;
+        if (profiles.isEmpty()) {
+            String active = null;
+            for (Map<String, String> document : documents) {
+                if (condition(document) == null && document.containsKey(PROFILES_ACTIVE)) {
+                    active = document.get(PROFILES_ACTIVE);
+                }
+            }
+            profiles = active == null ? List.of() : split(active);
+        }
+        Map<String, String> merged = new LinkedHashMap<>();
+        for (Map<String, String> document : documents) {
+            String condition = condition(document);
+            if (condition == null || matches(condition, profiles)) {
+                merged.putAll(document);
+            }
+        }
+        return merged;
+    }
+
+    private List<Map<String, String>> documents() {
+        List<Map<String, String>> documents = new ArrayList<>();
+        while (true) {
+            Event event = this.parser.getEvent();
+            switch (event.getEventId()) {
+                case DocumentStart -> {
+                    this.document = new LinkedHashMap<>();
+                    this.written = new ArrayList<>();
+                }
+                case DocumentEnd -> documents.add(this.document);
+                case StreamEnd -> {
+                    return documents;
+                }
+                case MappingStart, SequenceStart, Scalar, Alias -> node(event, "", false);
+                default -> {
+                    // StreamStart、Comment
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理一个节点（标量、Map、列表或别名），节点的起始事件已经读取
+     * @param path 节点对应的 key，文档根节点为空字符串
+     * @param merge 是否是合并 key 的值，合并的值不覆盖已有的配置
+     * @return 节点是否是标量
+     */
+    private boolean node(Event event, String path, boolean merge) {
+        int start = this.written.size();
+        boolean scalar = false;
+        switch (event.getEventId()) {
+            case Scalar -> {
+                scalar = true;
+                put(path, scalarValue((ScalarEvent) event), merge);
+            }
+            case Alias -> {
+                List<String[]> entries = this.anchors.get(((AliasEvent) event).getAnchor());
+                if (entries == null) {
+                    throw new IllegalArgumentException("Unknown yaml alias: " + ((AliasEvent) event).getAnchor() + " " + event.getStartMark());
+                }
+                for (String[] entry : entries) {
+                    put(path + entry[0], entry[1], merge);
+                }
+                scalar = entries.size() == 1 && entries.get(0)[0].isEmpty();
+            }
+            case MappingStart -> mapping(path, merge);
+            case SequenceStart -> sequence(path, merge);
+            default -> throw new IllegalStateException("Unexpected yaml event: " + event);
+        }
+        String anchor = event instanceof NodeEvent nodeEvent && !(event instanceof AliasEvent) ? nodeEvent.getAnchor() : null;
+        if (anchor != null) {
+            List<String[]> entries = new ArrayList<>(this.written.size() - start);
+            for (String key : this.written.subList(start, this.written.size())) {
+                entries.add(new String[]{key.substring(path.length()), this.document.get(key)});
+            }
+            this.anchors.put(anchor, entries);
+        }
+        return scalar;
+    }
+
+    private void mapping(String path, boolean merge) {
+        int start = this.written.size();
+        while (true) {
+            Event keyEvent = this.parser.getEvent();
+            if (keyEvent.is(Event.ID.MappingEnd)) {
+                break;
+            }
+            if (!(keyEvent instanceof ScalarEvent keyScalar)) {
+                throw new IllegalArgumentException("Unsupported yaml key (only scalar keys are supported) " + keyEvent.getStartMark());
+            }
+            String key = keyScalar.getValue();
+            Event value = this.parser.getEvent();
+            if (MERGE_KEY.equals(key) && keyScalar.isPlain()) {
+                if (value.is(Event.ID.SequenceStart)) {
+                    // <<: [*a, *b]
+                    for (Event item = this.parser.getEvent(); !item.is(Event.ID.SequenceEnd); item = this.parser.getEvent()) {
+                        node(item, path, true);
+                    }
+                } else {
+                    node(value, path, true);
+                }
+            } else {
+                node(value, path.isEmpty() ? key : path + "." + key, merge);
+            }
+        }
+        if (this.written.size() == start && !path.isEmpty()) {
+            put(path, "", merge);
+        }
+    }
+
+    private void sequence(String path, boolean merge) {
+        int index = 0;
+        boolean scalars = true;
+        StringJoiner joined = new StringJoiner(",");
+        while (true) {
+            Event item = this.parser.getEvent();
+            if (item.is(Event.ID.SequenceEnd)) {
+                break;
+            }
+            String itemPath = path + "[" + index++ + "]";
+            if (node(item, itemPath, merge)) {
+                joined.add(this.document.get(itemPath));
+            } else {
+                scalars = false;
+            }
+        }
+        if (scalars) {
+            // 空列表同样得到空字符串
+            put(path, joined.toString(), merge);
+        }
+    }
+
+    private void put(String key, String value, boolean merge) {
+        if (key.isEmpty()) {
+            // 文档根节点是标量
+            return;
+        }
+        String previous = merge ? this.document.putIfAbsent(key, value) : this.document.put(key, value);
+        if (previous == null) {
+            this.written.add(key);
+        }
+    }
+
+    private static String scalarValue(ScalarEvent event) {
+        String value = event.getValue();
+        if (!event.isPlain()) {
+            // 带引号的值按原文处理
+            return value;
+        }
+        if (Resolver.NULL.matcher(value).matches()) {
+            return "";
+        }
+        if (Resolver.BOOL.matcher(value).matches()) {
+            char c = Character.toLowerCase(value.charAt(0));
+            return c == 'y' || c == 't' || value.equalsIgnoreCase("on") ? "true" : "false";
+        }
+        return value;
+    }
+
+    private static String condition(Map<String, String> document) {
+        for (String key : PROFILE_CONDITION_KEYS) {
+            String condition = document.get(key);
+            if (condition != null && !condition.isBlank()) {
+                return condition;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String condition, Collection<String> profiles) {
+        for (String expr : split(condition)) {
+            boolean negated = expr.startsWith("!");
+            String profile = negated ? expr.substring(1).trim() : expr;
+            if (profiles.contains(profile) != negated) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static List<String> split(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String trimmed = item.trim();
+            if (!trimmed.isEmpty()) {
+                items.add(trimmed);
+            }
+        }
+        return items;
+    }
+}
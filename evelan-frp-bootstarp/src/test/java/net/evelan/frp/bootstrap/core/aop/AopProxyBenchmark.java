@@ -0,0 +1,77 @@
+package net.evelan.frp.bootstrap.core.aop;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+
+/**
+ * 直接调用 / 子类代理 / JDK 动态代理的调用耗时和内存分配对比
+ * <p>
+ * 两种代理都挂一个直接 proceed 的拦截器，被代理的方法是 int add(int, int)。
+ * JDK 动态代理每次调用都要装箱参数、分配参数数组并通过 Method.invoke 调用；子类代理把参数保存在生成的 Invocation 字段中，
+ * 直接调用目标方法。只有一个拦截器时 Invocation 和返回值的包装对象都不会逃逸，JIT 内联后不在堆上分配。
+ */
+public class AopProxyBenchmark {
+
+    private static final int ITERATIONS = 10_000_000;
+    private static final int ROUNDS = 5;
+
+    public interface Calculator {
+        int add(int a, int b);
+    }
+
+    public static class CalculatorImpl implements Calculator {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+    }
+
+    public static void main(String[] args) {
+        Calculator target = new CalculatorImpl();
+        MethodInterceptor passThrough = MethodInvocation::proceed;
+
+        long start = System.nanoTime();
+        Calculator subclass = ProxyFactory.createProxy(new CalculatorImpl(), method -> new MethodInterceptor[]{passThrough});
+        System.out.printf("generate proxy class: %.1f us%n", (System.nanoTime() - start) / 1_000.0);
+
+        Calculator jdk = (Calculator) Proxy.newProxyInstance(Calculator.class.getClassLoader(), new Class<?>[]{Calculator.class},
+                (proxy, method, methodArgs) -> method.invoke(target, methodArgs));
+
+        // 预热
+        for (int i = 0; i < 3; i++) {
+            run(target);
+            run(subclass);
+            run(jdk);
+        }
+
+        report("direct", target);
+        report("subclass proxy", subclass);
+        report("jdk proxy", jdk);
+    }
+
+    private static void report(String name, Calculator calculator) {
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            run(calculator);
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = allocatedBytes() - allocated;
+        }
+        System.out.printf("%-15s best of %d: %.2f ns/call, %.1f bytes/call%n", name, ROUNDS, (double) best / ITERATIONS, (double) bytes / ITERATIONS);
+    }
+
+    private static int run(Calculator calculator) {
+        int sum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            // 参数超出 Integer 缓存范围，装箱时一定会分配对象
+            sum += calculator.add(i, 1000);
+        }
+        return sum;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
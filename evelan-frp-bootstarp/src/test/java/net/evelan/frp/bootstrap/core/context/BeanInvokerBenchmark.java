@@ -0,0 +1,102 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+
+/**
+ * 反射调用 / BeanDefinition 缓存调用器的创建 + 注入 + init 耗时对比
+ * <p>
+ * 每次迭代模拟一个 Bean 的完整装配：构造方法创建、字段注入、setter 注入、init 方法调用。
+ * 第一次调用时生成调用器的开销单独统计。
+ */
+public class BeanInvokerBenchmark {
+
+    private static final int ITERATIONS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static class Target {
+        private final String name;
+        private Object field;
+        private Object property;
+        private int initialized;
+
+        public Target(String name) {
+            this.name = name;
+        }
+
+        public void setProperty(Object property) {
+            this.property = property;
+        }
+
+        void init() {
+            this.initialized++;
+        }
+    }
+
+    public static void main(String[] args) throws Throwable {
+        Constructor<?> constructor = Target.class.getConstructor(String.class);
+        Field field = Target.class.getDeclaredField("field");
+        Method setter = Target.class.getMethod("setProperty", Object.class);
+        Method init = Target.class.getDeclaredMethod("init");
+        constructor.setAccessible(true);
+        field.setAccessible(true);
+        init.setAccessible(true);
+
+        BeanDefinition def = new BeanDefinition("target", Target.class, constructor, 0, false, null, null, init, null);
+        Object[] ctorArgs = {"bench"};
+        Object value = new Object();
+
+        long start = System.nanoTime();
+        def.newInstance(null, ctorArgs);
+        Invokers.setter(field);
+        Invokers.setter(setter);
+        def.invokeInitMethod(new Target("warmup"));
+        System.out.printf("generate invokers: %.1f us%n", (System.nanoTime() - start) / 1_000.0);
+
+        // 预热
+        reflective(constructor, field, setter, init, ctorArgs, value);
+        cached(def, field, setter, ctorArgs, value);
+
+        long reflective = Long.MAX_VALUE;
+        long cached = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            start = System.nanoTime();
+            reflective(constructor, field, setter, init, ctorArgs, value);
+            reflective = Math.min(reflective, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            cached(def, field, setter, ctorArgs, value);
+            cached = Math.min(cached, System.nanoTime() - start);
+        }
+        System.out.printf("reflection    best of %d: %.1f ns/bean%n", ROUNDS, (double) reflective / ITERATIONS);
+        System.out.printf("invoker       best of %d: %.1f ns/bean%n", ROUNDS, (double) cached / ITERATIONS);
+    }
+
+    private static int reflective(Constructor<?> constructor, Field field, Method setter, Method init, Object[] ctorArgs, Object value) throws Exception {
+        int sum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Object bean = constructor.newInstance(ctorArgs);
+            field.set(bean, value);
+            setter.invoke(bean, value);
+            init.invoke(bean);
+            sum += ((Target) bean).initialized;
+        }
+        return sum;
+    }
+
+    private static int cached(BeanDefinition def, Field field, Method setter, Object[] ctorArgs, Object value) throws Throwable {
+        BiConsumer<Object, Object> fieldSetter = Invokers.setter(field);
+        BiConsumer<Object, Object> methodSetter = Invokers.setter(setter);
+        int sum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Object bean = def.newInstance(null, ctorArgs);
+            fieldSetter.accept(bean, value);
+            methodSetter.accept(bean, value);
+            def.invokeInitMethod(bean);
+            sum += ((Target) bean).initialized;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,133 @@
+package net.evelan.frp.bootstrap.core.context;
+
+import net.evelan.frp.bootstrap.annotation.bean.EComponent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 串行 / 并行类路径扫描的启动耗时对比
+ * <p>
+ * 在临时目录生成 50000 个最小 class 文件（10 个顶层包 x 50 个子包 x 100 个类，其中 1% 标记 @EComponent），
+ * 用独立的 URLClassLoader 扫描，每种模式每轮都使用新的类加载器，避免已加载类的缓存影响结果。
+ */
+public class ClassPathScanBenchmark {
+
+    private static final String ROOT_PACKAGE = "bench";
+    private static final int TOP_PACKAGES = 10;
+    private static final int SUB_PACKAGES = 50;
+    private static final int CLASSES_PER_PACKAGE = 100;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Path root = Files.createTempDirectory("evelan-scan-bench");
+        try {
+            int generated = generate(root);
+            System.out.println("Generated " + generated + " classes in " + root);
+
+            for (ScanMode mode : ScanMode.values()) {
+                // 预热
+                scan(root, mode);
+            }
+            for (ScanMode mode : ScanMode.values()) {
+                long best = Long.MAX_VALUE;
+                int found = 0;
+                for (int i = 0; i < ROUNDS; i++) {
+                    long start = System.nanoTime();
+                    found = scan(root, mode).size();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf("%-8s found %d bean classes, best of %d: %.1f ms%n", mode, found, ROUNDS, best / 1_000_000.0);
+            }
+            // 两种模式注册 Bean 的顺序必须一致
+            List<String> serial = scan(root, ScanMode.SERIAL).stream().map(Class::getName).toList();
+            List<String> parallel = scan(root, ScanMode.PARALLEL).stream().map(Class::getName).toList();
+            System.out.println("Same order in both modes: " + serial.equals(parallel));
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static Set<Class<?>> scan(Path root, ScanMode mode) throws Exception {
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, ClassPathScanBenchmark.class.getClassLoader())) {
+            Thread.currentThread().setContextClassLoader(loader);
+            AnnotationClassFilter filter = new AnnotationClassFilter(loader, List.of(EComponent.class));
+            return ClassPathScanner.getPackageAllClasses(ROOT_PACKAGE, true, filter, mode);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    private static int generate(Path root) throws IOException {
+        int count = 0;
+        for (int t = 0; t < TOP_PACKAGES; t++) {
+            for (int p = 0; p < SUB_PACKAGES; p++) {
+                String pkg = ROOT_PACKAGE + "/p" + t + "/s" + p;
+                Path dir = Files.createDirectories(root.resolve(pkg));
+                for (int c = 0; c < CLASSES_PER_PACKAGE; c++) {
+                    String name = "C" + c;
+                    Files.write(dir.resolve(name + ".class"), classFile(pkg + "/" + name, count % 100 == 0));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 生成一个没有字段和方法的最小 class 文件，可以被加载但不能实例化
+     */
+    private static byte[] classFile(String internalName, boolean component) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(61);
+        // 常量池
+        out.writeShort(7);
+        out.writeByte(1);
+        out.writeUTF(internalName);
+        out.writeByte(7);
+        out.writeShort(1);
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        out.writeByte(7);
+        out.writeShort(3);
+        out.writeByte(1);
+        out.writeUTF("RuntimeVisibleAnnotations");
+        out.writeByte(1);
+        out.writeUTF("L" + EComponent.class.getName().replace('.', '/') + ";");
+        // access_flags, this_class, super_class, interfaces, fields, methods
+        out.writeShort(0x0021);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        if (component) {
+            out.writeShort(1);
+            out.writeShort(5);
+            out.writeInt(6);
+            out.writeShort(1);
+            out.writeShort(6);
+            out.writeShort(0);
+        } else {
+            out.writeShort(0);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+package net.evelan.frp.bootstrap.core.solver;
+
+import net.evelan.frp.bootstrap.entity.PropertyExpr;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 每次调用都解析表达式 / 编译后缓存的占位符模板的解析耗时和内存分配对比
+ * <p>
+ * 旧的解析方式（parserPropertyExpr 每次截取子串并创建 PropertyExpr）只支持整个字符串是一个占位符的情况，
+ * 内嵌占位符只用编译后的模板测试。单个 key 的查找对比旧的 ConcurrentHashMap、依次查找每个配置来源和合并后的开放寻址 PropertyMap。
+ * 按类型获取对比每次转换（旧的 getProperty(key, Class)）和按 (key, 类型) 缓存的转换结果。
+ */
+public class PropertyResolverBenchmark {
+
+    private static final int ITERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    // 旧的实现把所有配置保存在一个 ConcurrentHashMap 中
+    private static Map<String, String> legacyProperties;
+
+    public static void main(String[] args) {
+        PropertyResolver resolver = new PropertyResolver(new Properties());
+        resolver.replacePropertySource(PropertySource.of("benchmark", Map.of(
+                "server.host", "localhost",
+                "server.port", "8080",
+                "server.address", "${server.host}",
+                "server.read-timeout", "30s")));
+        legacyProperties = new ConcurrentHashMap<>();
+        for (PropertySource source : resolver.getPropertySources()) {
+            source.getProperties().forEach(legacyProperties::putIfAbsent);
+        }
+
+        List<PropertySource> sources = resolver.getPropertySources();
+
+        report("ConcurrentHashMap get", () -> legacyProperties.get("server.port"));
+        report("source chain get", () -> chainGet(sources, "server.port"));
+        report("merged PropertyMap get", () -> resolver.getRawProperty("server.port"));
+
+        report("parse ${key:default}", () -> legacyGetProperty(resolver, "${server.port:80}"));
+        report("compiled ${key:default}", () -> resolver.getProperty("${server.port:80}"));
+        report("parse nested value", () -> legacyGetProperty(resolver, "${server.address}"));
+        report("compiled nested value", () -> resolver.getProperty("${server.address}"));
+        report("compiled embedded", () -> resolver.getProperty("http://${server.host}:${server.port}/x"));
+        report("convert Duration", () -> resolver.convert(Duration.class, resolver.getProperty("server.read-timeout")));
+        report("cached Duration", () -> resolver.getProperty("server.read-timeout", Duration.class));
+        report("convert int", () -> resolver.convert(int.class, resolver.getProperty("server.port")));
+        report("cached int", () -> resolver.getProperty("server.port", int.class));
+    }
+
+    /**
+     * 旧的 getProperty 实现
+     */
+    /**
+     * 不预先合并时按优先级依次查找每个来源，配置文件中的 key 在优先级最低的来源中
+     */
+    private static String chainGet(List<PropertySource> sources, String key) {
+        for (PropertySource source : sources) {
+            String value = source.getProperty(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String legacyGetProperty(PropertyResolver resolver, String key) {
+        PropertyExpr expr = resolver.parserPropertyExpr(key);
+        if (expr != null) {
+            String value = legacyGetProperty(resolver, expr.key());
+            return value != null ? value : legacyGetProperty(resolver, expr.defaultValue());
+        }
+        String value = legacyProperties.get(key);
+        return value == null ? null : resolver.parserPropertyExpr(value) != null ? legacyGetProperty(resolver, value) : value;
+    }
+
+    private static void report(String name, Supplier<?> lookup) {
+        // 预热
+        for (int i = 0; i < 3; i++) {
+            run(lookup);
+        }
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            run(lookup);
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = allocatedBytes() - allocated;
+        }
+        System.out.printf("%-25s best of %d: %.2f ns/op, %.1f bytes/op%n", name, ROUNDS, (double) best / ITERATIONS, (double) bytes / ITERATIONS);
+    }
+
+    private static int run(Supplier<?> lookup) {
+        int sum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sum += lookup.get().hashCode();
+        }
+        return sum;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
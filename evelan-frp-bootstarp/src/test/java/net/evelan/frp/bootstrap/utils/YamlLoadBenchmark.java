@@ -0,0 +1,112 @@
+package net.evelan.frp.bootstrap.utils;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 大路由表配置的加载耗时和内存分配对比：
+ * 旧的方式（每次创建 Yaml，解析成完整的树，再递归拼接 key，列表不展开）/ 直接把解析事件转成扁平配置的 YamlPropertyLoader（列表展开为 routes[i].xxx）。
+ * 只读取解析事件、不做任何处理的耗时作为下限。
+ */
+public class YamlLoadBenchmark {
+
+    private static final int ROUTES = 5_000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        String yaml = routeTable(ROUTES);
+        System.out.printf("%d routes, %d KB yaml%n", ROUTES, yaml.length() / 1024);
+        report("tree + convertTo", () -> legacyLoad(yaml));
+        report("streaming events", () -> YamlPropertyLoader.load(new StringReader(yaml), List.of()));
+        report("parser only", () -> parseOnly(yaml));
+    }
+
+    private static String routeTable(int routes) {
+        StringBuilder sb = new StringBuilder(routes * 120);
+        sb.append("frp:\n  server:\n    port: 7000\n    read-timeout: 30s\n  routes:\n");
+        for (int i = 0; i < routes; i++) {
+            sb.append("    - name: route-").append(i).append('\n');
+            sb.append("      host: backend-").append(i % 64).append(".internal\n");
+            sb.append("      port: ").append(8000 + i % 1000).append('\n');
+            sb.append("      remote-port: ").append(20000 + i).append('\n');
+            sb.append("      tls: ").append(i % 2 == 0 ? "on" : "off").append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, ?> parseOnly(String source) {
+        Parser parser = new ParserImpl(new StreamReader(new StringReader(source)), new LoaderOptions());
+        int events = 0;
+        while (!parser.getEvent().is(Event.ID.StreamEnd)) {
+            events++;
+        }
+        return Map.of("events", events);
+    }
+
+    /**
+     * 旧的 YamlParseUtil.loadYamlPlainMap 实现
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> legacyLoad(String source) {
+        var loaderOptions = new LoaderOptions();
+        var dumperOptions = new DumperOptions();
+        var representer = new Representer(dumperOptions);
+        var resolver = new Resolver();
+        var yaml = new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
+        Map<String, Object> data = (Map<String, Object>) yaml.load(source);
+        Map<String, Object> plain = new LinkedHashMap<>();
+        legacyConvertTo(data, "", plain);
+        return plain;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void legacyConvertTo(Map<String, Object> source, String prefix, Map<String, Object> plain) {
+        for (String key : source.keySet()) {
+            Object value = source.get(key);
+            if (value instanceof Map) {
+                legacyConvertTo((Map<String, Object>) value, prefix + key + ".", plain);
+            } else if (value instanceof List) {
+                plain.put(prefix + key, value);
+            } else {
+                plain.put(prefix + key, value.toString());
+            }
+        }
+    }
+
+    private static void report(String name, Supplier<Map<String, ?>> load) {
+        // 预热
+        for (int i = 0; i < 5; i++) {
+            load.get();
+        }
+        long best = Long.MAX_VALUE;
+        long bytes = Long.MAX_VALUE;
+        int size = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            size = load.get().size();
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = Math.min(bytes, allocatedBytes() - allocated);
+        }
+        System.out.printf("%-18s best of %d: %.2f ms, %.1f MB allocated, %d keys%n", name, ROUNDS, best / 1_000_000.0, bytes / (1024.0 * 1024), size);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
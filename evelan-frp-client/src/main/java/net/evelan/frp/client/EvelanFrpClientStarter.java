@@ -0,0 +1,17 @@
+package net.evelan.frp.client;
+
+import net.evelan.frp.bootstrap.annotation.EApplication;
+import net.evelan.frp.bootstrap.core.EvelanApplication;
+import net.evelan.frp.bootstrap.core.context.EvelanConfigApplicationContext;
+import net.evelan.frp.client.engine.FrpClient;
+
+
+@EApplication
+public class EvelanFrpClientStarter {
+    public static void main(String... args) {
+        EvelanConfigApplicationContext context = EvelanApplication.run(EvelanFrpClientStarter.class, args);
+        // 关闭上下文时 FrpClient 通过 @EPreDestroy 断开连接并释放线程
+        Runtime.getRuntime().addShutdownHook(new Thread(context::close, "evelan-shutdown"));
+        context.getBean(FrpClient.class).awaitClose();
+    }
+}
@@ -0,0 +1,37 @@
+package net.evelan.frp.client.engine;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带随机抖动的指数退避
+ * <p>
+ * 第 n 次重连的等待上限为 min * 2^n（不超过 max），实际等待时间在 min 和上限之间均匀随机。
+ * 服务端重启时大量客户端同时断开，随机的等待时间让它们分散在一段时间内重连，而不是每一轮都同时涌向服务端。
+ */
+final class Backoff {
+
+    private final long minMillis;
+    private final long maxMillis;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    Backoff(Duration min, Duration max) {
+        this.minMillis = Math.max(1, min.toMillis());
+        this.maxMillis = Math.max(this.minMillis, max.toMillis());
+    }
+
+    long nextDelayMillis() {
+        int attempt = this.attempts.getAndIncrement();
+        // 避免左移溢出
+        long cap = attempt >= 30 ? this.maxMillis : Math.min(this.maxMillis, this.minMillis << attempt);
+        return ThreadLocalRandom.current().nextLong(this.minMillis, cap + 1);
+    }
+
+    /**
+     * 会话稳定后重新从 min 开始
+     */
+    void reset() {
+        this.attempts.set(0);
+    }
+}
@@ -0,0 +1,84 @@
+package net.evelan.frp.client.engine;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import net.evelan.frp.common.protocol.Login;
+import net.evelan.frp.common.protocol.LoginResp;
+import net.evelan.frp.common.protocol.Message;
+import net.evelan.frp.common.protocol.NewProxyResp;
+import net.evelan.frp.common.protocol.Ping;
+import net.evelan.frp.common.protocol.ReqWorkConn;
+
+/**
+ * 客户端控制连接：登录、注册代理、响应 ReqWorkConn 和发送心跳，连接断开后交给 FrpClient 重连
+ */
+final class ControlHandler extends SimpleChannelInboundHandler<Message> {
+
+    private final FrpClient client;
+    private volatile boolean loggedIn;
+
+    ControlHandler(FrpClient client) {
+        this.client = client;
+    }
+
+    boolean isLoggedIn() {
+        return this.loggedIn;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        FrpClientProperties properties = this.client.properties();
+        ctx.writeAndFlush(new Login(FrpClient.VERSION, properties.getToken(), this.client.runId(), properties.getPoolCount()));
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+        if (msg instanceof LoginResp resp) {
+            if (!resp.error().isEmpty()) {
+                System.err.printf("FRP client login failed: %s%n", resp.error());
+                ctx.close();
+                return;
+            }
+            this.loggedIn = true;
+            this.client.onLogin(ctx.channel(), resp.runId());
+        } else if (msg instanceof ReqWorkConn) {
+            this.client.newWorkConn();
+        } else if (msg instanceof NewProxyResp resp) {
+            if (resp.error().isEmpty()) {
+                System.out.printf("Proxy [%s] started, remote address %s%n", resp.proxyName(), resp.remoteAddr());
+            } else {
+                System.err.printf("Proxy [%s] start failed: %s%n", resp.proxyName(), resp.error());
+            }
+        }
+        // Pong 只用于刷新读空闲时间
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent event) {
+            if (event.state() == IdleState.WRITER_IDLE) {
+                ctx.writeAndFlush(Ping.INSTANCE);
+            } else if (event.state() == IdleState.READER_IDLE) {
+                System.err.println("FRP client heartbeat timeout");
+                ctx.close();
+            }
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        this.client.reconnect("control connection closed");
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        System.err.printf("FRP client control connection failed: %s%n", cause);
+        ctx.close();
+    }
+}
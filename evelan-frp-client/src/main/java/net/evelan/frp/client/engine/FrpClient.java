@@ -0,0 +1,201 @@
+package net.evelan.frp.client.engine;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.timeout.IdleStateHandler;
+import net.evelan.frp.bootstrap.annotation.bean.EComponent;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EImport;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPostConstruct;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPreDestroy;
+import net.evelan.frp.client.engine.FrpClientProperties.ProxyConfig;
+import net.evelan.frp.common.protocol.MessageCodec;
+import net.evelan.frp.common.protocol.NewProxy;
+import net.evelan.frp.common.transport.Transport;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内网穿透客户端
+ * <p>
+ * 保持一个到服务端的控制连接，登录后注册配置的所有本地服务；服务端发送 ReqWorkConn 时新建一个工作连接，
+ * 收到 StartWorkConn 后连接对应的本地服务，之后两个连接之间直接转发原始数据。
+ * 控制连接断开（服务端重启、网络中断、心跳超时）后按带随机抖动的指数退避重连，重连时带上之前的 runId。
+ * <p>
+ * 所有连接共用一个 EventLoopGroup 和池化的直接内存；本地连接使用所属工作连接的线程，转发时不需要跨线程。
+ */
+@EComponent
+public class FrpClient {
+
+    static final String VERSION = "0.0.1";
+
+    private final FrpClientProperties properties;
+    // { 代理名称 : 代理 }
+    private final Map<String, ProxyConfig> proxies = new LinkedHashMap<>();
+    private final Backoff backoff;
+    private Transport transport;
+    private EventLoopGroup group;
+    private Bootstrap bootstrap;
+    // 服务端分配的客户端标识，重连时沿用
+    private volatile String runId = "";
+    private volatile Channel control;
+    private volatile boolean closed;
+
+    public FrpClient(@EImport FrpClientProperties properties) {
+        this.properties = properties;
+        for (ProxyConfig proxy : properties.getProxies()) {
+            if (proxy.getName() == null || proxy.getName().isEmpty()) {
+                throw new RuntimeException("Proxy name of frp.client.proxies must not be empty");
+            }
+            if (proxy.getLocalPort() <= 0 || proxy.getLocalPort() > 0xFFFF) {
+                throw new RuntimeException(String.format("Invalid local port of proxy [%s]: %d", proxy.getName(), proxy.getLocalPort()));
+            }
+            if (this.proxies.put(proxy.getName(), proxy) != null) {
+                throw new RuntimeException(String.format("Duplicate proxy name: %s", proxy.getName()));
+            }
+        }
+        this.backoff = new Backoff(properties.getReconnectMin(), properties.getReconnectMax());
+    }
+
+    @EPostConstruct
+    public void start() {
+        this.transport = Transport.select(this.properties.isNativeTransport());
+        this.group = this.transport.newEventLoopGroup(this.properties.getWorkerThreads(), "frp-client");
+        this.bootstrap = new Bootstrap()
+                .group(this.group)
+                .channel(this.transport.channelClass())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) this.properties.getConnectTimeout().toMillis());
+        System.out.printf("FRP client connecting to %s:%d using %s transport%n", this.properties.getServerAddr(), this.properties.getServerPort(), this.transport);
+        connect();
+    }
+
+    @EPreDestroy
+    public void stop() {
+        this.closed = true;
+        Channel control = this.control;
+        if (control != null) {
+            control.close();
+        }
+        if (this.group != null) {
+            this.group.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    /**
+     * 阻塞直到客户端关闭
+     */
+    public void awaitClose() {
+        this.group.terminationFuture().syncUninterruptibly();
+    }
+
+    /**
+     * 当前的控制连接是否已经登录
+     */
+    public boolean isConnected() {
+        Channel control = this.control;
+        ControlHandler handler = control == null ? null : control.pipeline().get(ControlHandler.class);
+        return handler != null && control.isActive() && handler.isLoggedIn();
+    }
+
+    FrpClientProperties properties() {
+        return this.properties;
+    }
+
+    String runId() {
+        return this.runId;
+    }
+
+    ProxyConfig proxy(String name) {
+        return this.proxies.get(name);
+    }
+
+    private void connect() {
+        if (this.closed) {
+            return;
+        }
+        int maxFrameLength = this.properties.getMaxFrameLength().toIntBytes();
+        long readerIdle = this.properties.getHeartbeatTimeout().toMillis();
+        long writerIdle = this.properties.getHeartbeatInterval().toMillis();
+        ChannelFuture future = this.bootstrap.clone().handler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                MessageCodec.addTo(ch.pipeline(), maxFrameLength);
+                ch.pipeline().addLast(new IdleStateHandler(readerIdle, writerIdle, 0, TimeUnit.MILLISECONDS));
+                ch.pipeline().addLast(new ControlHandler(FrpClient.this));
+            }
+        }).connect(this.properties.getServerAddr(), this.properties.getServerPort());
+        this.control = future.channel();
+        future.addListener(f -> {
+            if (!f.isSuccess()) {
+                reconnect(String.format("connect failed: %s", f.cause().getMessage()));
+            }
+        });
+    }
+
+    /**
+     * 控制连接断开或连接失败后按退避时间重连
+     */
+    void reconnect(String reason) {
+        if (this.closed) {
+            return;
+        }
+        long delay = this.backoff.nextDelayMillis();
+        System.out.printf("FRP client %s, reconnecting in %d ms%n", reason, delay);
+        this.group.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 登录成功，注册所有代理
+     */
+    void onLogin(Channel control, String runId) {
+        this.runId = runId;
+        // 登录后连接保持超过 reconnect-min 才认为会话稳定、重新从 min 开始退避；登录后立即被断开时等待时间继续增大
+        control.eventLoop().schedule(() -> {
+            if (control.isActive()) {
+                this.backoff.reset();
+            }
+        }, this.properties.getReconnectMin().toMillis(), TimeUnit.MILLISECONDS);
+        System.out.printf("FRP client logged in, runId [%s]%n", runId);
+        for (ProxyConfig proxy : this.proxies.values()) {
+            control.write(new NewProxy(proxy.getName(), proxy.getType(), proxy.getRemotePort()));
+        }
+        control.flush();
+    }
+
+    /**
+     * 服务端请求新建一个工作连接
+     */
+    void newWorkConn() {
+        if (this.closed) {
+            return;
+        }
+        int maxFrameLength = this.properties.getMaxFrameLength().toIntBytes();
+        this.bootstrap.clone().handler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                MessageCodec.addTo(ch.pipeline(), maxFrameLength);
+                ch.pipeline().addLast(WorkConnHandler.NAME, new WorkConnHandler(FrpClient.this));
+            }
+        }).connect(this.properties.getServerAddr(), this.properties.getServerPort()).addListener(f -> {
+            if (!f.isSuccess()) {
+                System.err.printf("FRP client failed to open work connection: %s%n", f.cause().getMessage());
+            }
+        });
+    }
+
+    /**
+     * 连接本地服务的 Bootstrap，使用工作连接所在的线程
+     */
+    Bootstrap localBootstrap(EventLoop eventLoop) {
+        return this.bootstrap.clone(eventLoop);
+    }
+}
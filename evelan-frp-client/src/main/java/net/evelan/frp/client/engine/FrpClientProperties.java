@@ -0,0 +1,120 @@
+package net.evelan.frp.client.engine;
+
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
+import net.evelan.frp.bootstrap.core.solver.DataSize;
+import net.evelan.frp.common.protocol.MessageCodec;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 客户端配置，对应 application.yaml 中的 frp.client
+ */
+@EConfigurationProperties(prefix = "frp.client")
+public class FrpClientProperties {
+
+    private String serverAddr = "127.0.0.1";
+    private int serverPort = 7000;
+    private String token = "";
+    // 登录后预先建立的工作连接数
+    private int poolCount = 1;
+    // 控制连接、工作连接和本地连接共用的线程数，0 表示 CPU 核数 * 2
+    private int workerThreads = 0;
+    // Linux 上是否使用 epoll
+    private boolean nativeTransport = true;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    // 控制连接空闲多久后发送心跳
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+    // 控制连接多久没有收到任何消息后重连
+    private Duration heartbeatTimeout = Duration.ofSeconds(90);
+    // 重连退避的初始值和上限
+    private Duration reconnectMin = Duration.ofSeconds(1);
+    private Duration reconnectMax = Duration.ofSeconds(60);
+    private DataSize maxFrameLength = DataSize.ofBytes(MessageCodec.DEFAULT_MAX_FRAME_LENGTH);
+    private List<ProxyConfig> proxies = List.of();
+
+    public String getServerAddr() {
+        return serverAddr;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public int getPoolCount() {
+        return poolCount;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public Duration getHeartbeatTimeout() {
+        return heartbeatTimeout;
+    }
+
+    public Duration getReconnectMin() {
+        return reconnectMin;
+    }
+
+    public Duration getReconnectMax() {
+        return reconnectMax;
+    }
+
+    public DataSize getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public List<ProxyConfig> getProxies() {
+        return proxies;
+    }
+
+    /**
+     * 一个本地服务，服务端在 remotePort 上接受用户连接并转发到 localIp:localPort
+     */
+    public static class ProxyConfig {
+
+        private String name;
+        private String type = "tcp";
+        private String localIp = "127.0.0.1";
+        private int localPort;
+        // 0 表示由服务端分配
+        private int remotePort;
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getLocalIp() {
+            return localIp;
+        }
+
+        public int getLocalPort() {
+            return localPort;
+        }
+
+        public int getRemotePort() {
+            return remotePort;
+        }
+    }
+}
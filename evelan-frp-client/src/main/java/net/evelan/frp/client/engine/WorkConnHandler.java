@@ -0,0 +1,124 @@
+package net.evelan.frp.client.engine;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.ReferenceCountUtil;
+import net.evelan.frp.client.engine.FrpClientProperties.ProxyConfig;
+import net.evelan.frp.common.protocol.Message;
+import net.evelan.frp.common.protocol.MessageCodec;
+import net.evelan.frp.common.protocol.NewWorkConn;
+import net.evelan.frp.common.protocol.PrivilegeKey;
+import net.evelan.frp.common.protocol.StartWorkConn;
+import net.evelan.frp.common.transport.RelayHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 工作连接：建立后发送 NewWorkConn 进入服务端的连接池，收到 StartWorkConn 后连接本地服务并开始转发
+ * <p>
+ * 服务端发送 StartWorkConn 之后紧接着就是用户数据，可能和 StartWorkConn 在同一次读取中到达。
+ * 因此在解码 StartWorkConn 的回调中就移除编解码器（剩余的数据交给后面的处理器）并暂停读取，
+ * 本地连接建立之前收到的数据先缓存，连接建立后按顺序写出再开始转发。
+ */
+final class WorkConnHandler extends SimpleChannelInboundHandler<Message> {
+
+    static final String NAME = "workConn";
+
+    private final FrpClient client;
+
+    WorkConnHandler(FrpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        String runId = this.client.runId();
+        ctx.writeAndFlush(new NewWorkConn(runId, PrivilegeKey.of(this.client.properties().getToken(), runId)));
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+        if (!(msg instanceof StartWorkConn start)) {
+            return;
+        }
+        ProxyConfig proxy = this.client.proxy(start.proxyName());
+        if (proxy == null) {
+            System.err.printf("Unknown proxy [%s] in StartWorkConn%n", start.proxyName());
+            ctx.close();
+            return;
+        }
+        Channel work = ctx.channel();
+        work.config().setAutoRead(false);
+        PendingHandler pending = new PendingHandler();
+        ctx.pipeline().replace(this, PendingHandler.NAME, pending);
+        MessageCodec.removeFrom(work.pipeline());
+        ChannelFuture connect = this.client.localBootstrap(work.eventLoop()).handler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline().addLast(new RelayHandler(work));
+            }
+        }).connect(proxy.getLocalIp(), proxy.getLocalPort());
+        // 本地连接和工作连接使用同一个线程，回调中可以直接操作工作连接
+        connect.addListener(f -> {
+            if (!f.isSuccess()) {
+                System.err.printf("Proxy [%s] failed to connect %s:%d: %s%n", proxy.getName(), proxy.getLocalIp(), proxy.getLocalPort(), f.cause().getMessage());
+                pending.release();
+                work.close();
+                return;
+            }
+            Channel local = connect.channel();
+            if (!work.isActive()) {
+                pending.release();
+                local.close();
+                return;
+            }
+            pending.flushTo(local);
+            work.pipeline().replace(PendingHandler.NAME, "relay", new RelayHandler(local));
+            work.config().setAutoRead(true);
+        });
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.close();
+    }
+
+    /**
+     * 本地连接建立之前缓存工作连接上收到的数据
+     */
+    private static final class PendingHandler extends ChannelInboundHandlerAdapter {
+
+        static final String NAME = "pending";
+
+        private final List<Object> messages = new ArrayList<>();
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            this.messages.add(msg);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+
+        void flushTo(Channel local) {
+            for (Object msg : this.messages) {
+                local.write(msg);
+            }
+            this.messages.clear();
+            local.flush();
+        }
+
+        void release() {
+            this.messages.forEach(ReferenceCountUtil::release);
+            this.messages.clear();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 客户端登录，控制连接上的第一条消息
+ *
+ * @param version 客户端版本
+ * @param token 认证令牌，服务端没有配置令牌时忽略
+ * @param runId 重连时带上之前分配的 runId，第一次登录为空字符串。服务端每次登录都分配新的 runId，
+ *              只有配置了令牌时才用它关闭同一个客户端还没有断开的旧会话
+ * @param poolCount 客户端预先建立的工作连接数
+ */
+public record Login(String version, String token, String runId, int poolCount) implements Message {
+
+    public static final byte TYPE = 'o';
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
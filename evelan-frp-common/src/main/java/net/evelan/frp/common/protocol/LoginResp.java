@@ -0,0 +1,17 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 登录结果
+ *
+ * @param runId 服务端分配的客户端标识，工作连接通过它找到对应的客户端
+ * @param error 失败原因，成功时为空字符串
+ */
+public record LoginResp(String runId, String error) implements Message {
+
+    public static final byte TYPE = '1';
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
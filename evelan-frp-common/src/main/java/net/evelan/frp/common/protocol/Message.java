@@ -0,0 +1,15 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 客户端和服务端之间的控制消息
+ * <p>
+ * 控制连接上依次交换 Login / LoginResp、NewProxy / NewProxyResp、ReqWorkConn、Ping / Pong；
+ * 工作连接建立后客户端先发送 NewWorkConn，服务端有用户连接需要转发时发送 StartWorkConn，之后连接上只传输原始数据。
+ */
+public sealed interface Message permits Login, LoginResp, NewProxy, NewProxyResp, NewWorkConn, ReqWorkConn, StartWorkConn, Ping, Pong {
+
+    /**
+     * 消息类型，编码在每一帧的第一个字节
+     */
+    byte type();
+}
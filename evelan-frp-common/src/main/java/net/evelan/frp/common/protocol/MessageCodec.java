@@ -0,0 +1,211 @@
+package net.evelan.frp.common.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 控制消息的编解码
+ * <p>
+ * 每一帧为 varint 长度（不含自身）+ 1 字节消息类型 + 字段。整数字段为 varint（小于 128 只占 1 字节，端口号 2 到 3 字节），
+ * 字符串为 varint 字节数 + UTF-8。字段按各消息 record 的声明顺序排列，没有字段名和类型标记，由消息类型决定如何解析；
+ * 编码时先算出整帧长度，一次分配恰好大小的缓冲区。解码直接读取累积缓冲区，字符串从缓冲区解码，不复制到中间的 byte[]。
+ * <p>
+ * 工作连接开始转发数据之前通过 {@link #removeFrom(ChannelPipeline)} 移除编解码器，已经读取但还没有解码的数据会交给后面的处理器。
+ */
+public final class MessageCodec {
+
+    public static final String DECODER = "frpMessageDecoder";
+    public static final String ENCODER = "frpMessageEncoder";
+    // 控制消息都很短，超过这个长度的帧视为非法数据
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 64 * 1024;
+
+    // varint 最多 5 字节
+    private static final int MAX_VARINT_LENGTH = 5;
+
+    private MessageCodec() {
+    }
+
+    /**
+     * 在 pipeline 最前面加入编解码器
+     */
+    public static void addTo(ChannelPipeline pipeline, int maxFrameLength) {
+        pipeline.addFirst(ENCODER, new MessageEncoder());
+        pipeline.addFirst(DECODER, new MessageDecoder(maxFrameLength));
+    }
+
+    /**
+     * 移除编解码器，之后 pipeline 上只传输原始数据
+     */
+    public static void removeFrom(ChannelPipeline pipeline) {
+        if (pipeline.get(DECODER) != null) {
+            pipeline.remove(DECODER);
+        }
+        if (pipeline.get(ENCODER) != null) {
+            pipeline.remove(ENCODER);
+        }
+    }
+
+    /**
+     * 整帧编码后的字节数，包括长度前缀
+     */
+    static int frameLength(Message msg) {
+        int bodyLength = bodyLength(msg);
+        return varintLength(bodyLength) + bodyLength;
+    }
+
+    /**
+     * 写入一整帧
+     */
+    static void encode(Message msg, ByteBuf out) {
+        writeVarint(out, bodyLength(msg));
+        out.writeByte(msg.type());
+        if (msg instanceof Login m) {
+            writeString(out, m.version());
+            writeString(out, m.token());
+            writeString(out, m.runId());
+            writeVarint(out, m.poolCount());
+        } else if (msg instanceof LoginResp m) {
+            writeString(out, m.runId());
+            writeString(out, m.error());
+        } else if (msg instanceof NewProxy m) {
+            writeString(out, m.proxyName());
+            writeString(out, m.proxyType());
+            writeVarint(out, m.remotePort());
+        } else if (msg instanceof NewProxyResp m) {
+            writeString(out, m.proxyName());
+            writeString(out, m.remoteAddr());
+            writeString(out, m.error());
+        } else if (msg instanceof NewWorkConn m) {
+            writeString(out, m.runId());
+            writeString(out, m.privilegeKey());
+        } else if (msg instanceof StartWorkConn m) {
+            writeString(out, m.proxyName());
+            writeString(out, m.srcAddr());
+            writeVarint(out, m.srcPort());
+        }
+        // ReqWorkConn、Ping、Pong 没有字段
+    }
+
+    /**
+     * 消息类型和字段的字节数
+     */
+    private static int bodyLength(Message msg) {
+        int length = 1;
+        if (msg instanceof Login m) {
+            length += stringLength(m.version()) + stringLength(m.token()) + stringLength(m.runId()) + varintLength(m.poolCount());
+        } else if (msg instanceof LoginResp m) {
+            length += stringLength(m.runId()) + stringLength(m.error());
+        } else if (msg instanceof NewProxy m) {
+            length += stringLength(m.proxyName()) + stringLength(m.proxyType()) + varintLength(m.remotePort());
+        } else if (msg instanceof NewProxyResp m) {
+            length += stringLength(m.proxyName()) + stringLength(m.remoteAddr()) + stringLength(m.error());
+        } else if (msg instanceof NewWorkConn m) {
+            length += stringLength(m.runId()) + stringLength(m.privilegeKey());
+        } else if (msg instanceof StartWorkConn m) {
+            length += stringLength(m.proxyName()) + stringLength(m.srcAddr()) + varintLength(m.srcPort());
+        }
+        return length;
+    }
+
+    /**
+     * 解码 in 中 readerIndex 到 end 之间的一帧（不含长度前缀），字段越过 end 或者没有读完都视为非法数据
+     */
+    static Message decode(ByteBuf in, int end) {
+        byte type = in.readByte();
+        Message msg = switch (type) {
+            case Login.TYPE -> new Login(readString(in, end), readString(in, end), readString(in, end), readVarint(in, end));
+            case LoginResp.TYPE -> new LoginResp(readString(in, end), readString(in, end));
+            case NewProxy.TYPE -> new NewProxy(readString(in, end), readString(in, end), readVarint(in, end));
+            case NewProxyResp.TYPE -> new NewProxyResp(readString(in, end), readString(in, end), readString(in, end));
+            case NewWorkConn.TYPE -> new NewWorkConn(readString(in, end), readString(in, end));
+            case ReqWorkConn.TYPE -> ReqWorkConn.INSTANCE;
+            case StartWorkConn.TYPE -> new StartWorkConn(readString(in, end), readString(in, end), readVarint(in, end));
+            case Ping.TYPE -> Ping.INSTANCE;
+            case Pong.TYPE -> Pong.INSTANCE;
+            default -> throw new CorruptedFrameException(String.format("Unknown message type: 0x%02x", type));
+        };
+        if (in.readerIndex() != end) {
+            throw new CorruptedFrameException(String.format("%d unread bytes in %s frame", end - in.readerIndex(), msg.getClass().getSimpleName()));
+        }
+        return msg;
+    }
+
+    static void writeVarint(ByteBuf out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int varintLength(int value) {
+        // 负数按 32 位无符号数编码，占 5 字节
+        return value == 0 ? 1 : (31 - Integer.numberOfLeadingZeros(value)) / 7 + 1;
+    }
+
+    /**
+     * 不移动 readerIndex 读取 index 处的 varint
+     * @return 数据不完整时返回 -1，否则返回 (占用的字节数 << 32) | 值
+     */
+    static long peekVarint(ByteBuf in, int index) {
+        int value = 0;
+        int limit = Math.min(in.writerIndex(), index + MAX_VARINT_LENGTH);
+        for (int i = index; i < limit; i++) {
+            byte b = in.getByte(i);
+            value |= (b & 0x7F) << (7 * (i - index));
+            if (b >= 0) {
+                return ((long) (i - index + 1) << 32) | (value & 0xFFFFFFFFL);
+            }
+        }
+        if (limit - index == MAX_VARINT_LENGTH) {
+            throw new CorruptedFrameException("Malformed varint");
+        }
+        return -1;
+    }
+
+    private static int readVarint(ByteBuf in, int end) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_LENGTH; shift += 7) {
+            if (in.readerIndex() >= end) {
+                throw new CorruptedFrameException("Varint exceeds frame");
+            }
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new CorruptedFrameException("Malformed varint");
+    }
+
+    private static int stringLength(String value) {
+        int length = value == null ? 0 : ByteBufUtil.utf8Bytes(value);
+        return varintLength(length) + length;
+    }
+
+    private static void writeString(ByteBuf out, String value) {
+        if (value == null || value.isEmpty()) {
+            out.writeByte(0);
+            return;
+        }
+        writeVarint(out, ByteBufUtil.utf8Bytes(value));
+        ByteBufUtil.writeUtf8(out, value);
+    }
+
+    private static String readString(ByteBuf in, int end) {
+        int length = readVarint(in, end);
+        if (length < 0 || length > end - in.readerIndex()) {
+            throw new CorruptedFrameException(String.format("String length %d exceeds frame", length));
+        }
+        if (length == 0) {
+            return "";
+        }
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+}
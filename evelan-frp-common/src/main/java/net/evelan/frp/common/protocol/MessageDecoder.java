@@ -0,0 +1,56 @@
+package net.evelan.frp.common.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.List;
+
+/**
+ * 按 varint 长度前缀拆帧并解码为 {@link Message}
+ * <p>
+ * 长度前缀或帧不完整时不移动 readerIndex，等待更多数据；完整的帧直接在累积缓冲区上解码，不切片也不复制。
+ */
+public class MessageDecoder extends ByteToMessageDecoder {
+
+    private final int maxFrameLength;
+
+    public MessageDecoder(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        try {
+            decodeFrame(in, out);
+        } catch (DecoderException e) {
+            // 数据已经错位，丢弃剩余的数据，避免连接关闭时再次解码同样的数据
+            in.skipBytes(in.readableBytes());
+            throw e;
+        }
+    }
+
+    private void decodeFrame(ByteBuf in, List<Object> out) {
+        int start = in.readerIndex();
+        long header = MessageCodec.peekVarint(in, start);
+        if (header < 0) {
+            return;
+        }
+        int length = (int) header;
+        if (length <= 0) {
+            throw new CorruptedFrameException(String.format("Invalid frame length: %d", length));
+        }
+        if (length > this.maxFrameLength) {
+            throw new TooLongFrameException(String.format("Frame length %d exceeds %d", length, this.maxFrameLength));
+        }
+        int bodyStart = start + (int) (header >>> 32);
+        if (in.writerIndex() - bodyStart < length) {
+            return;
+        }
+        in.readerIndex(bodyStart);
+        out.add(MessageCodec.decode(in, bodyStart + length));
+    }
+}
@@ -0,0 +1,28 @@
+package net.evelan.frp.common.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * 把 {@link Message} 编码为带 varint 长度前缀的帧，按整帧长度分配缓冲区。没有状态，可以在多个连接之间共享
+ */
+@ChannelHandler.Sharable
+public class MessageEncoder extends MessageToByteEncoder<Message> {
+
+    public MessageEncoder() {
+        super(Message.class);
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Message msg, boolean preferDirect) {
+        int length = MessageCodec.frameLength(msg);
+        return preferDirect ? ctx.alloc().ioBuffer(length) : ctx.alloc().heapBuffer(length);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Message msg, ByteBuf out) {
+        MessageCodec.encode(msg, out);
+    }
+}
@@ -0,0 +1,18 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 客户端注册一个代理，服务端在 remotePort 上监听用户连接
+ *
+ * @param proxyName 代理名称，同一个服务端上唯一
+ * @param proxyType 代理类型，目前只支持 tcp
+ * @param remotePort 服务端对外监听的端口，0 表示由服务端分配
+ */
+public record NewProxy(String proxyName, String proxyType, int remotePort) implements Message {
+
+    public static final byte TYPE = 'p';
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
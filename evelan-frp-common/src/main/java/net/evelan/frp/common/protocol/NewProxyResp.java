@@ -0,0 +1,18 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 代理注册结果
+ *
+ * @param proxyName 代理名称
+ * @param remoteAddr 服务端实际监听的地址，如 :6000
+ * @param error 失败原因，成功时为空字符串
+ */
+public record NewProxyResp(String proxyName, String remoteAddr, String error) implements Message {
+
+    public static final byte TYPE = '2';
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,17 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 客户端新建的工作连接上的第一条消息，服务端校验密钥后按 runId 把连接交给对应的客户端
+ *
+ * @param runId 登录时分配的客户端标识
+ * @param privilegeKey {@link PrivilegeKey#of(String, String)} 计算的认证密钥
+ */
+public record NewWorkConn(String runId, String privilegeKey) implements Message {
+
+    public static final byte TYPE = 'w';
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,15 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 客户端心跳，没有字段
+ */
+public record Ping() implements Message {
+
+    public static final byte TYPE = 'h';
+    public static final Ping INSTANCE = new Ping();
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
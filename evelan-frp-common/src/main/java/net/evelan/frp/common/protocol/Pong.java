@@ -0,0 +1,15 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 服务端对心跳的回复，没有字段
+ */
+public record Pong() implements Message {
+
+    public static final byte TYPE = '4';
+    public static final Pong INSTANCE = new Pong();
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
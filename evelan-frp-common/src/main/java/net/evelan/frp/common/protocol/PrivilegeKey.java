@@ -0,0 +1,37 @@
+package net.evelan.frp.common.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 工作连接的认证密钥，由令牌和 runId 计算：hex(SHA-256(token + ":" + runId))
+ * <p>
+ * runId 会出现在日志中，只凭 runId 不能建立工作连接；令牌本身也不会在工作连接上传输。
+ */
+public final class PrivilegeKey {
+
+    private PrivilegeKey() {
+    }
+
+    public static String of(String token, String runId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((token + ":" + runId).getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 按固定时间比较，不因为匹配的前缀长度不同而泄露信息
+     */
+    public static boolean matches(String token, String runId, String key) {
+        return MessageDigest.isEqual(of(token, runId).getBytes(StandardCharsets.US_ASCII), key.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,15 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 服务端请求客户端新建一个工作连接，没有字段
+ */
+public record ReqWorkConn() implements Message {
+
+    public static final byte TYPE = 'r';
+    public static final ReqWorkConn INSTANCE = new ReqWorkConn();
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
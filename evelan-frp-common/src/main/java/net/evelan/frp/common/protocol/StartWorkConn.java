@@ -0,0 +1,18 @@
+package net.evelan.frp.common.protocol;
+
+/**
+ * 服务端把一个用户连接分配给工作连接，客户端收到后连接本地服务，之后工作连接上只传输原始数据
+ *
+ * @param proxyName 用户连接所属的代理
+ * @param srcAddr 用户的地址
+ * @param srcPort 用户的端口
+ */
+public record StartWorkConn(String proxyName, String srcAddr, int srcPort) implements Message {
+
+    public static final byte TYPE = 's';
+
+    @Override
+    public byte type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,67 @@
+package net.evelan.frp.common.transport;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * 把读到的数据原样写到另一个连接，两个方向各使用一个实例
+ * <p>
+ * 对端写缓冲超过高水位时暂停读取，对端恢复可写后再继续，避免一端快一端慢时数据堆积在内存中。
+ * 任意一端关闭后，把已经写入的数据发送完再关闭另一端。
+ */
+public class RelayHandler extends ChannelInboundHandlerAdapter {
+
+    private final Channel peer;
+
+    public RelayHandler(Channel peer) {
+        this.peer = peer;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!this.peer.isActive()) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        this.peer.writeAndFlush(msg, this.peer.voidPromise());
+        if (!this.peer.isWritable()) {
+            ctx.channel().config().setAutoRead(false);
+            // 两个连接可能在不同的线程上，对端在检查之后、暂停之前恢复可写时，它的恢复读取会被上面的暂停覆盖，所以暂停后再检查一次
+            if (this.peer.isWritable()) {
+                ctx.channel().config().setAutoRead(true);
+            }
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        // 本端可写后恢复对端的读取
+        if (ctx.channel().isWritable()) {
+            this.peer.config().setAutoRead(true);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        closeOnFlush(this.peer);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        closeOnFlush(ctx.channel());
+    }
+
+    /**
+     * 发送完已经写入的数据后关闭连接
+     */
+    public static void closeOnFlush(Channel channel) {
+        if (channel.isActive()) {
+            channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
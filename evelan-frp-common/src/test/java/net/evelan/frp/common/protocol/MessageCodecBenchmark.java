@@ -0,0 +1,161 @@
+package net.evelan.frp.common.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 控制消息编码 + 解码的耗时、每条消息的字节数和内存分配：
+ * varint 编码 / 旧的定长编码（4 字节帧长度、2 字节字符串长度、4 字节整数）。
+ * 消息轮流使用 StartWorkConn、ReqWorkConn、Ping、Pong、NewProxy、Login，缓冲区为池化的直接内存并重复使用。
+ */
+public class MessageCodecBenchmark {
+
+    private static final int OPERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final Message[] MESSAGES = {
+            new StartWorkConn("ssh", "192.168.10.24", 52814),
+            ReqWorkConn.INSTANCE,
+            Ping.INSTANCE,
+            Pong.INSTANCE,
+            new NewProxy("web-8080", "tcp", 6080),
+            new Login("0.0.1", "s3cr3t-token", "9a2af018418d4a5f", 1),
+    };
+
+    private interface Codec {
+        void encode(Message msg, ByteBuf out);
+
+        Message decode(ByteBuf in);
+    }
+
+    public static void main(String[] args) {
+        Codec varint = new Codec() {
+            @Override
+            public void encode(Message msg, ByteBuf out) {
+                MessageCodec.encode(msg, out);
+            }
+
+            @Override
+            public Message decode(ByteBuf in) {
+                long header = MessageCodec.peekVarint(in, in.readerIndex());
+                in.skipBytes((int) (header >>> 32));
+                return MessageCodec.decode(in, in.readerIndex() + (int) header);
+            }
+        };
+        Codec fixed = new Codec() {
+            @Override
+            public void encode(Message msg, ByteBuf out) {
+                legacyEncode(msg, out);
+            }
+
+            @Override
+            public Message decode(ByteBuf in) {
+                return legacyDecode(in);
+            }
+        };
+        report("varint", varint);
+        report("fixed-width", fixed);
+    }
+
+    private static void report(String name, Codec codec) {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer(256);
+        int bytes = 0;
+        for (Message msg : MESSAGES) {
+            buf.clear();
+            codec.encode(msg, buf);
+            bytes += buf.readableBytes();
+            if (!msg.equals(codec.decode(buf))) {
+                throw new IllegalStateException(name + " round trip failed: " + msg);
+            }
+        }
+        // 预热
+        run(codec, buf, OPERATIONS);
+        long best = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        int sink = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long before = allocatedBytes();
+            long start = System.nanoTime();
+            sink += run(codec, buf, OPERATIONS);
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = Math.min(allocated, allocatedBytes() - before);
+        }
+        buf.release();
+        System.out.printf("%-12s %.1f bytes/msg, encode+decode %.1f ns/op, %.1f bytes allocated/op (%d)%n",
+                name, (double) bytes / MESSAGES.length, (double) best / OPERATIONS, (double) allocated / OPERATIONS, sink & 1);
+    }
+
+    private static int run(Codec codec, ByteBuf buf, int operations) {
+        int hash = 0;
+        for (int i = 0; i < operations; i++) {
+            buf.clear();
+            codec.encode(MESSAGES[i % MESSAGES.length], buf);
+            hash += codec.decode(buf).type();
+        }
+        return hash;
+    }
+
+    /**
+     * 旧的定长编码
+     */
+    private static void legacyEncode(Message msg, ByteBuf out) {
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        out.writeByte(msg.type());
+        if (msg instanceof Login m) {
+            legacyWriteString(out, m.version());
+            legacyWriteString(out, m.token());
+            legacyWriteString(out, m.runId());
+            out.writeInt(m.poolCount());
+        } else if (msg instanceof NewProxy m) {
+            legacyWriteString(out, m.proxyName());
+            legacyWriteString(out, m.proxyType());
+            out.writeInt(m.remotePort());
+        } else if (msg instanceof StartWorkConn m) {
+            legacyWriteString(out, m.proxyName());
+            legacyWriteString(out, m.srcAddr());
+            out.writeInt(m.srcPort());
+        }
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+    }
+
+    private static Message legacyDecode(ByteBuf in) {
+        // 旧实现由 LengthFieldBasedFrameDecoder 切出整帧，这里同样切出并释放
+        ByteBuf frame = in.readRetainedSlice(in.readInt());
+        try {
+            byte type = frame.readByte();
+            return switch (type) {
+                case Login.TYPE -> new Login(legacyReadString(frame), legacyReadString(frame), legacyReadString(frame), frame.readInt());
+                case NewProxy.TYPE -> new NewProxy(legacyReadString(frame), legacyReadString(frame), frame.readInt());
+                case StartWorkConn.TYPE -> new StartWorkConn(legacyReadString(frame), legacyReadString(frame), frame.readInt());
+                case ReqWorkConn.TYPE -> ReqWorkConn.INSTANCE;
+                case Ping.TYPE -> Ping.INSTANCE;
+                case Pong.TYPE -> Pong.INSTANCE;
+                default -> throw new IllegalStateException("type " + type);
+            };
+        } finally {
+            frame.release();
+        }
+    }
+
+    private static void legacyWriteString(ByteBuf out, String value) {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        out.setShort(lengthIndex, ByteBufUtil.writeUtf8(out, value));
+    }
+
+    private static String legacyReadString(ByteBuf in) {
+        int length = in.readUnsignedShort();
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,155 @@
+package net.evelan.frp.common.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 编码结果和固定的字节序列逐字节比较，防止改动编解码时无意中改变线上格式；同时检查拆包、粘包、非法帧和移除解码器后剩余数据的处理。
+ * 任何一项不符合时抛出 AssertionError。
+ */
+public class MessageCodecGoldenBytes {
+
+    public static void main(String[] args) {
+        Map<Message, String> golden = new LinkedHashMap<>();
+        golden.put(Ping.INSTANCE, "0168");
+        golden.put(Pong.INSTANCE, "0134");
+        golden.put(ReqWorkConn.INSTANCE, "0172");
+        // 长度 12 | 'o' | "0.0.1" | "tk" | "" | poolCount 1
+        golden.put(new Login("0.0.1", "tk", "", 1), "0c6f05302e302e3102746b0001");
+        // 长度 11 | 'p' | "ssh" | "tcp" | 6000 = f0 2e
+        golden.put(new NewProxy("ssh", "tcp", 6000), "0b700373736803746370f02e");
+        // 长度 17 | 's' | "ssh" | "10.0.0.2" | 54321 = b1 a8 03
+        golden.put(new StartWorkConn("ssh", "10.0.0.2", 54321), "1173037373680831302e302e302e32b1a803");
+        // 长度 15 | '2' | "代理"（6 字节 UTF-8）| ":6000" | ""
+        golden.put(new NewProxyResp("代理", ":6000", ""), "0f3206e4bba3e79086053a3630303000");
+        // 长度 204 = cc 01 | 'w' | 200 字节的 runId，长度 200 = c8 01 | ""
+        golden.put(new NewWorkConn("a".repeat(200), ""), "cc0177c801" + "61".repeat(200) + "00");
+        // 长度 7 | 'w' | "r1" | "k1"
+        golden.put(new NewWorkConn("r1", "k1"), "0777027231026b31");
+        // 长度 19 | '1' | 16 字节的 runId | ""
+        golden.put(new LoginResp("9a2af018418d4a5f", ""), "1331103961326166303138343138643461356600");
+
+        for (Map.Entry<Message, String> entry : golden.entrySet()) {
+            Message msg = entry.getKey();
+            String hex = entry.getValue();
+            String encoded = encode(msg);
+            check(hex.equals(encoded), "encode %s%n  expected %s%n  actual   %s", msg, hex, encoded);
+            check(MessageCodec.frameLength(msg) * 2 == hex.length(), "frameLength of %s", msg);
+            Message decoded = decodeAll(ByteBufUtil.decodeHexDump(hex), 1)[0];
+            check(msg.equals(decoded), "decode %s -> %s", hex, decoded);
+        }
+        System.out.printf("%d golden frames ok%n", golden.size());
+
+        checkSplitAndCoalesced(golden);
+        checkInvalidFrames();
+        checkRemoval();
+        System.out.println("all checks passed");
+    }
+
+    private static String encode(Message msg) {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer();
+        try {
+            MessageCodec.encode(msg, buf);
+            return ByteBufUtil.hexDump(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 所有帧拼在一起，按 chunk 字节一次写入解码器
+     */
+    private static Message[] decodeAll(byte[] bytes, int chunk) {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder(MessageCodec.DEFAULT_MAX_FRAME_LENGTH));
+        for (int i = 0; i < bytes.length; i += chunk) {
+            ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer();
+            buf.writeBytes(bytes, i, Math.min(chunk, bytes.length - i));
+            channel.writeInbound(buf);
+        }
+        Message[] messages = channel.inboundMessages().stream().map(Message.class::cast).toArray(Message[]::new);
+        channel.finishAndReleaseAll();
+        return messages;
+    }
+
+    private static void checkSplitAndCoalesced(Map<Message, String> golden) {
+        byte[] all = ByteBufUtil.decodeHexDump(String.join("", golden.values()));
+        Message[] expected = golden.keySet().toArray(new Message[0]);
+        for (int chunk : new int[]{1, 2, 3, 7, all.length}) {
+            Message[] decoded = decodeAll(all, chunk);
+            check(java.util.Arrays.equals(expected, decoded), "decode in chunks of %d bytes", chunk);
+        }
+        System.out.println("split and coalesced frames ok");
+    }
+
+    private static void checkInvalidFrames() {
+        // 未知消息类型
+        expectFailure("0158");
+        // 字符串长度超过帧
+        expectFailure("03770561");
+        // 帧中有多余的字节
+        expectFailure("026800");
+        // 长度为 0
+        expectFailure("00");
+        // 超过最大长度 65536
+        expectFailure("8180" + "04");
+        // 超过 5 字节的 varint
+        expectFailure("ffffffffff01");
+        System.out.println("invalid frames rejected");
+    }
+
+    private static void expectFailure(String hex) {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder(MessageCodec.DEFAULT_MAX_FRAME_LENGTH));
+        try {
+            channel.writeInbound(Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(hex)));
+            throw new AssertionError("expected decode failure: " + hex);
+        } catch (DecoderException e) {
+            // 预期的异常
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    /**
+     * 在 StartWorkConn 的回调中移除编解码器，同一次读取中紧跟在后面的原始数据应原样交给后面的处理器
+     */
+    private static void checkRemoval() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        MessageCodec.addTo(channel.pipeline(), MessageCodec.DEFAULT_MAX_FRAME_LENGTH);
+        channel.pipeline().addLast(new SimpleChannelInboundHandler<StartWorkConn>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, StartWorkConn msg) {
+                ctx.fireChannelRead(msg);
+                ctx.pipeline().remove(this);
+                // 移除解码器时剩余的数据立即传给后面的处理器
+                MessageCodec.removeFrom(ctx.pipeline());
+            }
+        });
+        ByteBuf in = Unpooled.buffer();
+        MessageCodec.encode(new StartWorkConn("ssh", "10.0.0.2", 54321), in);
+        // 原始数据的第一个字节恰好也像一个合法的帧
+        in.writeCharSequence("\u0001hello", StandardCharsets.US_ASCII);
+        channel.writeInbound(in);
+        check(channel.readInbound() instanceof StartWorkConn, "StartWorkConn before raw data");
+        ByteBuf raw = channel.readInbound();
+        check(raw != null && "\u0001hello".equals(raw.toString(StandardCharsets.US_ASCII)), "raw data after codec removal: %s", raw);
+        raw.release();
+        channel.finishAndReleaseAll();
+        System.out.println("codec removal keeps trailing raw bytes");
+    }
+
+    private static void check(boolean condition, String format, Object... args) {
+        if (!condition) {
+            throw new AssertionError(String.format(format, args));
+        }
+    }
+}
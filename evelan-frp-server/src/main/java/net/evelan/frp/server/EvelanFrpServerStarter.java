@@ -3,16 +3,15 @@ package net.evelan.frp.server;
 import net.evelan.frp.bootstrap.annotation.EApplication;
 import net.evelan.frp.bootstrap.core.EvelanApplication;
 import net.evelan.frp.bootstrap.core.context.EvelanConfigApplicationContext;
+import net.evelan.frp.server.engine.FrpServer;
 
 
 @EApplication
 public class EvelanFrpServerStarter {
     public static void main(String... args) {
         EvelanConfigApplicationContext context = EvelanApplication.run(EvelanFrpServerStarter.class, args);
-        TestController controller = context.getBean(TestController.class);
-        controller.test();
-        System.out.println("\n==========\n");
-        TestService11 bean = context.getBean(TestService11.class);
-        bean.test();
+        // 关闭上下文时 FrpServer 通过 @EPreDestroy 释放端口和线程
+        Runtime.getRuntime().addShutdownHook(new Thread(context::close, "evelan-shutdown"));
+        context.getBean(FrpServer.class).awaitClose();
     }
 }
@@ -0,0 +1,154 @@
+package net.evelan.frp.server.engine;
+
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import net.evelan.frp.common.protocol.ReqWorkConn;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 一个已登录的客户端：控制连接、注册的代理和工作连接池
+ * <p>
+ * 工作连接池会被控制连接、工作连接和各个用户连接所在的不同线程访问，所以用锁保护；
+ * 完成等待者的 Promise 放在锁外面，避免回调在持有锁时执行。
+ */
+final class ClientSession {
+
+    private final String runId;
+    private final Channel control;
+    private final int maxPoolCount;
+    private final Duration workConnTimeout;
+    // 空闲的工作连接
+    private final Deque<Channel> idle = new ArrayDeque<>();
+    // 等待工作连接的用户连接
+    private final Deque<Promise<Channel>> waiters = new ArrayDeque<>();
+    private final List<ProxyListener> proxies = new ArrayList<>();
+    private boolean closed;
+
+    ClientSession(String runId, Channel control, int maxPoolCount, Duration workConnTimeout) {
+        this.runId = runId;
+        this.control = control;
+        this.maxPoolCount = maxPoolCount;
+        this.workConnTimeout = workConnTimeout;
+    }
+
+    String runId() {
+        return this.runId;
+    }
+
+    Channel control() {
+        return this.control;
+    }
+
+    /**
+     * 客户端新建了一个工作连接，优先交给正在等待的用户连接，否则放入连接池
+     */
+    void offerWorkConn(Channel work) {
+        while (true) {
+            Promise<Channel> waiter;
+            synchronized (this) {
+                if (this.closed) {
+                    break;
+                }
+                waiter = this.waiters.poll();
+                if (waiter == null) {
+                    if (this.idle.size() >= this.maxPoolCount) {
+                        break;
+                    }
+                    this.idle.add(work);
+                    work.closeFuture().addListener(f -> removeIdle(work));
+                    return;
+                }
+            }
+            // 等待者可能已经超时
+            if (waiter.trySuccess(work)) {
+                return;
+            }
+        }
+        work.close();
+    }
+
+    /**
+     * 获取一个工作连接，连接池为空时等待客户端新建，超时后失败。
+     * 每次获取都请求客户端再建一个工作连接，补充连接池
+     * @param executor 用户连接的线程，Promise 的回调在这个线程上执行
+     */
+    Future<Channel> acquireWorkConn(EventExecutor executor) {
+        Promise<Channel> promise = executor.newPromise();
+        Channel work = null;
+        synchronized (this) {
+            if (this.closed) {
+                return promise.setFailure(new IllegalStateException(String.format("Client [%s] is closed", this.runId)));
+            }
+            while ((work = this.idle.poll()) != null && !work.isActive()) {
+                // 跳过已经断开的连接
+            }
+            if (work == null) {
+                this.waiters.add(promise);
+            }
+        }
+        if (work != null) {
+            promise.setSuccess(work);
+        } else {
+            executor.schedule(() -> {
+                if (promise.tryFailure(new TimeoutException(String.format("Timeout waiting for work connection of client [%s]", this.runId)))) {
+                    synchronized (this) {
+                        this.waiters.remove(promise);
+                    }
+                }
+            }, this.workConnTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        this.control.writeAndFlush(ReqWorkConn.INSTANCE);
+        return promise;
+    }
+
+    /**
+     * @return 客户端已经关闭时返回 false
+     */
+    synchronized boolean addProxy(ProxyListener proxy) {
+        if (this.closed) {
+            return false;
+        }
+        this.proxies.add(proxy);
+        return true;
+    }
+
+    synchronized List<ProxyListener> proxies() {
+        return List.copyOf(this.proxies);
+    }
+
+    /**
+     * 关闭空闲的工作连接，让等待中的用户连接失败
+     * @return 已经关闭过时返回 false
+     */
+    boolean close() {
+        List<Channel> idle;
+        List<Promise<Channel>> waiters;
+        synchronized (this) {
+            if (this.closed) {
+                return false;
+            }
+            this.closed = true;
+            idle = new ArrayList<>(this.idle);
+            waiters = new ArrayList<>(this.waiters);
+            this.idle.clear();
+            this.waiters.clear();
+        }
+        idle.forEach(Channel::close);
+        IllegalStateException cause = new IllegalStateException(String.format("Client [%s] is closed", this.runId));
+        waiters.forEach(waiter -> waiter.tryFailure(cause));
+        return true;
+    }
+
+    private synchronized void removeIdle(Channel work) {
+        this.idle.remove(work);
+    }
+}
@@ -0,0 +1,50 @@
+package net.evelan.frp.server.engine;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import net.evelan.frp.common.protocol.Message;
+import net.evelan.frp.common.protocol.NewProxy;
+import net.evelan.frp.common.protocol.Ping;
+import net.evelan.frp.common.protocol.Pong;
+
+/**
+ * 控制连接上登录之后的消息：注册代理和心跳，超过 heartbeatTimeout 没有收到任何消息时断开
+ */
+final class ControlHandler extends SimpleChannelInboundHandler<Message> {
+
+    static final String NAME = "control";
+
+    private final FrpServer server;
+    private final ClientSession session;
+
+    ControlHandler(FrpServer server, ClientSession session) {
+        this.server = server;
+        this.session = session;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+        if (msg instanceof NewProxy newProxy) {
+            this.server.registerProxy(this.session, newProxy);
+        } else if (msg instanceof Ping) {
+            ctx.writeAndFlush(Pong.INSTANCE);
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            System.out.printf("Client [%s] heartbeat timeout%n", this.session.runId());
+            ctx.close();
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        System.err.printf("Control connection of client [%s] failed: %s%n", this.session.runId(), cause);
+        ctx.close();
+    }
+}
@@ -0,0 +1,234 @@
+package net.evelan.frp.server.engine;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.timeout.IdleStateHandler;
+import net.evelan.frp.bootstrap.annotation.bean.EComponent;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EImport;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPostConstruct;
+import net.evelan.frp.bootstrap.annotation.lifecycle.EPreDestroy;
+import net.evelan.frp.common.protocol.Login;
+import net.evelan.frp.common.protocol.MessageCodec;
+import net.evelan.frp.common.protocol.NewProxy;
+import net.evelan.frp.common.protocol.NewProxyResp;
+import net.evelan.frp.common.protocol.NewWorkConn;
+import net.evelan.frp.common.protocol.PrivilegeKey;
+import net.evelan.frp.common.transport.Transport;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内网穿透服务端
+ * <p>
+ * 在 bindPort 上同时接受客户端的控制连接和工作连接，由连接上的第一条消息区分：Login 为控制连接，NewWorkConn 为工作连接。
+ * 客户端通过控制连接注册代理后，服务端为每个代理监听一个对外端口；用户连接进来时从该客户端的工作连接池中取出一个工作连接，
+ * 发送 StartWorkConn 后移除编解码器，两个连接之间直接转发原始数据。
+ * <p>
+ * 所有端口共用一组 boss 线程和一组 worker 线程，Linux 上优先使用 epoll。
+ */
+@EComponent
+public class FrpServer {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final FrpServerProperties properties;
+    // { runId : 客户端 }
+    private final Map<String, ClientSession> sessions = new ConcurrentHashMap<>();
+    // { 代理名称 : 代理 }，代理名称在整个服务端上唯一
+    private final Map<String, ProxyListener> proxies = new ConcurrentHashMap<>();
+    private Transport transport;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private Channel serverChannel;
+
+    public FrpServer(@EImport FrpServerProperties properties) {
+        this.properties = properties;
+    }
+
+    @EPostConstruct
+    public void start() {
+        this.transport = Transport.select(this.properties.isNativeTransport());
+        this.bossGroup = this.transport.newEventLoopGroup(this.properties.getBossThreads(), "frp-server-boss");
+        this.workerGroup = this.transport.newEventLoopGroup(this.properties.getWorkerThreads(), "frp-server-worker");
+        int maxFrameLength = this.properties.getMaxFrameLength().toIntBytes();
+        long handshakeTimeout = this.properties.getHandshakeTimeout().toMillis();
+        ServerBootstrap bootstrap = newServerBootstrap()
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(HandshakeHandler.IDLE, new IdleStateHandler(handshakeTimeout, 0, 0, TimeUnit.MILLISECONDS));
+                        ch.pipeline().addLast(HandshakeHandler.NAME, new HandshakeHandler(FrpServer.this));
+                        MessageCodec.addTo(ch.pipeline(), maxFrameLength);
+                    }
+                });
+        try {
+            this.serverChannel = bootstrap.bind(this.properties.getBindAddr(), this.properties.getBindPort()).syncUninterruptibly().channel();
+        } catch (RuntimeException e) {
+            stop();
+            throw new RuntimeException(String.format("Failed to bind frp server on %s:%d", this.properties.getBindAddr(), this.properties.getBindPort()), e);
+        }
+        System.out.printf("FRP server listening on %s using %s transport%n", this.serverChannel.localAddress(), this.transport);
+    }
+
+    @EPreDestroy
+    public void stop() {
+        if (this.serverChannel != null) {
+            this.serverChannel.close().syncUninterruptibly();
+        }
+        for (ClientSession session : this.sessions.values()) {
+            logout(session);
+        }
+        if (this.bossGroup != null) {
+            this.bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+        if (this.workerGroup != null) {
+            this.workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    /**
+     * 阻塞直到服务端关闭
+     */
+    public void awaitClose() {
+        this.serverChannel.closeFuture().syncUninterruptibly();
+    }
+
+    /**
+     * 服务端实际监听的地址，bindPort 为 0 时可以通过它获取分配的端口
+     */
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) this.serverChannel.localAddress();
+    }
+
+    FrpServerProperties properties() {
+        return this.properties;
+    }
+
+    /**
+     * 校验令牌并创建客户端，runId 总是由服务端生成。
+     * 配置了令牌时，带着之前的 runId 重连会关闭旧的客户端（旧的控制连接可能还没有因为心跳超时断开，它的代理会占用代理名称）；
+     * 没有令牌时无法证明旧的客户端属于同一个人，旧的客户端只能等心跳超时后关闭
+     * @return 令牌错误时返回 null
+     */
+    ClientSession login(Channel control, Login login) {
+        String token = this.properties.getToken();
+        if (!token.isEmpty() && !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), login.token().getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+        if (!token.isEmpty() && !login.runId().isEmpty()) {
+            ClientSession previous = this.sessions.get(login.runId());
+            if (previous != null) {
+                logout(previous);
+            }
+        }
+        String runId = newRunId();
+        ClientSession session = new ClientSession(runId, control, this.properties.getMaxPoolCount(), this.properties.getWorkConnTimeout());
+        this.sessions.put(runId, session);
+        control.closeFuture().addListener(f -> logout(session));
+        System.out.printf("Client [%s] logged in from %s%n", runId, control.remoteAddress());
+        return session;
+    }
+
+    /**
+     * 校验工作连接的密钥
+     * @return 客户端不存在或密钥错误时返回 null
+     */
+    ClientSession workConnSession(NewWorkConn msg) {
+        ClientSession session = this.sessions.get(msg.runId());
+        if (session == null || !PrivilegeKey.matches(this.properties.getToken(), msg.runId(), msg.privilegeKey())) {
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * 客户端断开，关闭它的所有代理和空闲的工作连接
+     */
+    void logout(ClientSession session) {
+        if (!session.close()) {
+            return;
+        }
+        this.sessions.remove(session.runId(), session);
+        for (ProxyListener proxy : session.proxies()) {
+            this.proxies.remove(proxy.name(), proxy);
+            proxy.close();
+        }
+        session.control().close();
+        System.out.printf("Client [%s] logged out%n", session.runId());
+    }
+
+    /**
+     * 注册代理并监听对外端口，结果通过控制连接异步返回给客户端
+     */
+    void registerProxy(ClientSession session, NewProxy msg) {
+        String name = msg.proxyName();
+        String error = null;
+        if (name.isEmpty()) {
+            error = "proxy name is empty";
+        } else if (!"tcp".equals(msg.proxyType())) {
+            error = String.format("proxy type [%s] is not supported", msg.proxyType());
+        } else if (!this.properties.isPortAllowed(msg.remotePort())) {
+            error = String.format("port [%d] is not allowed", msg.remotePort());
+        }
+        ProxyListener proxy = new ProxyListener(name, session);
+        if (error == null && this.proxies.putIfAbsent(name, proxy) != null) {
+            error = String.format("proxy [%s] already exists", name);
+        }
+        if (error != null) {
+            session.control().writeAndFlush(new NewProxyResp(name, "", error));
+            return;
+        }
+        ServerBootstrap bootstrap = newServerBootstrap()
+                // 拿到工作连接之前不读取用户数据
+                .childOption(ChannelOption.AUTO_READ, false)
+                .childHandler(proxy.userHandler());
+        bootstrap.bind(this.properties.getBindAddr(), msg.remotePort()).addListener((ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                this.proxies.remove(name, proxy);
+                session.control().writeAndFlush(new NewProxyResp(name, "", String.format("bind port [%d] failed: %s", msg.remotePort(), f.cause().getMessage())));
+                return;
+            }
+            proxy.bound(f.channel());
+            if (!session.addProxy(proxy)) {
+                // 绑定过程中客户端已经断开
+                this.proxies.remove(name, proxy);
+                proxy.close();
+                return;
+            }
+            int port = ((InetSocketAddress) f.channel().localAddress()).getPort();
+            System.out.printf("Proxy [%s] of client [%s] listening on port %d%n", name, session.runId(), port);
+            session.control().writeAndFlush(new NewProxyResp(name, ":" + port, ""));
+        });
+    }
+
+    private static String newRunId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private ServerBootstrap newServerBootstrap() {
+        return new ServerBootstrap()
+                .group(this.bossGroup, this.workerGroup)
+                .channel(this.transport.serverChannelClass())
+                .option(ChannelOption.SO_BACKLOG, 1024)
+                .option(ChannelOption.SO_REUSEADDR, true)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+    }
+}
@@ -0,0 +1,108 @@
+package net.evelan.frp.server.engine;
+
+import net.evelan.frp.bootstrap.annotation.bean.EConfigurationProperties;
+import net.evelan.frp.bootstrap.core.solver.DataSize;
+import net.evelan.frp.common.protocol.MessageCodec;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 服务端配置，对应 application.yaml 中的 frp.server
+ */
+@EConfigurationProperties(prefix = "frp.server")
+public class FrpServerProperties {
+
+    // 控制连接和工作连接共用的监听地址
+    private String bindAddr = "0.0.0.0";
+    private int bindPort = 7000;
+    // 客户端登录令牌，为空时不校验
+    private String token = "";
+    // 接受连接的线程数，所有代理端口共用
+    private int bossThreads = 1;
+    // 处理读写的线程数，0 表示 CPU 核数 * 2
+    private int workerThreads = 0;
+    // Linux 上是否使用 epoll
+    private boolean nativeTransport = true;
+    // 允许代理使用的端口，如 2000-3000、3001，为空时不限制
+    private List<String> allowPorts = List.of();
+    // 新连接发送第一条消息的超时时间
+    private Duration handshakeTimeout = Duration.ofSeconds(10);
+    // 控制连接多久没有收到心跳后断开
+    private Duration heartbeatTimeout = Duration.ofSeconds(90);
+    // 用户连接等待工作连接的超时时间
+    private Duration workConnTimeout = Duration.ofSeconds(10);
+    // 每个客户端最多保留的空闲工作连接数
+    private int maxPoolCount = 5;
+    private DataSize maxFrameLength = DataSize.ofBytes(MessageCodec.DEFAULT_MAX_FRAME_LENGTH);
+
+    public String getBindAddr() {
+        return bindAddr;
+    }
+
+    public int getBindPort() {
+        return bindPort;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public int getBossThreads() {
+        return bossThreads;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    public List<String> getAllowPorts() {
+        return allowPorts;
+    }
+
+    public Duration getHandshakeTimeout() {
+        return handshakeTimeout;
+    }
+
+    public Duration getHeartbeatTimeout() {
+        return heartbeatTimeout;
+    }
+
+    public Duration getWorkConnTimeout() {
+        return workConnTimeout;
+    }
+
+    public int getMaxPoolCount() {
+        return maxPoolCount;
+    }
+
+    public DataSize getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    /**
+     * 端口是否在 allowPorts 范围内，0（由系统分配）只在不限制端口时允许
+     */
+    public boolean isPortAllowed(int port) {
+        if (allowPorts.isEmpty()) {
+            return port >= 0 && port <= 0xFFFF;
+        }
+        for (String range : allowPorts) {
+            String r = range.trim();
+            int dash = r.indexOf('-');
+            try {
+                if (dash < 0 ? port == Integer.parseInt(r)
+                        : port >= Integer.parseInt(r.substring(0, dash).trim()) && port <= Integer.parseInt(r.substring(dash + 1).trim())) {
+                    return true;
+                }
+            } catch (NumberFormatException e) {
+                throw new RuntimeException(String.format("Invalid frp.server.allow-ports: %s", range), e);
+            }
+        }
+        return false;
+    }
+}
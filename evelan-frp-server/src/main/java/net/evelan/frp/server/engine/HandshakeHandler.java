@@ -0,0 +1,77 @@
+package net.evelan.frp.server.engine;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import net.evelan.frp.common.protocol.Login;
+import net.evelan.frp.common.protocol.LoginResp;
+import net.evelan.frp.common.protocol.Message;
+import net.evelan.frp.common.protocol.NewWorkConn;
+import net.evelan.frp.common.protocol.ReqWorkConn;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理新连接上的第一条消息：Login 把连接变成控制连接，NewWorkConn 校验密钥后把连接放入对应客户端的工作连接池
+ */
+final class HandshakeHandler extends SimpleChannelInboundHandler<Message> {
+
+    static final String NAME = "handshake";
+    static final String IDLE = "idle";
+
+    private final FrpServer server;
+
+    HandshakeHandler(FrpServer server) {
+        this.server = server;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+        ChannelPipeline pipeline = ctx.pipeline();
+        if (msg instanceof Login login) {
+            ClientSession session = this.server.login(ctx.channel(), login);
+            if (session == null) {
+                ctx.writeAndFlush(new LoginResp("", "authorization failed")).addListener(f -> ctx.close());
+                return;
+            }
+            long heartbeatTimeout = this.server.properties().getHeartbeatTimeout().toMillis();
+            pipeline.replace(IDLE, IDLE, new IdleStateHandler(heartbeatTimeout, 0, 0, TimeUnit.MILLISECONDS));
+            pipeline.replace(this, ControlHandler.NAME, new ControlHandler(this.server, session));
+            ctx.write(new LoginResp(session.runId(), ""));
+            // 预先建立工作连接
+            int poolCount = Math.min(login.poolCount(), this.server.properties().getMaxPoolCount());
+            for (int i = 0; i < poolCount; i++) {
+                ctx.write(ReqWorkConn.INSTANCE);
+            }
+            ctx.flush();
+        } else if (msg instanceof NewWorkConn newWorkConn) {
+            ClientSession session = this.server.workConnSession(newWorkConn);
+            if (session == null) {
+                ctx.close();
+                return;
+            }
+            // 空闲的工作连接可以一直保留
+            pipeline.remove(IDLE);
+            pipeline.remove(this);
+            session.offerWorkConn(ctx.channel());
+        } else {
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            ctx.close();
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.close();
+    }
+}
@@ -0,0 +1,100 @@
+package net.evelan.frp.server.engine;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.Future;
+import net.evelan.frp.common.protocol.MessageCodec;
+import net.evelan.frp.common.protocol.StartWorkConn;
+import net.evelan.frp.common.transport.RelayHandler;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 一个代理的对外端口，把每个用户连接和客户端的一个工作连接连起来
+ */
+final class ProxyListener {
+
+    private final String name;
+    private final ClientSession session;
+    private final UserConnectionHandler userHandler = new UserConnectionHandler();
+    private volatile Channel channel;
+
+    ProxyListener(String name, ClientSession session) {
+        this.name = name;
+        this.session = session;
+    }
+
+    String name() {
+        return this.name;
+    }
+
+    ChannelHandler userHandler() {
+        return this.userHandler;
+    }
+
+    void bound(Channel channel) {
+        this.channel = channel;
+    }
+
+    void close() {
+        Channel channel = this.channel;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 用户连接建立后获取工作连接，在工作连接的线程上发送 StartWorkConn、移除编解码器，之后两边互相转发数据
+     */
+    @ChannelHandler.Sharable
+    private final class UserConnectionHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            Channel user = ctx.channel();
+            session.acquireWorkConn(user.eventLoop()).addListener((Future<Channel> f) -> {
+                if (!f.isSuccess()) {
+                    System.err.printf("Proxy [%s] failed to get work connection: %s%n", name, f.cause().getMessage());
+                    user.close();
+                    return;
+                }
+                Channel work = f.getNow();
+                if (!user.isActive()) {
+                    // 用户已经断开，工作连接还没有使用过，放回连接池
+                    session.offerWorkConn(work);
+                    return;
+                }
+                ctx.pipeline().remove(this);
+                InetSocketAddress src = (InetSocketAddress) user.remoteAddress();
+                work.eventLoop().execute(() -> splice(user, work, src));
+            });
+            ctx.fireChannelActive();
+        }
+
+        private void splice(Channel user, Channel work, InetSocketAddress src) {
+            if (!work.isActive()) {
+                // 取到之后工作连接已经断开，之后添加的 RelayHandler 收不到 channelInactive，用户连接会一直挂着，直接关闭。
+                // 这里运行在工作连接的线程上，检查通过后再断开时一定会经过下面添加的 RelayHandler
+                System.err.printf("Proxy [%s] work connection closed before relay started%n", name);
+                user.close();
+                return;
+            }
+            work.writeAndFlush(new StartWorkConn(name, src.getHostString(), src.getPort()));
+            MessageCodec.removeFrom(work.pipeline());
+            work.pipeline().addLast(new RelayHandler(user));
+            user.pipeline().addLast(new RelayHandler(work));
+            user.config().setAutoRead(true);
+            if (!user.isActive()) {
+                // 转发建立之前用户已经断开
+                RelayHandler.closeOnFlush(work);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
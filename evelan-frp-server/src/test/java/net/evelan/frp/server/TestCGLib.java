@@ -1,7 +1,27 @@
 package net.evelan.frp.server;
 
+import net.evelan.frp.bootstrap.core.aop.MethodInterceptor;
+import net.evelan.frp.bootstrap.core.aop.ProxyFactory;
+
 public class TestCGLib {
     public static void main(String[] args) {
+        MethodInterceptor interceptor = invocation -> {
+            Object result = null;
+            try {
+                System.out.println("前置");
+                result = invocation.proceed();
+                System.out.println("返回通知");
+            } catch (Exception e) {
+                System.out.println("异常通知");
+                e.printStackTrace();
+            } finally {
+                System.out.println("最终通知");
+            }
+            return result;
+        };
+
+        TestServiceImpl testServiceProxy = ProxyFactory.createProxy(new TestServiceImpl(), method -> new MethodInterceptor[]{interceptor});
 
+        testServiceProxy.test(1);
     }
 }
@@ -0,0 +1,220 @@
+package net.evelan.frp.server.engine;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import net.evelan.frp.bootstrap.core.EvelanApplication;
+import net.evelan.frp.bootstrap.core.context.EvelanConfigApplicationContext;
+import net.evelan.frp.common.protocol.Login;
+import net.evelan.frp.common.protocol.LoginResp;
+import net.evelan.frp.common.protocol.Message;
+import net.evelan.frp.common.protocol.MessageCodec;
+import net.evelan.frp.common.protocol.NewProxy;
+import net.evelan.frp.common.protocol.NewProxyResp;
+import net.evelan.frp.common.protocol.NewWorkConn;
+import net.evelan.frp.common.protocol.PrivilegeKey;
+import net.evelan.frp.common.protocol.ReqWorkConn;
+import net.evelan.frp.common.protocol.StartWorkConn;
+import net.evelan.frp.common.transport.RelayHandler;
+import net.evelan.frp.common.transport.Transport;
+import net.evelan.frp.server.EvelanFrpServerStarter;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端转发：本地 echo 服务 <- 最简单的客户端 <- FrpServer <- 用户连接。
+ * 校验经过代理的数据完全一致，并测量建立连接的耗时和单个连接的转发吞吐。
+ */
+public class FrpServerBenchmark {
+
+    private static final int CONNECTIONS = 200;
+    private static final int PAYLOAD = 64 * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int echoPort = startEchoServer();
+        EvelanConfigApplicationContext context = EvelanApplication.run(EvelanFrpServerStarter.class, "--frp.server.bind-port=0");
+        FrpServer server = context.getBean(FrpServer.class);
+        Transport transport = Transport.select(true);
+        EventLoopGroup group = transport.newEventLoopGroup(1, "benchmark-agent");
+        try {
+            int remotePort = startAgent(transport, group, server.localAddress(), echoPort).get(5, TimeUnit.SECONDS);
+            System.out.printf("proxy listening on %d -> echo %d%n", remotePort, echoPort);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < CONNECTIONS; i++) {
+                roundTrip(remotePort, 64);
+            }
+            System.out.printf("%d short connections: %.3f ms per connection%n", CONNECTIONS, (System.nanoTime() - start) / 1_000_000.0 / CONNECTIONS);
+
+            roundTrip(remotePort, PAYLOAD);
+            start = System.nanoTime();
+            roundTrip(remotePort, PAYLOAD);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("%d MB echoed through one connection: %.1f MB/s%n", PAYLOAD >> 20, (PAYLOAD >> 20) / seconds);
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            context.close();
+        }
+    }
+
+    /**
+     * 通过代理发送随机数据并读回，数据不一致时抛出异常
+     */
+    private static void roundTrip(int port, int size) throws Exception {
+        byte[] data = new byte[size];
+        ThreadLocalRandom.current().nextBytes(data);
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            OutputStream out = socket.getOutputStream();
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                try {
+                    out.write(data);
+                    out.flush();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            byte[] echoed = new byte[size];
+            new DataInputStream(socket.getInputStream()).readFully(echoed);
+            writer.join();
+            if (!Arrays.equals(data, echoed)) {
+                throw new IllegalStateException("echoed data mismatch");
+            }
+        }
+    }
+
+    private static int startEchoServer() throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (true) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread echo = new Thread(() -> {
+                        try (socket) {
+                            socket.getInputStream().transferTo(socket.getOutputStream());
+                        } catch (Exception e) {
+                            // 连接断开
+                        }
+                    });
+                    echo.setDaemon(true);
+                    echo.start();
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        }, "echo-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 最简单的客户端：登录、注册一个代理、按 ReqWorkConn 新建工作连接，收到 StartWorkConn 后连接本地服务并转发
+     * @return 代理的对外端口
+     */
+    private static CompletableFuture<Integer> startAgent(Transport transport, EventLoopGroup group, InetSocketAddress server, int localPort) {
+        CompletableFuture<Integer> remotePort = new CompletableFuture<>();
+        Bootstrap bootstrap = new Bootstrap().group(group).channel(transport.channelClass()).option(ChannelOption.TCP_NODELAY, true);
+        String[] runId = {""};
+        bootstrap.clone().handler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                MessageCodec.addTo(ch.pipeline(), MessageCodec.DEFAULT_MAX_FRAME_LENGTH);
+                ch.pipeline().addLast(new SimpleChannelInboundHandler<Message>() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        ctx.writeAndFlush(new Login("benchmark", "", "", 1));
+                    }
+
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+                        if (msg instanceof LoginResp resp) {
+                            runId[0] = resp.runId();
+                            ctx.writeAndFlush(new NewProxy("echo", "tcp", 0));
+                        } else if (msg instanceof NewProxyResp resp) {
+                            if (resp.error().isEmpty()) {
+                                remotePort.complete(Integer.parseInt(resp.remoteAddr().substring(1)));
+                            } else {
+                                remotePort.completeExceptionally(new IllegalStateException(resp.error()));
+                            }
+                        } else if (msg instanceof ReqWorkConn) {
+                            newWorkConn(bootstrap, server, runId[0], localPort);
+                        }
+                    }
+                });
+            }
+        }).connect(server);
+        return remotePort;
+    }
+
+    private static void newWorkConn(Bootstrap bootstrap, InetSocketAddress server, String runId, int localPort) {
+        bootstrap.clone().handler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                MessageCodec.addTo(ch.pipeline(), MessageCodec.DEFAULT_MAX_FRAME_LENGTH);
+                ch.pipeline().addLast(new SimpleChannelInboundHandler<Message>() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        ctx.writeAndFlush(new NewWorkConn(runId, PrivilegeKey.of("", runId)));
+                    }
+
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+                        if (msg instanceof StartWorkConn) {
+                            startRelay(ctx, bootstrap, localPort);
+                        }
+                    }
+                });
+            }
+        }).connect(server);
+    }
+
+    /**
+     * 在解码 StartWorkConn 的回调中移除编解码器，同一次读取中紧跟在后面的用户数据先缓存，本地连接建立后再转发
+     */
+    private static void startRelay(ChannelHandlerContext ctx, Bootstrap bootstrap, int localPort) {
+        Channel work = ctx.channel();
+        work.config().setAutoRead(false);
+        List<ByteBuf> pending = new ArrayList<>();
+        ctx.pipeline().replace(ctx.handler(), "pending", new SimpleChannelInboundHandler<ByteBuf>(false) {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+                pending.add(msg);
+            }
+        });
+        MessageCodec.removeFrom(work.pipeline());
+        ChannelFuture connect = bootstrap.clone().handler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline().addLast(new RelayHandler(work));
+            }
+        }).connect("127.0.0.1", localPort);
+        connect.addListener(f -> work.eventLoop().execute(() -> {
+            if (!f.isSuccess()) {
+                pending.forEach(ByteBuf::release);
+                work.close();
+                return;
+            }
+            Channel local = connect.channel();
+            pending.forEach(local::write);
+            local.flush();
+            work.pipeline().replace("pending", "relay", new RelayHandler(local));
+            work.config().setAutoRead(true);
+        }));
+    }
+}